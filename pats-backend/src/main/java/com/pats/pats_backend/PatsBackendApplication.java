@@ -4,12 +4,20 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+import java.util.Map;
+
 @SpringBootApplication
 @EnableScheduling
 public class PatsBackendApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(PatsBackendApplication.class, args);
+		SpringApplication application = new SpringApplication(PatsBackendApplication.class);
+		// Lowest-precedence defaults; application.properties can override them
+		// Actuator runs on its own port so metrics are never served on the public one
+		application.setDefaultProperties(Map.of(
+				"management.endpoints.web.exposure.include", "health,prometheus",
+				"management.server.port", "8081"));
+		application.run(args);
 	}
 
 }
@@ -0,0 +1,62 @@
+package com.pats.pats_backend.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache for rows that are read on nearly every request and rarely change:
+ * users (also by username, through the natural-id cache), patients, psychologists and availability.
+ * Regions live in a local Caffeine JCache manager, bounded in size and with a write TTL as a backstop for
+ * changes made outside Hibernate. Per-region hit, miss and put counts are published by the hibernate.*
+ * metrics (see MetricsConfig).
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_USERNAME = "users-natural-id";
+    public static final String PATIENTS = "patients";
+    public static final String PSYCHOLOGISTS = "psychologists";
+    public static final String AVAILABILITY = "availability";
+
+    private static final List<String> REGIONS = List.of(USERS, USERS_BY_USERNAME, PATIENTS, PSYCHOLOGISTS, AVAILABILITY);
+
+    /**
+     * A manager of its own per application context, so contexts sharing a JVM (tests) never share entries
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${cache.entities.max-size:10000}") long maxSize,
+                                           @Value("${cache.entities.ttl-minutes:30}") long ttlMinutes) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("pats-entities-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            cacheManager.createCache(region, configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", entityCacheManager);
+            properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        };
+    }
+}
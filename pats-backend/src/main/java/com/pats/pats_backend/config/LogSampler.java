@@ -0,0 +1,24 @@
+package com.pats.pats_backend.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in every N calls through, for debug logs on paths that run on every request.
+ * Use behind a level check: {@code if (log.isDebugEnabled() && sampler.sample())}.
+ */
+public final class LogSampler {
+
+    private final long every;
+    private final AtomicLong calls = new AtomicLong();
+
+    public LogSampler(long every) {
+        if (every < 1) {
+            throw new IllegalArgumentException("every must be at least 1");
+        }
+        this.every = every;
+    }
+
+    public boolean sample() {
+        return calls.getAndIncrement() % every == 0;
+    }
+}
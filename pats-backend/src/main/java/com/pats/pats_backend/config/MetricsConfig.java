@@ -0,0 +1,52 @@
+package com.pats.pats_backend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics served on /actuator/prometheus.
+ * - pats.service: a timer with percentile histograms for every public method of classes annotated @Timed
+ * - hibernate.*: Hibernate statistics, bound by Spring Boot once statistics are enabled here, including
+ *   per-region second-level cache requests and puts for the regions configured in CacheConfig
+ * - pats.http.statements / pats.job.statements and N+1 counters: see QueryDiagnostics
+ * - hikaricp.*: connection pool gauges, bound by Spring Boot
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateMetricsCustomizer() {
+        return properties -> {
+            properties.put("hibernate.generate_statistics", "true");
+            properties.put("hibernate.session_factory.statement_inspector", new QueryCountInspector());
+        };
+    }
+
+    /**
+     * Hibernate reports second-level cache hits and misses as counters; the ratio is published for dashboards
+     */
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> Gauge.builder("pats.hibernate.second.level.cache.hit.ratio", statistics, stats -> {
+                    long hits = stats.getSecondLevelCacheHitCount();
+                    long requests = hits + stats.getSecondLevelCacheMissCount();
+                    return requests == 0 ? Double.NaN : (double) hits / requests;
+                })
+                .description("Share of second-level cache lookups served from the cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.pats.pats_backend.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Dev profile only: reports the statements a request has issued so far in X-Query-Count and the number of
+ * suspected N+1 SELECT shapes in X-N-Plus-One. Statements run while the body is serialized come after
+ * the headers and only show up in the metrics.
+ */
+@Profile("dev")
+@ControllerAdvice
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String N_PLUS_ONE_HEADER = "X-N-Plus-One";
+
+    private final QueryDiagnostics queryDiagnostics;
+
+    public QueryCountHeaderAdvice(QueryDiagnostics queryDiagnostics) {
+        this.queryDiagnostics = queryDiagnostics;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryCountInspector.Scope scope = QueryCountInspector.current();
+        if (scope != null) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(scope.getStatements()));
+            response.getHeaders().set(N_PLUS_ONE_HEADER,
+                    String.valueOf(scope.getRepeatedSelects(queryDiagnostics.getThreshold()).size()));
+        }
+        return body;
+    }
+}
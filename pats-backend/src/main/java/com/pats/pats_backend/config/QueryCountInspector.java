@@ -0,0 +1,110 @@
+package com.pats.pats_backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread inside a Scope opened with start().
+ * SELECTs are also grouped by shape (whitespace collapsed, literals and IN lists folded) so a scope can
+ * report the same query running once per entity, the usual sign of an N+1.
+ * Registered once per SessionFactory; threads without an open scope are not counted.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final int MAX_SHAPES = 256;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+\\b");
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Statements seen between start() and stop() on one thread; nested scopes also count towards their parent
+     */
+    public static final class Scope {
+        private final Scope parent;
+        private final Map<String, Integer> selectShapes = new HashMap<>();
+        private int statements;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        /**
+         * SELECT shapes that ran at least threshold times, with their counts
+         */
+        public Map<String, Integer> getRepeatedSelects(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            selectShapes.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+            return repeated;
+        }
+
+        private void record(String shape) {
+            statements++;
+            if (shape != null && (selectShapes.size() < MAX_SHAPES || selectShapes.containsKey(shape))) {
+                selectShapes.merge(shape, 1, Integer::sum);
+            }
+        }
+    }
+
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Close the innermost scope on this thread and return it
+     */
+    public static Scope stop() {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return new Scope(null);
+        }
+        if (scope.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope.parent);
+        }
+        return scope;
+    }
+
+    /**
+     * The innermost open scope on this thread, or null
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            String shape = isSelect(sql) ? shape(sql) : null;
+            for (Scope current = scope; current != null; current = current.parent) {
+                current.record(shape);
+            }
+        }
+        return sql;
+    }
+
+    static String shape(String sql) {
+        String collapsed = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return NUMBER.matcher(IN_LIST.matcher(collapsed).replaceAll("(?)")).replaceAll("?");
+    }
+
+    private static boolean isSelect(String sql) {
+        String trimmed = sql.stripLeading();
+        return trimmed.regionMatches(true, 0, "select", 0, 6) || trimmed.regionMatches(true, 0, "with", 0, 4);
+    }
+}
@@ -0,0 +1,58 @@
+package com.pats.pats_backend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Publishes the statement counts of a finished request or scheduled job and flags suspected N+1 queries:
+ * the same SELECT shape running at least diagnostics.n-plus-one.threshold times in one scope.
+ * - pats.{kind}.statements: statements per scope
+ * - pats.{kind}.n_plus_one: scopes with at least one repeated SELECT shape
+ */
+@Slf4j
+@Component
+public class QueryDiagnostics {
+
+    private static final LogSampler SUSPECT_SAMPLER = new LogSampler(100);
+
+    private final MeterRegistry meterRegistry;
+    private final int threshold;
+
+    public QueryDiagnostics(MeterRegistry meterRegistry,
+                            @Value("${diagnostics.n-plus-one.threshold:5}") int threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @param kind "http" or "job"
+     * @param tagKey tag naming the scope ("uri" or "job")
+     */
+    public void record(String kind, String tagKey, String tagValue, QueryCountInspector.Scope scope) {
+        DistributionSummary.builder("pats." + kind + ".statements")
+                .description("SQL statements issued per " + (kind.equals("http") ? "HTTP request" : "scheduled job run"))
+                .tag(tagKey, tagValue)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(scope.getStatements());
+
+        Map<String, Integer> repeated = scope.getRepeatedSelects(threshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("pats." + kind + ".n_plus_one", tagKey, tagValue).increment();
+            if (log.isWarnEnabled() && SUSPECT_SAMPLER.sample()) {
+                Map.Entry<String, Integer> worst = repeated.entrySet().iterator().next();
+                log.warn("Suspected N+1 in {} {}: {} statements, {} runs of {}",
+                        kind, tagValue, scope.getStatements(), worst.getValue(), worst.getKey());
+            }
+        }
+    }
+}
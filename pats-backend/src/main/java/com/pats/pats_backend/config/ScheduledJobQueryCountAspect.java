@@ -0,0 +1,32 @@
+package com.pats.pats_backend.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements of every @Scheduled job run, the background counterpart of QueryCountFilter
+ */
+@Aspect
+@Component
+public class ScheduledJobQueryCountAspect {
+
+    private final QueryDiagnostics queryDiagnostics;
+
+    public ScheduledJobQueryCountAspect(QueryDiagnostics queryDiagnostics) {
+        this.queryDiagnostics = queryDiagnostics;
+    }
+
+    @Around("@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object countStatements(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryCountInspector.start();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryCountInspector.Scope scope = QueryCountInspector.stop();
+            String job = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+            queryDiagnostics.record("job", "job", job, scope);
+        }
+    }
+}
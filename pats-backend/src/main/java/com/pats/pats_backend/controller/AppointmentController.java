@@ -1,15 +1,11 @@
 package com.pats.pats_backend.controller;
 
 import com.pats.pats_backend.dto.AppointmentDTO;
+import com.pats.pats_backend.dto.AppointmentHistoryDTO;
 import com.pats.pats_backend.dto.CancelAppointmentRequest;
 import com.pats.pats_backend.dto.RescheduleAppointmentRequest;
-import com.pats.pats_backend.entity.Appointment;
-import com.pats.pats_backend.entity.AppointmentHistory;
-import com.pats.pats_backend.entity.Patient;
-import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.dto.TimeSlotDTO;
 import com.pats.pats_backend.enums.AttendanceStatus;
-import com.pats.pats_backend.repo.PatientRepository;
-import com.pats.pats_backend.repo.PsychologistRepository;
 import com.pats.pats_backend.service.AppointmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @RestController
@@ -28,12 +25,6 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
-    @Autowired
-    private PsychologistRepository psychologistRepository;
-
-    @Autowired
-    private PatientRepository patientRepository;
-
     /**
      * FR9.2 - Get available time slots for a psychologist
      */
@@ -43,7 +34,24 @@ public class AppointmentController {
             @RequestParam LocalDateTime startTime,
             @RequestParam LocalDateTime endTime) {
         try {
-            List<Appointment> slots = appointmentService.getAvailableSlots(psychologistId, startTime, endTime);
+            List<AppointmentDTO> slots = appointmentService.getAvailableSlots(psychologistId, startTime, endTime);
+            return ResponseEntity.ok(slots);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * FR9.2 - Get free bookable time slots of the requested length for a psychologist
+     */
+    @GetMapping("/free-slots/{psychologistId}")
+    public ResponseEntity<?> getFreeSlots(
+            @PathVariable Long psychologistId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime,
+            @RequestParam(defaultValue = "60") Integer durationMinutes) {
+        try {
+            List<TimeSlotDTO> slots = appointmentService.getFreeSlots(psychologistId, startTime, endTime, durationMinutes);
             return ResponseEntity.ok(slots);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
@@ -56,23 +64,10 @@ public class AppointmentController {
     @PostMapping("/book")
     public ResponseEntity<?> bookAppointment(@RequestBody AppointmentDTO appointmentDTO) {
         try {
-            Optional<Psychologist> psychologistOpt = psychologistRepository.findById(appointmentDTO.getPsychologistId());
-            Optional<Patient> patientOpt = patientRepository.findById(appointmentDTO.getPatientId());
-
-            if (psychologistOpt.isEmpty() || patientOpt.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Psychologist or Patient not found");
-            }
-
-            Appointment appointment = new Appointment();
-            appointment.setPsychologist(psychologistOpt.get());
-            appointment.setPatient(patientOpt.get());
-            appointment.setAppointmentDateTime(appointmentDTO.getAppointmentDateTime());
-            appointment.setDurationMinutes(appointmentDTO.getDurationMinutes() != null ? appointmentDTO.getDurationMinutes() : 60);
-            appointment.setType(appointmentDTO.getType());
-            appointment.setAppointmentNotes(appointmentDTO.getAppointmentNotes());
-
-            Appointment bookedAppointment = appointmentService.bookAppointment(appointment);
+            AppointmentDTO bookedAppointment = appointmentService.bookAppointment(appointmentDTO);
             return ResponseEntity.status(HttpStatus.CREATED).body(bookedAppointment);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
         } catch (Exception e) {
@@ -86,8 +81,8 @@ public class AppointmentController {
     @PutMapping("/reschedule")
     public ResponseEntity<?> rescheduleAppointment(@RequestBody RescheduleAppointmentRequest request) {
         try {
-            Appointment rescheduledAppointment = appointmentService.rescheduleAppointment(
-                    request.getAppointmentId(), request.getNewDateTime());
+            AppointmentDTO rescheduledAppointment = AppointmentDTO.from(appointmentService.rescheduleAppointment(
+                    request.getAppointmentId(), request.getNewDateTime()));
             return ResponseEntity.ok(rescheduledAppointment);
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
@@ -115,7 +110,7 @@ public class AppointmentController {
     @GetMapping("/history/patient/{patientId}")
     public ResponseEntity<?> getPatientAppointmentHistory(@PathVariable Long patientId) {
         try {
-            List<AppointmentHistory> history = appointmentService.getPatientAppointmentHistory(patientId);
+            List<AppointmentHistoryDTO> history = appointmentService.getPatientAppointmentHistory(patientId);
             return ResponseEntity.ok(history);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
@@ -128,7 +123,7 @@ public class AppointmentController {
     @GetMapping("/history/psychologist/{psychologistId}")
     public ResponseEntity<?> getPsychologistAppointmentHistory(@PathVariable Long psychologistId) {
         try {
-            List<AppointmentHistory> history = appointmentService.getPsychologistAppointmentHistory(psychologistId);
+            List<AppointmentHistoryDTO> history = appointmentService.getPsychologistAppointmentHistory(psychologistId);
             return ResponseEntity.ok(history);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
@@ -145,8 +140,8 @@ public class AppointmentController {
             @RequestParam(required = false) String notes,
             @RequestParam(required = false) Integer actualDurationMinutes) {
         try {
-            AppointmentHistory history = appointmentService.recordAppointmentHistory(
-                    appointmentId, attendanceStatus, notes, actualDurationMinutes);
+            AppointmentHistoryDTO history = AppointmentHistoryDTO.from(appointmentService.recordAppointmentHistory(
+                    appointmentId, attendanceStatus, notes, actualDurationMinutes));
             return ResponseEntity.status(HttpStatus.CREATED).body(history);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
@@ -159,7 +154,7 @@ public class AppointmentController {
     @GetMapping("/psychologist/{psychologistId}")
     public ResponseEntity<?> getAppointmentsByPsychologist(@PathVariable Long psychologistId) {
         try {
-            List<Appointment> appointments = appointmentService.getAppointmentsByPsychologist(psychologistId);
+            List<AppointmentDTO> appointments = appointmentService.getAppointmentsByPsychologist(psychologistId);
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
@@ -172,7 +167,7 @@ public class AppointmentController {
     @GetMapping("/patient/{patientId}")
     public ResponseEntity<?> getAppointmentsByPatient(@PathVariable Long patientId) {
         try {
-            List<Appointment> appointments = appointmentService.getAppointmentsByPatient(patientId);
+            List<AppointmentDTO> appointments = appointmentService.getAppointmentsByPatient(patientId);
             return ResponseEntity.ok(appointments);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
@@ -185,7 +180,7 @@ public class AppointmentController {
     @GetMapping("/{appointmentId}")
     public ResponseEntity<?> getAppointment(@PathVariable Long appointmentId) {
         try {
-            Optional<Appointment> appointment = appointmentService.getAppointment(appointmentId);
+            Optional<AppointmentDTO> appointment = appointmentService.getAppointment(appointmentId);
             if (appointment.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Appointment not found");
             }
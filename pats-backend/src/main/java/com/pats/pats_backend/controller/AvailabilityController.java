@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,11 +44,14 @@ public class AvailabilityController {
             availability.setStartTime(availabilityDTO.getStartTime());
             availability.setEndTime(availabilityDTO.getEndTime());
             availability.setSpecificDate(availabilityDTO.getSpecificDate());
+            availability.setRecurrenceRule(availabilityDTO.getRecurrenceRule());
+            availability.setRecurrenceStart(availabilityDTO.getRecurrenceStart());
+            availability.setExceptionDates(availabilityDTO.getExceptionDates());
             availability.setIsAvailable(availabilityDTO.getIsAvailable() != null ? availabilityDTO.getIsAvailable() : true);
             availability.setNotes(availabilityDTO.getNotes());
 
             Availability createdAvailability = availabilityService.createAvailability(availability);
-            return ResponseEntity.status(HttpStatus.CREATED).body(createdAvailability);
+            return ResponseEntity.status(HttpStatus.CREATED).body(AvailabilityDTO.from(createdAvailability));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -66,11 +70,14 @@ public class AvailabilityController {
             availability.setStartTime(availabilityDTO.getStartTime());
             availability.setEndTime(availabilityDTO.getEndTime());
             availability.setSpecificDate(availabilityDTO.getSpecificDate());
+            availability.setRecurrenceRule(availabilityDTO.getRecurrenceRule());
+            availability.setRecurrenceStart(availabilityDTO.getRecurrenceStart());
+            availability.setExceptionDates(availabilityDTO.getExceptionDates());
             availability.setIsAvailable(availabilityDTO.getIsAvailable());
             availability.setNotes(availabilityDTO.getNotes());
 
             Availability updatedAvailability = availabilityService.updateAvailability(availabilityId, availability);
-            return ResponseEntity.ok(updatedAvailability);
+            return ResponseEntity.ok(AvailabilityDTO.from(updatedAvailability));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -99,7 +106,7 @@ public class AvailabilityController {
         try {
             DayOfWeek day = DayOfWeek.valueOf(dayOfWeek.toUpperCase());
             List<Availability> availabilities = availabilityService.getPsychologistAvailabilityByDay(psychologistId, day);
-            return ResponseEntity.ok(availabilities);
+            return ResponseEntity.ok(availabilities.stream().map(AvailabilityDTO::from).toList());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -115,7 +122,7 @@ public class AvailabilityController {
         try {
             LocalDate date = LocalDate.parse(specificDate);
             List<Availability> availabilities = availabilityService.getPsychologistAvailabilityByDate(psychologistId, date);
-            return ResponseEntity.ok(availabilities);
+            return ResponseEntity.ok(availabilities.stream().map(AvailabilityDTO::from).toList());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -128,7 +135,7 @@ public class AvailabilityController {
     public ResponseEntity<?> getAllAvailableSlots(@PathVariable Long psychologistId) {
         try {
             List<Availability> availabilities = availabilityService.getAllAvailableSlots(psychologistId);
-            return ResponseEntity.ok(availabilities);
+            return ResponseEntity.ok(availabilities.stream().map(AvailabilityDTO::from).toList());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
@@ -141,7 +148,22 @@ public class AvailabilityController {
     public ResponseEntity<?> getAllAvailabilities(@PathVariable Long psychologistId) {
         try {
             List<Availability> availabilities = availabilityService.getPsychologistAvailabilities(psychologistId);
-            return ResponseEntity.ok(availabilities);
+            return ResponseEntity.ok(availabilities.stream().map(AvailabilityDTO::from).toList());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * FR9.1 - Whether the psychologist is available for the whole of [startTime, endTime)
+     */
+    @GetMapping("/psychologist/{psychologistId}/check")
+    public ResponseEntity<?> checkAvailability(
+            @PathVariable Long psychologistId,
+            @RequestParam LocalDateTime startTime,
+            @RequestParam LocalDateTime endTime) {
+        try {
+            return ResponseEntity.ok(availabilityService.isTimeSlotAvailable(psychologistId, startTime, endTime));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
         }
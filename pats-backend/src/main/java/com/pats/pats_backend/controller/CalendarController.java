@@ -0,0 +1,114 @@
+package com.pats.pats_backend.controller;
+
+import com.pats.pats_backend.entity.CalendarWeek;
+import com.pats.pats_backend.service.CalendarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Psychologist dashboard calendar. Responses carry a strong ETag and must be revalidated, so a refresh
+ * with an unchanged calendar is answered 304 from the stored week without rebuilding or resending it.
+ * Week documents name the patient of every session, so a psychologist can only read their own calendar.
+ */
+@RestController
+@RequestMapping("/api/calendar")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = HttpHeaders.ETAG)
+public class CalendarController {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    @Autowired
+    private CalendarService calendarService;
+
+    /**
+     * FR9.1/FR9.2 - Availability, booked sessions and free gaps for the ISO week containing date (default today)
+     */
+    @GetMapping("/psychologist/{psychologistId}/week")
+    @PreAuthorize("hasRole('PSYCHOLOGIST')")
+    public ResponseEntity<?> getWeek(
+            @PathVariable Long psychologistId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Principal principal) {
+        if (!calendarService.isOwnedBy(psychologistId, principal != null ? principal.getName() : null)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: Not your calendar");
+        }
+        try {
+            CalendarWeek week = calendarService.getWeek(psychologistId, date != null ? date : LocalDate.now());
+            return respond(week.getEtag(), week.getDocument(), ifNoneMatch);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * FR9.1/FR9.2 - Every ISO week overlapping the month, as an array of week documents
+     */
+    @GetMapping("/psychologist/{psychologistId}/month")
+    @PreAuthorize("hasRole('PSYCHOLOGIST')")
+    public ResponseEntity<?> getMonth(
+            @PathVariable Long psychologistId,
+            @RequestParam int year,
+            @RequestParam int month,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Principal principal) {
+        if (!calendarService.isOwnedBy(psychologistId, principal != null ? principal.getName() : null)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Error: Not your calendar");
+        }
+        try {
+            List<CalendarWeek> weeks = calendarService.getMonth(psychologistId, YearMonth.of(year, month));
+            String documents = weeks.stream().map(CalendarWeek::getDocument).collect(Collectors.joining(",", "[", "]"));
+            return respond(CalendarService.combinedEtag(weeks), documents, ifNoneMatch);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> respond(String etag, String document, String ifNoneMatch) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(document);
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so W/ prefixes added by proxies still match
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals("\"" + etag + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
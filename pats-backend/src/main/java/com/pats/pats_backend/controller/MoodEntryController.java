@@ -1,6 +1,10 @@
 package com.pats.pats_backend.controller;
 
+import com.pats.pats_backend.dto.MoodEntryDTO;
+import com.pats.pats_backend.dto.MoodHistoryPageDTO;
+import com.pats.pats_backend.dto.MoodSummaryDTO;
 import com.pats.pats_backend.entity.MoodEntry;
+import com.pats.pats_backend.service.MoodAggregateService;
 import com.pats.pats_backend.service.MoodEntryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -8,13 +12,17 @@ import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @RestController
 @RequestMapping("/api/mood")
 public class MoodEntryController {
     @Autowired
     private MoodEntryService moodEntryService;
+    @Autowired
+    private MoodAggregateService moodAggregateService;
 
     // Endpoint for daily check-in
     @PostMapping("/checkin")
@@ -23,7 +31,7 @@ public class MoodEntryController {
                                            @RequestParam(required = false) String notes) {
         try {
             MoodEntry entry = moodEntryService.createMoodEntry(patientId, rating, notes);
-            return ResponseEntity.ok(entry);
+            return ResponseEntity.ok(MoodEntryDTO.from(entry));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -31,9 +39,35 @@ public class MoodEntryController {
 
     // Endpoint for history (accessible by patient or psychologist)
     @GetMapping("/history/{patientId}")
-    public ResponseEntity<List<MoodEntry>> getHistory(@PathVariable Long patientId) {
+    public ResponseEntity<List<MoodEntryDTO>> getHistory(@PathVariable Long patientId) {
         List<MoodEntry> history = moodEntryService.getPatientHistory(patientId);
-        return ResponseEntity.ok(history);
+        return ResponseEntity.ok(history.stream().map(MoodEntryDTO::from).toList());
+    }
+
+    // Keyset-paginated history with slim items; follow nextCursor for older entries
+    @GetMapping("/history/{patientId}/page")
+    public ResponseEntity<?> getHistoryPage(@PathVariable Long patientId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) LocalDateTime from,
+                                            @RequestParam(required = false) LocalDateTime to,
+                                            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            MoodHistoryPageDTO page = moodEntryService.getPatientHistoryPage(patientId, cursor, from, to, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Rolling averages, variance, min/max and streaks for dashboards, without the raw history
+    @GetMapping("/summary/{patientId}")
+    public ResponseEntity<?> getSummary(@PathVariable Long patientId) {
+        try {
+            MoodSummaryDTO summary = moodAggregateService.getSummary(patientId);
+            return ResponseEntity.ok(summary);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
     }
 }
 
@@ -1,17 +1,25 @@
 package com.pats.pats_backend.controller;
 
 import com.pats.pats_backend.dto.CreatePatientRequest;
+import com.pats.pats_backend.dto.PatientDTO;
+import com.pats.pats_backend.dto.PatientSearchPageDTO;
+import com.pats.pats_backend.dto.PatientSummaryPageDTO;
 import com.pats.pats_backend.entity.Patient;
 import com.pats.pats_backend.service.PatientService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
 import java.util.List;
+import java.util.Map;
 
 
 @RestController
@@ -21,14 +29,39 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Get all patients (for listing/selection)
+     * Get all patients (for listing/selection) as summaries, written to the response as they are read
      */
     @GetMapping
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<List<Patient>> getAllPatients() {
-        return ResponseEntity.ok(patientService.getAllPatients());
+    public ResponseEntity<StreamingResponseBody> getAllPatients() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                patientService.forEachPatientSummary(generator::writePOJO);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Keyset-paginated patient summaries; sort by lastName, firstName, registeredAt or id
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('PSYCHOLOGIST')")
+    public ResponseEntity<?> getPatientPage(@RequestParam(defaultValue = "lastName") String sort,
+                                            @RequestParam(defaultValue = "asc") String direction,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int size) {
+        try {
+            PatientSummaryPageDTO page = patientService.getPatientPage(sort, direction, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
     /**
@@ -36,7 +69,7 @@ public class PatientController {
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('PSYCHOLOGIST', 'PATIENT')")
-    public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
+    public ResponseEntity<PatientDTO> getPatientById(@PathVariable Long id) {
         return ResponseEntity.ok(patientService.getPatientById(id));
     }
 
@@ -45,7 +78,7 @@ public class PatientController {
      */
     @PostMapping
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<Patient> createPatient(@Valid @RequestBody CreatePatientRequest request) {
+    public ResponseEntity<PatientDTO> createPatient(@Valid @RequestBody CreatePatientRequest request) {
         Patient patientData = new Patient();
         patientData.setFirstName(request.getFirstName());
         patientData.setLastName(request.getLastName());
@@ -60,7 +93,7 @@ public class PatientController {
         patientData.setInsuranceProvider(request.getInsuranceProvider());
         patientData.setInsurancePolicyNumber(request.getInsurancePolicyNumber());
 
-        Patient created = patientService.createPatient(
+        PatientDTO created = patientService.createPatient(
             patientData,
             request.getUsername(),
             request.getEmail(),
@@ -75,18 +108,41 @@ public class PatientController {
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<Patient> updatePatient(
+    public ResponseEntity<PatientDTO> updatePatient(
             @PathVariable Long id,
             @Valid @RequestBody Patient patient) {
         return ResponseEntity.ok(patientService.updatePatient(id, patient));
     }
 
     /**
-     * Search patients by name
+     * Search patients by name, email or phone; ranked and paginated
      */
     @GetMapping("/search")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<List<Patient>> searchPatients(@RequestParam String q) {
-        return ResponseEntity.ok(patientService.searchPatients(q));
+    public ResponseEntity<?> searchPatients(@RequestParam String q,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        try {
+            PatientSearchPageDTO results = patientService.searchPatients(q, page, size);
+            return ResponseEntity.ok(results);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the patient search index (after bulk imports or direct database edits)
+     */
+    @PostMapping("/search/rebuild")
+    @PreAuthorize("hasRole('PSYCHOLOGIST')")
+    public ResponseEntity<?> rebuildSearchIndex() {
+        try {
+            int indexed = patientService.rebuildSearchIndex();
+            return ResponseEntity.ok(Map.of("indexedPatients", indexed));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
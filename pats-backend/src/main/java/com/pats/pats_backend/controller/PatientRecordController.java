@@ -1,15 +1,17 @@
 package com.pats.pats_backend.controller;
 
 import com.pats.pats_backend.dto.*;
-import com.pats.pats_backend.entity.*;
+import com.pats.pats_backend.service.AuditLogService;
 import com.pats.pats_backend.service.PatientRecordService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,12 +21,13 @@ import java.util.List;
 public class PatientRecordController {
 
     private final PatientRecordService service;
+    private final AuditLogService auditLogService;
 
     // ==================== FR17.1: Patient Records ====================
 
     @PostMapping("/records/patient/{patientId}")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<PatientRecord> createRecord(
+    public ResponseEntity<PatientRecordDTO> createRecord(
             @PathVariable Long patientId,
             @Valid @RequestBody PatientRecordRequest request) {
 
@@ -34,13 +37,13 @@ public class PatientRecordController {
 
     @GetMapping("/records/{id}")
     @PreAuthorize("hasAnyRole('PSYCHOLOGIST', 'PATIENT')")
-    public ResponseEntity<PatientRecord> getRecord(@PathVariable Long id) {
+    public ResponseEntity<PatientRecordDTO> getRecord(@PathVariable Long id) {
         return ResponseEntity.ok(service.getPatientRecord(id));
     }
 
     @GetMapping("/records/patient/{patientId}")
     @PreAuthorize("hasAnyRole('PSYCHOLOGIST', 'PATIENT')")
-    public ResponseEntity<PatientRecord> getRecordByPatientId(@PathVariable Long patientId) {
+    public ResponseEntity<PatientRecordDTO> getRecordByPatientId(@PathVariable Long patientId) {
         return service.getPatientRecordByPatientId(patientId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -48,7 +51,7 @@ public class PatientRecordController {
 
     @PutMapping("/records/{id}")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<PatientRecord> updateRecord(
+    public ResponseEntity<PatientRecordDTO> updateRecord(
             @PathVariable Long id,
             @Valid @RequestBody PatientRecordRequest request) {
         return ResponseEntity.ok(service.updatePatientRecord(id, request));
@@ -58,7 +61,7 @@ public class PatientRecordController {
 
     @PostMapping("/patients/{patientId}/emergency-contacts")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<EmergencyContact> addEmergencyContact(
+    public ResponseEntity<EmergencyContactDTO> addEmergencyContact(
             @PathVariable Long patientId,
             @Valid @RequestBody EmergencyContactRequest request) {
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -67,7 +70,7 @@ public class PatientRecordController {
 
     @GetMapping("/patients/{patientId}/emergency-contacts")
     @PreAuthorize("hasAnyRole('PSYCHOLOGIST', 'PATIENT')")
-    public ResponseEntity<List<EmergencyContact>> getEmergencyContacts(@PathVariable Long patientId) {
+    public ResponseEntity<List<EmergencyContactDTO>> getEmergencyContacts(@PathVariable Long patientId) {
         return ResponseEntity.ok(service.getEmergencyContacts(patientId));
     }
 
@@ -80,9 +83,41 @@ public class PatientRecordController {
 
     // ==================== FR17.9: Audit Trail ====================
 
+    /**
+     * One record's audit entries, newest first, a keyset page at a time.
+     * Actions still queued in AuditTrailWriter (normally well under a second old) appear once written.
+     */
     @GetMapping("/records/{recordId}/audit-trail")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
-    public ResponseEntity<List<AuditLog>> getAuditTrail(@PathVariable Long recordId) {
-        return ResponseEntity.ok(service.getAuditTrail(recordId));
+    public ResponseEntity<?> getAuditTrail(
+            @PathVariable Long recordId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(auditLogService.search(null, recordId, null, null, null, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+
+    /**
+     * Keyset-paginated audit entries, newest first, filtered by user, record, action and [from, to) window
+     */
+    @GetMapping("/audit-logs")
+    @PreAuthorize("hasRole('PSYCHOLOGIST')")
+    public ResponseEntity<?> searchAuditLogs(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) Long recordId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            AuditLogPageDTO page = auditLogService.search(username, recordId, action, from, to, cursor, size);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.pats.pats_backend.dto;
 
+import com.pats.pats_backend.entity.Appointment;
 import com.pats.pats_backend.enums.AppointmentStatus;
 import com.pats.pats_backend.enums.AppointmentType;
 import lombok.AllArgsConstructor;
@@ -22,6 +23,10 @@ public class AppointmentDTO {
     private AppointmentType type;
     private String appointmentNotes;
     private LocalDateTime createdAt;
+    private LocalDateTime originalDateTime;
+    private LocalDateTime rescheduledAt;
+    private LocalDateTime cancelledAt;
+    private String cancellationReason;
 
     public Long getId() {
         return id;
@@ -94,4 +99,47 @@ public class AppointmentDTO {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public LocalDateTime getOriginalDateTime() {
+        return originalDateTime;
+    }
+
+    public void setOriginalDateTime(LocalDateTime originalDateTime) {
+        this.originalDateTime = originalDateTime;
+    }
+
+    public LocalDateTime getRescheduledAt() {
+        return rescheduledAt;
+    }
+
+    public void setRescheduledAt(LocalDateTime rescheduledAt) {
+        this.rescheduledAt = rescheduledAt;
+    }
+
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public void setCancelledAt(LocalDateTime cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+
+    public String getCancellationReason() {
+        return cancellationReason;
+    }
+
+    public void setCancellationReason(String cancellationReason) {
+        this.cancellationReason = cancellationReason;
+    }
+
+    /**
+     * Copies an appointment that is already loaded; only the ids of psychologist and patient are read
+     */
+    public static AppointmentDTO from(Appointment appointment) {
+        return new AppointmentDTO(appointment.getId(), appointment.getPsychologist().getId(),
+                appointment.getPatient().getId(), appointment.getAppointmentDateTime(),
+                appointment.getDurationMinutes(), appointment.getStatus(), appointment.getType(),
+                appointment.getAppointmentNotes(), appointment.getCreatedAt(), appointment.getOriginalDateTime(),
+                appointment.getRescheduledAt(), appointment.getCancelledAt(), appointment.getCancellationReason());
+    }
 }
@@ -1,10 +1,13 @@
 package com.pats.pats_backend.dto;
 
+import com.pats.pats_backend.entity.AppointmentHistory;
 import com.pats.pats_backend.enums.AttendanceStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,6 +19,8 @@ public class AppointmentHistoryDTO {
     private String notes;
     private Integer actualDurationMinutes;
     private String externalCalendarProvider;
+    private String externalCalendarSyncId;
+    private LocalDateTime createdAt;
 
     public Long getId() {
         return id;
@@ -64,4 +69,26 @@ public class AppointmentHistoryDTO {
     public void setExternalCalendarProvider(String externalCalendarProvider) {
         this.externalCalendarProvider = externalCalendarProvider;
     }
+
+    public String getExternalCalendarSyncId() {
+        return externalCalendarSyncId;
+    }
+
+    public void setExternalCalendarSyncId(String externalCalendarSyncId) {
+        this.externalCalendarSyncId = externalCalendarSyncId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public static AppointmentHistoryDTO from(AppointmentHistory history) {
+        return new AppointmentHistoryDTO(history.getId(), history.getAppointment().getId(),
+                history.getAttendanceStatus(), history.getNotes(), history.getActualDurationMinutes(),
+                history.getExternalCalendarProvider(), history.getExternalCalendarSyncId(), history.getCreatedAt());
+    }
 }
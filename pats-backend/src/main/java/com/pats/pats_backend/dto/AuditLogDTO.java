@@ -0,0 +1,98 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit entry as returned by the audit query API, selected with a JPQL constructor expression
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLogDTO {
+
+    private Long id;
+    private Long userId;
+    private String username;
+    private String userEmail;
+    private Long patientRecordId;
+    private String action;
+    private String actionDetails;
+    private LocalDateTime actionTimestamp;
+    private String ipAddress;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public Long getPatientRecordId() {
+        return patientRecordId;
+    }
+
+    public void setPatientRecordId(Long patientRecordId) {
+        this.patientRecordId = patientRecordId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getActionDetails() {
+        return actionDetails;
+    }
+
+    public void setActionDetails(String actionDetails) {
+        this.actionDetails = actionDetails;
+    }
+
+    public LocalDateTime getActionTimestamp() {
+        return actionTimestamp;
+    }
+
+    public void setActionTimestamp(LocalDateTime actionTimestamp) {
+        this.actionTimestamp = actionTimestamp;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public void setIpAddress(String ipAddress) {
+        this.ipAddress = ipAddress;
+    }
+}
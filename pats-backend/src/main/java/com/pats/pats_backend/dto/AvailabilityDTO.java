@@ -1,11 +1,13 @@
 package com.pats.pats_backend.dto;
 
+import com.pats.pats_backend.entity.Availability;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Data
@@ -19,8 +21,13 @@ public class AvailabilityDTO {
     private LocalTime startTime;
     private LocalTime endTime;
     private LocalDate specificDate;
+    private String recurrenceRule;
+    private LocalDate recurrenceStart;
+    private String exceptionDates;
     private Boolean isAvailable;
     private String notes;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
 
     public Long getId() {
         return id;
@@ -70,6 +77,30 @@ public class AvailabilityDTO {
         this.specificDate = specificDate;
     }
 
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+
+    public LocalDate getRecurrenceStart() {
+        return recurrenceStart;
+    }
+
+    public void setRecurrenceStart(LocalDate recurrenceStart) {
+        this.recurrenceStart = recurrenceStart;
+    }
+
+    public String getExceptionDates() {
+        return exceptionDates;
+    }
+
+    public void setExceptionDates(String exceptionDates) {
+        this.exceptionDates = exceptionDates;
+    }
+
     public Boolean getIsAvailable() {
         return isAvailable;
     }
@@ -85,4 +116,28 @@ public class AvailabilityDTO {
     public void setNotes(String notes) {
         this.notes = notes;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public static AvailabilityDTO from(Availability availability) {
+        return new AvailabilityDTO(availability.getId(), availability.getPsychologist().getId(),
+                availability.getDayOfWeek(), availability.getStartTime(), availability.getEndTime(),
+                availability.getSpecificDate(), availability.getRecurrenceRule(), availability.getRecurrenceStart(),
+                availability.getExceptionDates(), availability.getIsAvailable(), availability.getNotes(),
+                availability.getCreatedAt(), availability.getUpdatedAt());
+    }
 }
@@ -0,0 +1,56 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One day of a calendar week: the open availability after blocks, the sessions booked into it and the
+ * gaps left free between them
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarDayDTO {
+
+    private LocalDate date;
+    private List<TimeSlotDTO> availability = new ArrayList<>();
+    private List<CalendarSessionDTO> sessions = new ArrayList<>();
+    private List<TimeSlotDTO> freeGaps = new ArrayList<>();
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public List<TimeSlotDTO> getAvailability() {
+        return availability;
+    }
+
+    public void setAvailability(List<TimeSlotDTO> availability) {
+        this.availability = availability;
+    }
+
+    public List<CalendarSessionDTO> getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(List<CalendarSessionDTO> sessions) {
+        this.sessions = sessions;
+    }
+
+    public List<TimeSlotDTO> getFreeGaps() {
+        return freeGaps;
+    }
+
+    public void setFreeGaps(List<TimeSlotDTO> freeGaps) {
+        this.freeGaps = freeGaps;
+    }
+}
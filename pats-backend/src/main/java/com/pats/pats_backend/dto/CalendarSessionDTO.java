@@ -0,0 +1,92 @@
+package com.pats.pats_backend.dto;
+
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.enums.AppointmentType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booked session as shown on the psychologist calendar
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarSessionDTO {
+
+    private Long appointmentId;
+    private Long patientId;
+    private String patientName;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private AppointmentStatus status;
+    private AppointmentType type;
+
+    /**
+     * JPQL projection; the end time is derived from the duration, 60 minutes when unset
+     */
+    public CalendarSessionDTO(Long appointmentId, Long patientId, String patientFirstName, String patientLastName,
+                              LocalDateTime startTime, Integer durationMinutes, AppointmentStatus status,
+                              AppointmentType type) {
+        this(appointmentId, patientId, patientFirstName + " " + patientLastName, startTime,
+                startTime.plusMinutes(durationMinutes != null ? durationMinutes : 60), status, type);
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatientName() {
+        return patientName;
+    }
+
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalDateTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public AppointmentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(AppointmentStatus status) {
+        this.status = status;
+    }
+
+    public AppointmentType getType() {
+        return type;
+    }
+
+    public void setType(AppointmentType type) {
+        this.type = type;
+    }
+}
@@ -0,0 +1,46 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materialized calendar of one psychologist for one ISO week, Monday through Sunday
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarWeekDTO {
+
+    private Long psychologistId;
+    private LocalDate weekStart;
+    private List<CalendarDayDTO> days = new ArrayList<>();
+
+    public Long getPsychologistId() {
+        return psychologistId;
+    }
+
+    public void setPsychologistId(Long psychologistId) {
+        this.psychologistId = psychologistId;
+    }
+
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public void setWeekStart(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    public List<CalendarDayDTO> getDays() {
+        return days;
+    }
+
+    public void setDays(List<CalendarDayDTO> days) {
+        this.days = days;
+    }
+}
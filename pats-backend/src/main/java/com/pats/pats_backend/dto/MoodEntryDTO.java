@@ -0,0 +1,86 @@
+package com.pats.pats_backend.dto;
+
+import com.pats.pats_backend.entity.MoodEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mood check-in as returned by the mood endpoints
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoodEntryDTO {
+
+    private Long id;
+    private Long patientId;
+    private Integer emotionalRating;
+    private String notes;
+    private LocalDateTime entryTimestamp;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Integer getEmotionalRating() {
+        return emotionalRating;
+    }
+
+    public void setEmotionalRating(Integer emotionalRating) {
+        this.emotionalRating = emotionalRating;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public LocalDateTime getEntryTimestamp() {
+        return entryTimestamp;
+    }
+
+    public void setEntryTimestamp(LocalDateTime entryTimestamp) {
+        this.entryTimestamp = entryTimestamp;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public static MoodEntryDTO from(MoodEntry entry) {
+        return new MoodEntryDTO(entry.getId(), entry.getPatient().getId(), entry.getEmotionalRating(),
+                entry.getNotes(), entry.getEntryTimestamp(), entry.getCreatedAt(), entry.getUpdatedAt());
+    }
+}
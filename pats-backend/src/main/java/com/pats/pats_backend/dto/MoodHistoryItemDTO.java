@@ -0,0 +1,53 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One mood entry in a history page, without the notes text or the patient graph
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoodHistoryItemDTO {
+
+    private Long id;
+    private Integer emotionalRating;
+    private LocalDateTime entryTimestamp;
+    private Boolean hasNotes;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getEmotionalRating() {
+        return emotionalRating;
+    }
+
+    public void setEmotionalRating(Integer emotionalRating) {
+        this.emotionalRating = emotionalRating;
+    }
+
+    public LocalDateTime getEntryTimestamp() {
+        return entryTimestamp;
+    }
+
+    public void setEntryTimestamp(LocalDateTime entryTimestamp) {
+        this.entryTimestamp = entryTimestamp;
+    }
+
+    public Boolean getHasNotes() {
+        return hasNotes;
+    }
+
+    public void setHasNotes(Boolean hasNotes) {
+        this.hasNotes = hasNotes;
+    }
+}
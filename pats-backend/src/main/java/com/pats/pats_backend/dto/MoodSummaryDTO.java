@@ -0,0 +1,96 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoodSummaryDTO {
+
+    private Long patientId;
+    private Integer lastRating;
+    private LocalDate lastEntryDate;
+    // Consecutive days with a check-in, ending today or yesterday
+    private Integer currentStreak;
+    private Integer longestStreak;
+    private Long totalEntries;
+    private MoodWindowDTO last7Days;
+    private MoodWindowDTO last30Days;
+    private MoodWindowDTO last90Days;
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Integer getLastRating() {
+        return lastRating;
+    }
+
+    public void setLastRating(Integer lastRating) {
+        this.lastRating = lastRating;
+    }
+
+    public LocalDate getLastEntryDate() {
+        return lastEntryDate;
+    }
+
+    public void setLastEntryDate(LocalDate lastEntryDate) {
+        this.lastEntryDate = lastEntryDate;
+    }
+
+    public Integer getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(Integer currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public Integer getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(Integer longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public Long getTotalEntries() {
+        return totalEntries;
+    }
+
+    public void setTotalEntries(Long totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+
+    public MoodWindowDTO getLast7Days() {
+        return last7Days;
+    }
+
+    public void setLast7Days(MoodWindowDTO last7Days) {
+        this.last7Days = last7Days;
+    }
+
+    public MoodWindowDTO getLast30Days() {
+        return last30Days;
+    }
+
+    public void setLast30Days(MoodWindowDTO last30Days) {
+        this.last30Days = last30Days;
+    }
+
+    public MoodWindowDTO getLast90Days() {
+        return last90Days;
+    }
+
+    public void setLast90Days(MoodWindowDTO last90Days) {
+        this.last90Days = last90Days;
+    }
+}
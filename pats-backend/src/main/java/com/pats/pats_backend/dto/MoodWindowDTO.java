@@ -0,0 +1,69 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rating statistics over the last {@code days} days; mean, variance, min and max are null without check-ins
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoodWindowDTO {
+
+    private Integer days;
+    private Integer checkins;
+    private Double mean;
+    private Double variance;
+    private Integer min;
+    private Integer max;
+
+    public Integer getDays() {
+        return days;
+    }
+
+    public void setDays(Integer days) {
+        this.days = days;
+    }
+
+    public Integer getCheckins() {
+        return checkins;
+    }
+
+    public void setCheckins(Integer checkins) {
+        this.checkins = checkins;
+    }
+
+    public Double getMean() {
+        return mean;
+    }
+
+    public void setMean(Double mean) {
+        this.mean = mean;
+    }
+
+    public Double getVariance() {
+        return variance;
+    }
+
+    public void setVariance(Double variance) {
+        this.variance = variance;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public void setMin(Integer min) {
+        this.min = min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public void setMax(Integer max) {
+        this.max = max;
+    }
+}
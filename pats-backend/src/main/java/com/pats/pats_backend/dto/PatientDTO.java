@@ -0,0 +1,210 @@
+package com.pats.pats_backend.dto;
+
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Patient details with the login's username and email, never the password hash.
+ * Selected with a JPQL constructor expression through the flat constructor below.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientDTO {
+
+    private Long id;
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private String gender;
+    private String phoneNumber;
+    private String address;
+    private String city;
+    private String postalCode;
+    private String country;
+    private String bloodType;
+    private String insuranceProvider;
+    private String insurancePolicyNumber;
+    private LocalDateTime registeredAt;
+    private Account user;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        this.dateOfBirth = dateOfBirth;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public void setPostalCode(String postalCode) {
+        this.postalCode = postalCode;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getBloodType() {
+        return bloodType;
+    }
+
+    public void setBloodType(String bloodType) {
+        this.bloodType = bloodType;
+    }
+
+    public String getInsuranceProvider() {
+        return insuranceProvider;
+    }
+
+    public void setInsuranceProvider(String insuranceProvider) {
+        this.insuranceProvider = insuranceProvider;
+    }
+
+    public String getInsurancePolicyNumber() {
+        return insurancePolicyNumber;
+    }
+
+    public void setInsurancePolicyNumber(String insurancePolicyNumber) {
+        this.insurancePolicyNumber = insurancePolicyNumber;
+    }
+
+    public LocalDateTime getRegisteredAt() {
+        return registeredAt;
+    }
+
+    public void setRegisteredAt(LocalDateTime registeredAt) {
+        this.registeredAt = registeredAt;
+    }
+
+    public Account getUser() {
+        return user;
+    }
+
+    public void setUser(Account user) {
+        this.user = user;
+    }
+
+    public PatientDTO(Long id, Long userId, String firstName, String lastName, LocalDate dateOfBirth, String gender,
+                      String phoneNumber, String address, String city, String postalCode, String country,
+                      String bloodType, String insuranceProvider, String insurancePolicyNumber,
+                      LocalDateTime registeredAt, String username, String email) {
+        this(id, userId, firstName, lastName, dateOfBirth, gender, phoneNumber, address, city, postalCode, country,
+                bloodType, insuranceProvider, insurancePolicyNumber, registeredAt, new Account(username, email));
+    }
+
+    /**
+     * Copies a patient inside the transaction that loaded it; reads the user association
+     */
+    public static PatientDTO from(Patient patient) {
+        User user = patient.getUser();
+        return new PatientDTO(patient.getId(), user.getId(), patient.getFirstName(), patient.getLastName(),
+                patient.getDateOfBirth(), patient.getGender(), patient.getPhoneNumber(), patient.getAddress(),
+                patient.getCity(), patient.getPostalCode(), patient.getCountry(), patient.getBloodType(),
+                patient.getInsuranceProvider(), patient.getInsurancePolicyNumber(), patient.getRegisteredAt(),
+                user.getUsername(), user.getEmail());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Account {
+
+        private String username;
+        private String email;
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+    }
+}
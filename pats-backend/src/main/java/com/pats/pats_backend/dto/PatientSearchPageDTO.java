@@ -0,0 +1,53 @@
+package com.pats.pats_backend.dto;
+
+import com.pats.pats_backend.repo.PatientContact;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchPageDTO {
+
+    // Best matches first: patients with a name, email or phone token starting with the query rank highest
+    private List<PatientContact> items;
+    private Integer page;
+    private Integer size;
+    private Boolean hasMore;
+
+    public List<PatientContact> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PatientContact> items) {
+        this.items = items;
+    }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,42 @@
+package com.pats.pats_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryPageDTO {
+
+    private List<PatientSummary> items;
+    // Opaque; pass back as ?cursor= with the same sort to fetch the next page, null on the last page
+    private String nextCursor;
+    private Boolean hasMore;
+
+    public List<PatientSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PatientSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -5,26 +5,52 @@ import com.pats.pats_backend.enums.AppointmentType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
+/**
+ * Named fetch plans (see FetchPlan): the summary graph loads psychologist and patient with the appointment,
+ * the detail graph also loads their user accounts, which notifications need for email addresses.
+ */
 @Entity
-@Table(name = "appointments")
+@NamedEntityGraph(name = Appointment.SUMMARY_GRAPH, attributeNodes = {
+        @NamedAttributeNode("psychologist"),
+        @NamedAttributeNode("patient")
+})
+@NamedEntityGraph(name = Appointment.DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "psychologist", subgraph = "psychologist-user"),
+        @NamedAttributeNode(value = "patient", subgraph = "patient-user")
+}, subgraphs = {
+        @NamedSubgraph(name = "psychologist-user", attributeNodes = @NamedAttributeNode("user")),
+        @NamedSubgraph(name = "patient-user", attributeNodes = @NamedAttributeNode("user"))
+})
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_psych_time_status", columnList = "psychologist_id, appointment_date_time, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Appointment {
 
+    public static final String SUMMARY_GRAPH = "Appointment.summary";
+    public static final String DETAIL_GRAPH = "Appointment.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "psychologist_id", nullable = false)
     private Psychologist psychologist;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
 
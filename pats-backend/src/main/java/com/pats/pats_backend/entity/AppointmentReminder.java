@@ -4,22 +4,49 @@ import com.pats.pats_backend.enums.ReminderStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
+/**
+ * Named fetch plans (see FetchPlan): the summary graph loads the appointment with its psychologist and patient,
+ * the detail graph also loads their user accounts.
+ */
 @Entity
+@NamedEntityGraph(name = AppointmentReminder.SUMMARY_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "appointment", subgraph = "appointment"),
+        subgraphs = @NamedSubgraph(name = "appointment", attributeNodes = {
+                @NamedAttributeNode("psychologist"),
+                @NamedAttributeNode("patient")
+        }))
+@NamedEntityGraph(name = AppointmentReminder.DETAIL_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "appointment", subgraph = "appointment"),
+        subgraphs = {
+                @NamedSubgraph(name = "appointment", attributeNodes = {
+                        @NamedAttributeNode(value = "psychologist", subgraph = "psychologist-user"),
+                        @NamedAttributeNode(value = "patient", subgraph = "patient-user")
+                }),
+                @NamedSubgraph(name = "psychologist-user", attributeNodes = @NamedAttributeNode("user")),
+                @NamedSubgraph(name = "patient-user", attributeNodes = @NamedAttributeNode("user"))
+        })
 @Table(name = "appointment_reminders")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class AppointmentReminder {
 
+    public static final String SUMMARY_GRAPH = "AppointmentReminder.summary";
+    public static final String DETAIL_GRAPH = "AppointmentReminder.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "appointment_id", nullable = false)
     private Appointment appointment;
 
@@ -3,47 +3,69 @@ package com.pats.pats_backend.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
-
+/**
+ * FR17.9 - Append-only audit entry; no column is updatable once written.
+ * On MySQL the table is range-partitioned by month of action_timestamp (see db/mysql/partition_audit_logs.sql),
+ * which rules out foreign keys and any unique key not containing action_timestamp, so none are declared here.
+ */
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+        @Index(name = "idx_audit_logs_record_time", columnList = "patient_record_id, action_timestamp DESC"),
+        @Index(name = "idx_audit_logs_user_time", columnList = "user_id, action_timestamp DESC"),
+        @Index(name = "idx_audit_logs_time", columnList = "action_timestamp"),
+        @Index(name = "idx_audit_logs_event_id", columnList = "event_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class AuditLog {
 
+    // AuditTrailWriter batches its inserts over plain JDBC, so ids can stay IDENTITY like the existing rows
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Assigned when the event is accepted; makes write-ahead log replay idempotent
+    @Column(name = "event_id", length = 36, updatable = false)
+    private String eventId;
+
     // Who performed the action
-    @ManyToOne
-    @JoinColumn(name = "user_id", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "user_id", nullable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private User user;
 
-    @Column(name = "user_email", nullable = false)
+    @Column(name = "user_email", nullable = false, updatable = false)
     private String userEmail;
 
     // What record was accessed
-    @ManyToOne
-    @JoinColumn(name = "patient_record_id")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @JoinColumn(name = "patient_record_id", updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private PatientRecord patientRecord;
 
     // What action: CREATED, VIEWED, UPDATED, DELETED
-    @Column(name = "action", nullable = false)
+    @Column(name = "action", nullable = false, updatable = false)
     private String action;
 
-    @Column(name = "action_details", columnDefinition = "TEXT")
+    @Column(name = "action_details", columnDefinition = "TEXT", updatable = false)
     private String actionDetails;
 
     // When and where
-    @Column(name = "action_timestamp", nullable = false)
+    @Column(name = "action_timestamp", nullable = false, updatable = false)
     private LocalDateTime actionTimestamp;
 
-    @Column(name = "ip_address")
+    @Column(name = "ip_address", updatable = false)
     private String ipAddress;
 
     @PrePersist
@@ -1,9 +1,14 @@
 package com.pats.pats_backend.entity;
 
+import com.pats.pats_backend.config.CacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
@@ -11,6 +16,7 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.AVAILABILITY)
 @Table(name = "availabilities")
 @Data
 @NoArgsConstructor
@@ -22,7 +28,9 @@ public class Availability {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "psychologist_id", nullable = false)
     private Psychologist psychologist;
 
@@ -41,6 +49,19 @@ public class Availability {
     @Column(name = "specific_date")
     private LocalDate specificDate;
 
+    // RFC 5545 RRULE subset (FREQ=DAILY|WEEKLY, INTERVAL, BYDAY, UNTIL, COUNT), see Recurrence.
+    // Without a rule a row with dayOfWeek repeats every week, as before.
+    @Column(name = "recurrence_rule")
+    private String recurrenceRule;
+
+    // DTSTART of the rule: first day it can apply, and the anchor INTERVAL and COUNT are counted from
+    @Column(name = "recurrence_start")
+    private LocalDate recurrenceStart;
+
+    // EXDATE: comma-separated ISO dates the rule skips
+    @Column(name = "exception_dates", columnDefinition = "TEXT")
+    private String exceptionDates;
+
     @Column(name = "is_available")
     private Boolean isAvailable = true; // false for blocked time
 
@@ -112,6 +133,30 @@ public class Availability {
         this.specificDate = specificDate;
     }
 
+    public String getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(String recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+
+    public LocalDate getRecurrenceStart() {
+        return recurrenceStart;
+    }
+
+    public void setRecurrenceStart(LocalDate recurrenceStart) {
+        this.recurrenceStart = recurrenceStart;
+    }
+
+    public String getExceptionDates() {
+        return exceptionDates;
+    }
+
+    public void setExceptionDates(String exceptionDates) {
+        this.exceptionDates = exceptionDates;
+    }
+
     public Boolean getIsAvailable() {
         return isAvailable;
     }
@@ -0,0 +1,48 @@
+package com.pats.pats_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized calendar of one psychologist for the ISO week starting on weekStart (a Monday): the serialized
+ * CalendarWeekDTO and a strong ETag over it. Maintained by CalendarService.
+ */
+@Entity
+@Table(name = "psychologist_calendar_weeks")
+@IdClass(CalendarWeek.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarWeek {
+
+    @Id
+    @Column(name = "psychologist_id")
+    private Long psychologistId;
+
+    @Id
+    @Column(name = "week_start")
+    private LocalDate weekStart;
+
+    @Column(nullable = false, length = 64)
+    private String etag;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String document;
+
+    @Column(name = "built_at", nullable = false)
+    private LocalDateTime builtAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long psychologistId;
+        private LocalDate weekStart;
+    }
+}
@@ -0,0 +1,55 @@
+package com.pats.pats_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-patient mood aggregates, maintained on every check-in so dashboards never read the raw history.
+ * dailyRatings is a ring of the last WINDOW_DAYS days ending on lastEntryDate, indexed by epochDay % WINDOW_DAYS;
+ * a 0 means no check-in that day.
+ */
+@Entity
+@Table(name = "patient_mood_aggregates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoodAggregate {
+
+    public static final int WINDOW_DAYS = 90;
+
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "daily_ratings", nullable = false, length = WINDOW_DAYS)
+    private byte[] dailyRatings = new byte[WINDOW_DAYS];
+
+    @Column(name = "last_entry_date")
+    private LocalDate lastEntryDate;
+
+    @Column(name = "last_rating")
+    private Integer lastRating;
+
+    @Column(name = "current_streak", nullable = false)
+    private Integer currentStreak = 0;
+
+    @Column(name = "longest_streak", nullable = false)
+    private Integer longestStreak = 0;
+
+    @Column(name = "total_entries", nullable = false)
+    private Long totalEntries = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
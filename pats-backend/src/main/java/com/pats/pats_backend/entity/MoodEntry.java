@@ -4,17 +4,22 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "mood_entries")
+@Table(name = "mood_entries",
+        indexes = @Index(name = "idx_mood_entries_patient_time", columnList = "patient_id, entry_timestamp"),
+        uniqueConstraints = @UniqueConstraint(name = MoodEntry.UNIQUE_PATIENT_DATE, columnNames = {"patient_id", "entry_date"}))
 public class MoodEntry {
 
+    public static final String UNIQUE_PATIENT_DATE = "uk_mood_entries_patient_date";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private Patient patient;
 
@@ -32,6 +37,11 @@ public class MoodEntry {
     @Column(name = "entry_timestamp", nullable = false)
     private LocalDateTime entryTimestamp;
 
+    // Calendar day of entryTimestamp; one check-in per patient per day. Rows from before the column existed are
+    // filled in by db/mysql/backfill_mood_entry_date.sql
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -83,6 +93,14 @@ public class MoodEntry {
         this.entryTimestamp = entryTimestamp;
     }
 
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(LocalDate entryDate) {
+        this.entryDate = entryDate;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -106,10 +124,12 @@ public class MoodEntry {
         if (entryTimestamp == null) {
             entryTimestamp = LocalDateTime.now();
         }
+        entryDate = entryTimestamp.toLocalDate();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        entryDate = entryTimestamp.toLocalDate();
     }
 }
\ No newline at end of file
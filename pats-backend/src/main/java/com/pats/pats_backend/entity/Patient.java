@@ -1,15 +1,26 @@
 package com.pats.pats_backend.entity;
 
+import com.pats.pats_backend.config.CacheConfig;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "patients")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.PATIENTS)
+@Table(name = "patients", indexes = {
+        // One (column, id) index per keyset sort in PatientService.getPatientPage
+        @Index(name = "idx_patients_last_name_id", columnList = "last_name, id"),
+        @Index(name = "idx_patients_first_name_id", columnList = "first_name, id"),
+        @Index(name = "idx_patients_registered_at_id", columnList = "registered_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,7 +30,9 @@ public class Patient {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
@@ -0,0 +1,25 @@
+package com.pats.pats_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Normalized, space-delimited search tokens of one patient (names, email, phone), used to verify and rank
+ * candidates found through patient_search_grams. Maintained by PatientSearchIndex.
+ */
+@Entity
+@Table(name = "patient_search_documents")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchDocument {
+
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "search_text", nullable = false, length = 1024)
+    private String searchText;
+}
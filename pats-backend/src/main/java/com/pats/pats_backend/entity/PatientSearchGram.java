@@ -0,0 +1,39 @@
+package com.pats.pats_backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One trigram of a patient's search tokens. The (gram, patient_id) primary key is the lookup index;
+ * idx_patient_search_grams_patient serves reindexing a single patient.
+ */
+@Entity
+@Table(name = "patient_search_grams", indexes = {
+        @Index(name = "idx_patient_search_grams_patient", columnList = "patient_id")
+})
+@IdClass(PatientSearchGram.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchGram {
+
+    @Id
+    @Column(length = 3)
+    private String gram;
+
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String gram;
+        private Long patientId;
+    }
+}
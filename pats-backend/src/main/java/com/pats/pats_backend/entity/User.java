@@ -1,5 +1,6 @@
 package com.pats.pats_backend.entity;
 
+import com.pats.pats_backend.config.CacheConfig;
 import com.pats.pats_backend.enums.UserRole;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
@@ -7,11 +8,17 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USERS)
 @Table(name = "users")
+@NaturalIdCache(region = CacheConfig.USERS_BY_USERNAME)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +28,8 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Resolved through the natural-id cache by UserRepository.findByUsername
+    @NaturalId
     @NotBlank
     @Column(unique = true, nullable = false)
     private String username;
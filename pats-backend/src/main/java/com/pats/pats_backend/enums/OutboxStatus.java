@@ -0,0 +1,7 @@
+package com.pats.pats_backend.enums;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -1,7 +1,11 @@
 package com.pats.pats_backend.repo;
 
+import com.pats.pats_backend.dto.AppointmentHistoryDTO;
 import com.pats.pats_backend.entity.AppointmentHistory;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,7 +16,51 @@ public interface AppointmentHistoryRepository extends JpaRepository<AppointmentH
 
     Optional<AppointmentHistory> findByAppointmentId(Long appointmentId);
 
-    List<AppointmentHistory> findByAppointmentPatientId(Long patientId);
+    @Query("SELECT new com.pats.pats_backend.dto.AppointmentHistoryDTO(h.id, a.id, h.attendanceStatus, h.notes, " +
+            "h.actualDurationMinutes, h.externalCalendarProvider, h.externalCalendarSyncId, h.createdAt) " +
+            "FROM AppointmentHistory h JOIN h.appointment a WHERE a.patient.id = :patientId " +
+            "ORDER BY a.appointmentDateTime DESC")
+    List<AppointmentHistoryDTO> findDtosByPatientId(@Param("patientId") Long patientId);
 
-    List<AppointmentHistory> findByAppointmentPsychologistId(Long psychologistId);
+    @Query("SELECT new com.pats.pats_backend.dto.AppointmentHistoryDTO(h.id, a.id, h.attendanceStatus, h.notes, " +
+            "h.actualDurationMinutes, h.externalCalendarProvider, h.externalCalendarSyncId, h.createdAt) " +
+            "FROM AppointmentHistory h JOIN h.appointment a WHERE a.psychologist.id = :psychologistId " +
+            "ORDER BY a.appointmentDateTime DESC")
+    List<AppointmentHistoryDTO> findDtosByPsychologistId(@Param("psychologistId") Long psychologistId);
+
+    /**
+     * A patient's history entries with their appointments, most recent appointment first
+     */
+    default List<AppointmentHistory> findByPatientId(Long patientId, FetchPlan plan) {
+        return plan == FetchPlan.DETAIL ? findDetailByPatientId(patientId) : findSummaryByPatientId(patientId);
+    }
+
+    /**
+     * A psychologist's history entries with their appointments, most recent appointment first
+     */
+    default List<AppointmentHistory> findByPsychologistId(Long psychologistId, FetchPlan plan) {
+        return plan == FetchPlan.DETAIL
+                ? findDetailByPsychologistId(psychologistId)
+                : findSummaryByPsychologistId(psychologistId);
+    }
+
+    @EntityGraph(AppointmentHistory.SUMMARY_GRAPH)
+    @Query("SELECT h FROM AppointmentHistory h WHERE h.appointment.patient.id = :patientId " +
+            "ORDER BY h.appointment.appointmentDateTime DESC")
+    List<AppointmentHistory> findSummaryByPatientId(@Param("patientId") Long patientId);
+
+    @EntityGraph(AppointmentHistory.DETAIL_GRAPH)
+    @Query("SELECT h FROM AppointmentHistory h WHERE h.appointment.patient.id = :patientId " +
+            "ORDER BY h.appointment.appointmentDateTime DESC")
+    List<AppointmentHistory> findDetailByPatientId(@Param("patientId") Long patientId);
+
+    @EntityGraph(AppointmentHistory.SUMMARY_GRAPH)
+    @Query("SELECT h FROM AppointmentHistory h WHERE h.appointment.psychologist.id = :psychologistId " +
+            "ORDER BY h.appointment.appointmentDateTime DESC")
+    List<AppointmentHistory> findSummaryByPsychologistId(@Param("psychologistId") Long psychologistId);
+
+    @EntityGraph(AppointmentHistory.DETAIL_GRAPH)
+    @Query("SELECT h FROM AppointmentHistory h WHERE h.appointment.psychologist.id = :psychologistId " +
+            "ORDER BY h.appointment.appointmentDateTime DESC")
+    List<AppointmentHistory> findDetailByPsychologistId(@Param("psychologistId") Long psychologistId);
 }
@@ -0,0 +1,16 @@
+package com.pats.pats_backend.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slim projection of an appointment's time range, used for overlap checks
+ * without loading the patient/psychologist graph.
+ */
+public interface AppointmentInterval {
+
+    Long getId();
+
+    LocalDateTime getAppointmentDateTime();
+
+    Integer getDurationMinutes();
+}
@@ -2,10 +2,14 @@ package com.pats.pats_backend.repo;
 
 import com.pats.pats_backend.entity.AppointmentReminder;
 import com.pats.pats_backend.enums.ReminderStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,4 +22,54 @@ public interface AppointmentReminderRepository extends JpaRepository<Appointment
     List<AppointmentReminder> findByStatus(ReminderStatus status);
 
     void deleteByAppointmentId(Long appointmentId);
+
+    /**
+     * Claim the next chunk of due reminders after afterId (keyset pagination).
+     * Rows locked by another node's sweep are skipped instead of waited on; the locks
+     * are held until the caller's transaction commits.
+     */
+    @Query(value = "SELECT id FROM appointment_reminders " +
+            "WHERE status = 'PENDING' AND reminder_time <= :now AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> claimDueReminderIds(@Param("now") LocalDateTime now,
+                                   @Param("afterId") long afterId,
+                                   @Param("limit") int limit);
+
+    /**
+     * Claim the given reminders if they are still pending and due, skipping any another node holds
+     */
+    @Query(value = "SELECT id FROM appointment_reminders " +
+            "WHERE status = 'PENDING' AND reminder_time <= :now AND id IN (:ids) " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> claimDueRemindersByIdIn(@Param("now") LocalDateTime now,
+                                       @Param("ids") Collection<Long> ids);
+
+    /**
+     * An appointment's reminders with the appointment, in reminder order
+     */
+    default List<AppointmentReminder> findByAppointmentId(Long appointmentId, FetchPlan plan) {
+        return plan == FetchPlan.DETAIL
+                ? findDetailByAppointmentId(appointmentId)
+                : findSummaryByAppointmentId(appointmentId);
+    }
+
+    default List<AppointmentReminder> findByIdIn(Collection<Long> ids, FetchPlan plan) {
+        return plan == FetchPlan.DETAIL ? findDetailByIdIn(ids) : findSummaryByIdIn(ids);
+    }
+
+    @EntityGraph(AppointmentReminder.SUMMARY_GRAPH)
+    @Query("SELECT r FROM AppointmentReminder r WHERE r.appointment.id = :appointmentId ORDER BY r.reminderTime")
+    List<AppointmentReminder> findSummaryByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @EntityGraph(AppointmentReminder.DETAIL_GRAPH)
+    @Query("SELECT r FROM AppointmentReminder r WHERE r.appointment.id = :appointmentId ORDER BY r.reminderTime")
+    List<AppointmentReminder> findDetailByAppointmentId(@Param("appointmentId") Long appointmentId);
+
+    @EntityGraph(AppointmentReminder.SUMMARY_GRAPH)
+    @Query("SELECT r FROM AppointmentReminder r WHERE r.id IN :ids ORDER BY r.id")
+    List<AppointmentReminder> findSummaryByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(AppointmentReminder.DETAIL_GRAPH)
+    @Query("SELECT r FROM AppointmentReminder r WHERE r.id IN :ids ORDER BY r.id")
+    List<AppointmentReminder> findDetailByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,6 +1,9 @@
 package com.pats.pats_backend.repo;
 
+import com.pats.pats_backend.dto.AppointmentDTO;
+import com.pats.pats_backend.dto.CalendarSessionDTO;
 import com.pats.pats_backend.entity.Appointment;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -8,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
@@ -19,22 +23,133 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findByPsychologistIdAndAppointmentDateTimeBetween(
             Long psychologistId, LocalDateTime start, LocalDateTime end);
 
+    List<Appointment> findByPsychologistIdAndAppointmentDateTimeGreaterThanEqual(
+            Long psychologistId, LocalDateTime start);
+
     List<Appointment> findByPatientIdAndAppointmentDateTimeBetween(
             Long patientId, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT a FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
+    @Query("SELECT new com.pats.pats_backend.dto.AppointmentDTO(a.id, a.psychologist.id, a.patient.id, " +
+            "a.appointmentDateTime, a.durationMinutes, a.status, a.type, a.appointmentNotes, a.createdAt, " +
+            "a.originalDateTime, a.rescheduledAt, a.cancelledAt, a.cancellationReason) " +
+            "FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
             "AND a.appointmentDateTime >= :startTime AND a.appointmentDateTime <= :endTime " +
-            "AND a.status != 'CANCELLED'")
-    List<Appointment> findAvailableSlots(
+            "AND a.status != 'CANCELLED' ORDER BY a.appointmentDateTime")
+    List<AppointmentDTO> findAvailableSlots(
             @Param("psychologistId") Long psychologistId,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
 
-    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
-            "AND a.appointmentDateTime = :dateTime AND a.status != 'CANCELLED'")
-    long countConflictingAppointments(
+    @Query("SELECT new com.pats.pats_backend.dto.AppointmentDTO(a.id, a.psychologist.id, a.patient.id, " +
+            "a.appointmentDateTime, a.durationMinutes, a.status, a.type, a.appointmentNotes, a.createdAt, " +
+            "a.originalDateTime, a.rescheduledAt, a.cancelledAt, a.cancellationReason) " +
+            "FROM Appointment a WHERE a.id = :id")
+    Optional<AppointmentDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Non-cancelled sessions of a psychologist starting in [from, to), for the calendar read model
+     */
+    @Query("SELECT new com.pats.pats_backend.dto.CalendarSessionDTO(a.id, p.id, p.firstName, p.lastName, " +
+            "a.appointmentDateTime, a.durationMinutes, a.status, a.type) " +
+            "FROM Appointment a JOIN a.patient p WHERE a.psychologist.id = :psychologistId " +
+            "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to " +
+            "AND a.status <> com.pats.pats_backend.enums.AppointmentStatus.CANCELLED " +
+            "ORDER BY a.appointmentDateTime")
+    List<CalendarSessionDTO> findCalendarSessions(@Param("psychologistId") Long psychologistId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.pats.pats_backend.dto.AppointmentDTO(a.id, a.psychologist.id, a.patient.id, " +
+            "a.appointmentDateTime, a.durationMinutes, a.status, a.type, a.appointmentNotes, a.createdAt, " +
+            "a.originalDateTime, a.rescheduledAt, a.cancelledAt, a.cancellationReason) " +
+            "FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
+            "ORDER BY a.appointmentDateTime")
+    List<AppointmentDTO> findDtosByPsychologistId(@Param("psychologistId") Long psychologistId);
+
+    @Query("SELECT new com.pats.pats_backend.dto.AppointmentDTO(a.id, a.psychologist.id, a.patient.id, " +
+            "a.appointmentDateTime, a.durationMinutes, a.status, a.type, a.appointmentNotes, a.createdAt, " +
+            "a.originalDateTime, a.rescheduledAt, a.cancelledAt, a.cancellationReason) " +
+            "FROM Appointment a WHERE a.patient.id = :patientId " +
+            "ORDER BY a.appointmentDateTime")
+    List<AppointmentDTO> findDtosByPatientId(@Param("patientId") Long patientId);
+
+    /**
+     * Active appointments starting in [windowStart, windowEnd). Callers pass a window widened by the
+     * maximum session length so every appointment that can overlap a range is returned; the range
+     * predicate on appointment_date_time is served by idx_appointments_psych_time_status.
+     */
+    @Query("SELECT a.id AS id, a.appointmentDateTime AS appointmentDateTime, a.durationMinutes AS durationMinutes " +
+            "FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
+            "AND a.appointmentDateTime >= :windowStart AND a.appointmentDateTime < :windowEnd " +
+            "AND a.status <> com.pats.pats_backend.enums.AppointmentStatus.CANCELLED")
+    List<AppointmentInterval> findActiveIntervalsStartingBetween(
             @Param("psychologistId") Long psychologistId,
-            @Param("dateTime") LocalDateTime dateTime);
+            @Param("windowStart") LocalDateTime windowStart,
+            @Param("windowEnd") LocalDateTime windowEnd);
+
+    /**
+     * Longest active session in minutes, or null without any
+     */
+    @Query("SELECT MAX(a.durationMinutes) FROM Appointment a " +
+            "WHERE a.status <> com.pats.pats_backend.enums.AppointmentStatus.CANCELLED")
+    Integer findLongestActiveDuration();
 
     List<Appointment> findByStatusAndAppointmentDateTimeAfter(String status, LocalDateTime dateTime);
+
+    default Optional<Appointment> findById(Long id, FetchPlan plan) {
+        return plan == FetchPlan.DETAIL ? findDetailById(id) : findSummaryById(id);
+    }
+
+    /**
+     * A psychologist's appointments starting in [from, to), in start order
+     */
+    default List<Appointment> findForPsychologist(Long psychologistId, LocalDateTime from, LocalDateTime to,
+                                                  FetchPlan plan) {
+        return plan == FetchPlan.DETAIL
+                ? findDetailForPsychologist(psychologistId, from, to)
+                : findSummaryForPsychologist(psychologistId, from, to);
+    }
+
+    /**
+     * A patient's appointments starting in [from, to), in start order
+     */
+    default List<Appointment> findForPatient(Long patientId, LocalDateTime from, LocalDateTime to, FetchPlan plan) {
+        return plan == FetchPlan.DETAIL
+                ? findDetailForPatient(patientId, from, to)
+                : findSummaryForPatient(patientId, from, to);
+    }
+
+    @EntityGraph(Appointment.SUMMARY_GRAPH)
+    Optional<Appointment> findSummaryById(Long id);
+
+    @EntityGraph(Appointment.DETAIL_GRAPH)
+    Optional<Appointment> findDetailById(Long id);
+
+    @EntityGraph(Appointment.SUMMARY_GRAPH)
+    @Query("SELECT a FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
+            "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to ORDER BY a.appointmentDateTime")
+    List<Appointment> findSummaryForPsychologist(@Param("psychologistId") Long psychologistId,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to);
+
+    @EntityGraph(Appointment.DETAIL_GRAPH)
+    @Query("SELECT a FROM Appointment a WHERE a.psychologist.id = :psychologistId " +
+            "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to ORDER BY a.appointmentDateTime")
+    List<Appointment> findDetailForPsychologist(@Param("psychologistId") Long psychologistId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
+
+    @EntityGraph(Appointment.SUMMARY_GRAPH)
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId " +
+            "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to ORDER BY a.appointmentDateTime")
+    List<Appointment> findSummaryForPatient(@Param("patientId") Long patientId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @EntityGraph(Appointment.DETAIL_GRAPH)
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = :patientId " +
+            "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to ORDER BY a.appointmentDateTime")
+    List<Appointment> findDetailForPatient(@Param("patientId") Long patientId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
 }
@@ -2,12 +2,18 @@ package com.pats.pats_backend.repo;
 
 import com.pats.pats_backend.entity.AuditLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByPatientRecordIdOrderByActionTimestampDesc(Long patientRecordId);
     List<AuditLog> findByUserIdOrderByActionTimestampDesc(Long userId);
+
+    @Query("SELECT a.eventId FROM AuditLog a WHERE a.eventId IN :eventIds")
+    List<String> findExistingEventIds(@Param("eventIds") Collection<String> eventIds);
 }
\ No newline at end of file
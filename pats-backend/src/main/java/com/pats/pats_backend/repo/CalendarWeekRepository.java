@@ -0,0 +1,30 @@
+package com.pats.pats_backend.repo;
+
+import com.pats.pats_backend.entity.CalendarWeek;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Repository
+public interface CalendarWeekRepository extends JpaRepository<CalendarWeek, CalendarWeek.Key> {
+
+    @Modifying
+    @Query("DELETE FROM CalendarWeek w WHERE w.psychologistId = :psychologistId")
+    int deleteByPsychologistId(@Param("psychologistId") Long psychologistId);
+
+    /**
+     * Replace a stored week only with a build of a later snapshot, so a slow build of old data cannot overwrite
+     * a fresher one
+     */
+    @Modifying
+    @Query("UPDATE CalendarWeek w SET w.etag = :etag, w.document = :document, w.builtAt = :builtAt "
+            + "WHERE w.psychologistId = :psychologistId AND w.weekStart = :weekStart AND w.builtAt < :builtAt")
+    int updateIfNewer(@Param("psychologistId") Long psychologistId, @Param("weekStart") LocalDate weekStart,
+                      @Param("etag") String etag, @Param("document") String document,
+                      @Param("builtAt") LocalDateTime builtAt);
+}
@@ -1,7 +1,10 @@
 package com.pats.pats_backend.repo;
 
+import com.pats.pats_backend.dto.EmergencyContactDTO;
 import com.pats.pats_backend.entity.EmergencyContact;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +15,10 @@ public interface EmergencyContactRepository extends JpaRepository<EmergencyConta
     List<EmergencyContact> findByPatientId(Long patientId);
     Optional<EmergencyContact> findByPatientIdAndIsPrimaryTrue(Long patientId);
     List<EmergencyContact> findByPatientIdOrderByPriorityAsc(Long patientId);
+
+    @Query("SELECT new com.pats.pats_backend.dto.EmergencyContactDTO(c.id, c.patient.id, c.firstName, c.lastName, " +
+            "c.relationship, c.phoneNumber, c.alternatePhone, c.email, c.address, c.isPrimary, c.priority, " +
+            "c.createdAt, c.updatedAt) " +
+            "FROM EmergencyContact c WHERE c.patient.id = :patientId ORDER BY c.priority ASC")
+    List<EmergencyContactDTO> findDtosByPatientId(@Param("patientId") Long patientId);
 }
@@ -0,0 +1,12 @@
+package com.pats.pats_backend.repo;
+
+/**
+ * How much of an appointment's surroundings a repository read loads, in a single select either way.
+ * SUMMARY fetches the appointment with its psychologist and patient (calendars, history lists);
+ * DETAIL also fetches their user accounts, for anything that emails either party.
+ * Each plan maps to the SUMMARY_GRAPH / DETAIL_GRAPH named entity graph declared on the entity.
+ */
+public enum FetchPlan {
+    SUMMARY,
+    DETAIL
+}
@@ -0,0 +1,19 @@
+package com.pats.pats_backend.repo;
+
+import com.pats.pats_backend.entity.MoodAggregate;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MoodAggregateRepository extends JpaRepository<MoodAggregate, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM MoodAggregate a WHERE a.patientId = :patientId")
+    Optional<MoodAggregate> findByIdForUpdate(@Param("patientId") Long patientId);
+}
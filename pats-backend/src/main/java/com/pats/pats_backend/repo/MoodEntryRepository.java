@@ -1,22 +1,60 @@
 package com.pats.pats_backend.repo;
 
+import com.pats.pats_backend.dto.MoodHistoryItemDTO;
 import com.pats.pats_backend.entity.MoodEntry;
 import com.pats.pats_backend.entity.Patient;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface MoodEntryRepository extends JpaRepository<MoodEntry, Long> {
     List<MoodEntry> findByPatient(Patient patient);
 
-    @Query("SELECT m FROM MoodEntry m WHERE m.patient = :patient AND DATE(m.entryTimestamp) = :date")
-    Optional<MoodEntry> findByPatientAndDate(@Param("patient") Patient patient, @Param("date") LocalDate date);
+    /**
+     * Every day the patient checked in, oldest first; served from uk_mood_entries_patient_date alone
+     */
+    @Query("SELECT m.entryDate FROM MoodEntry m WHERE m.patient = :patient ORDER BY m.entryDate")
+    List<LocalDate> findEntryDatesByPatient(@Param("patient") Patient patient);
 
-    @Query("SELECT m FROM MoodEntry m WHERE DATE(m.entryTimestamp) = :date")
-    List<MoodEntry> findAllByDate(@Param("date") LocalDate date);
+    /**
+     * Entries in [from, to); the bare range on entry_timestamp is served by idx_mood_entries_patient_time
+     */
+    @Query("SELECT m FROM MoodEntry m WHERE m.patient = :patient " +
+            "AND m.entryTimestamp >= :from AND m.entryTimestamp < :to ORDER BY m.entryTimestamp")
+    List<MoodEntry> findByPatientInRange(@Param("patient") Patient patient,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    @Query("SELECT m FROM MoodEntry m WHERE m.entryTimestamp >= :from AND m.entryTimestamp < :to")
+    List<MoodEntry> findAllInRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * One keyset page of a patient's history, newest first, strictly before (beforeTimestamp, beforeId)
+     * and not older than from. Reads only the columns of the slim DTO.
+     */
+    @Query("SELECT new com.pats.pats_backend.dto.MoodHistoryItemDTO(m.id, m.emotionalRating, m.entryTimestamp, " +
+            "CASE WHEN m.notes IS NOT NULL THEN true ELSE false END) " +
+            "FROM MoodEntry m WHERE m.patient.id = :patientId AND m.entryTimestamp >= :from " +
+            "AND (m.entryTimestamp < :beforeTimestamp OR (m.entryTimestamp = :beforeTimestamp AND m.id < :beforeId)) " +
+            "ORDER BY m.entryTimestamp DESC, m.id DESC")
+    List<MoodHistoryItemDTO> findHistoryPage(@Param("patientId") Long patientId,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
+
+    default Optional<MoodEntry> findByPatientAndDate(Patient patient, LocalDate date) {
+        return findByPatientInRange(patient, date.atStartOfDay(), date.plusDays(1).atStartOfDay()).stream().findFirst();
+    }
+
+    default List<MoodEntry> findAllByDate(LocalDate date) {
+        return findAllInRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
 }
 
@@ -0,0 +1,58 @@
+package com.pats.pats_backend.repo;
+
+import com.pats.pats_backend.entity.NotificationOutbox;
+import com.pats.pats_backend.enums.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    long countByNotificationTypeAndAppointmentIdAndRecipientEmail(String notificationType, Long appointmentId,
+                                                                  String recipientEmail);
+
+    /**
+     * Claim up to limit due entries. Rows locked by another node's claim are skipped instead of
+     * waited on; the caller leases the returned ids before its transaction commits.
+     */
+    @Query(value = "SELECT id FROM notification_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> claimDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Hide claimed entries from other claims until leaseUntil; an entry whose outcome is never
+     * recorded becomes due again when the lease runs out
+     */
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.nextAttemptAt = :leaseUntil WHERE o.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Query("SELECT o FROM NotificationOutbox o WHERE o.id IN :ids ORDER BY o.id")
+    List<NotificationOutbox> findByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = com.pats.pats_backend.enums.OutboxStatus.SENT, " +
+            "o.sentAt = :sentAt, o.attempts = o.attempts + 1, o.lastError = NULL WHERE o.id = :id")
+    int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = :status, o.attempts = o.attempts + 1, " +
+            "o.nextAttemptAt = :nextAttemptAt, o.lastError = :error WHERE o.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") OutboxStatus status,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error);
+}
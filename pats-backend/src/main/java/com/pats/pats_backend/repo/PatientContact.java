@@ -0,0 +1,17 @@
+package com.pats.pats_backend.repo;
+
+/**
+ * Patient id and contact details, enough to send a notification without loading the Patient entity.
+ */
+public interface PatientContact {
+
+    Long getPatientId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+}
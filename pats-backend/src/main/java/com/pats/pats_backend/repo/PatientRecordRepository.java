@@ -1,7 +1,10 @@
 package com.pats.pats_backend.repo;
 
+import com.pats.pats_backend.dto.PatientRecordDTO;
 import com.pats.pats_backend.entity.PatientRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,14 @@ import java.util.Optional;
 public interface PatientRecordRepository extends JpaRepository<PatientRecord, Long> {
     Optional<PatientRecord> findByPatientId(Long patientId);
     List<PatientRecord> findByIsActiveTrue();
+
+    @Query("SELECT new com.pats.pats_backend.dto.PatientRecordDTO(r.id, r.patient.id, r.cnp, r.occupation, " +
+            "r.alternatePhone, r.streetAddress, r.city, r.county, r.postalCode, r.isActive, r.createdAt, r.updatedAt) " +
+            "FROM PatientRecord r WHERE r.id = :id")
+    Optional<PatientRecordDTO> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT new com.pats.pats_backend.dto.PatientRecordDTO(r.id, r.patient.id, r.cnp, r.occupation, " +
+            "r.alternatePhone, r.streetAddress, r.city, r.county, r.postalCode, r.isActive, r.createdAt, r.updatedAt) " +
+            "FROM PatientRecord r WHERE r.patient.id = :patientId")
+    Optional<PatientRecordDTO> findDtoByPatientId(@Param("patientId") Long patientId);
 }
\ No newline at end of file
@@ -1,12 +1,70 @@
 package com.pats.pats_backend.repo;
 
+import com.pats.pats_backend.dto.PatientDTO;
+import com.pats.pats_backend.dto.PatientSummary;
 import com.pats.pats_backend.entity.Patient;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByUserId(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Patient p WHERE p.id = :id")
+    Optional<Patient> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT new com.pats.pats_backend.dto.PatientDTO(p.id, u.id, p.firstName, p.lastName, p.dateOfBirth, " +
+            "p.gender, p.phoneNumber, p.address, p.city, p.postalCode, p.country, p.bloodType, p.insuranceProvider, " +
+            "p.insurancePolicyNumber, p.registeredAt, u.username, u.email) " +
+            "FROM Patient p JOIN p.user u WHERE p.id = :id")
+    Optional<PatientDTO> findDtoById(@Param("id") Long id);
+
+    /**
+     * Every patient as a PatientSummary, ordered by name; consume and close inside a transaction
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.pats.pats_backend.dto.PatientSummary(p.id, p.firstName, p.lastName, p.dateOfBirth, " +
+            "p.gender, p.phoneNumber, p.city, u.email, p.registeredAt) " +
+            "FROM Patient p JOIN p.user u ORDER BY p.lastName, p.firstName, p.id")
+    Stream<PatientSummary> streamAllSummaries();
+
+    @Query("SELECT p.id AS patientId, p.firstName AS firstName, p.lastName AS lastName, " +
+            "u.email AS email, p.phoneNumber AS phoneNumber " +
+            "FROM Patient p JOIN p.user u WHERE p.id IN :ids")
+    List<PatientContact> findContactsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * FR1.4 - Patients without a mood entry in [dayStart, dayEnd), as a single anti-join.
+     * Rows are streamed with a JDBC fetch size, so the stream must be consumed and closed inside a
+     * transaction. On MySQL the connection needs useCursorFetch=true for the fetch size to take effect.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS patientId, p.firstName AS firstName, p.lastName AS lastName, " +
+            "u.email AS email, p.phoneNumber AS phoneNumber " +
+            "FROM Patient p JOIN p.user u " +
+            "WHERE NOT EXISTS (SELECT 1 FROM MoodEntry m WHERE m.patient = p " +
+            "AND m.entryTimestamp >= :dayStart AND m.entryTimestamp < :dayEnd) " +
+            "ORDER BY p.id")
+    Stream<PatientContact> streamMissingCheckin(@Param("dayStart") LocalDateTime dayStart,
+                                                @Param("dayEnd") LocalDateTime dayEnd);
 }
\ No newline at end of file
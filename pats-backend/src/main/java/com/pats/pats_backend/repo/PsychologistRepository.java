@@ -1,7 +1,11 @@
 package com.pats.pats_backend.repo;
 
 import com.pats.pats_backend.entity.Psychologist;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +13,10 @@ import java.util.Optional;
 @Repository
 public interface PsychologistRepository extends JpaRepository<Psychologist, Long> {
     Optional<Psychologist> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    boolean existsByIdAndUserUsername(Long id, String username);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Psychologist p WHERE p.id = :id")
+    Optional<Psychologist> findByIdForUpdate(@Param("id") Long id);
+}
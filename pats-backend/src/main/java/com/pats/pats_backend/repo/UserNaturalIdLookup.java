@@ -0,0 +1,14 @@
+package com.pats.pats_backend.repo;
+
+import com.pats.pats_backend.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Username lookups through Hibernate's natural-id API, so repeated logins and token checks resolve the
+ * username and the user row from the second-level cache instead of querying users each time
+ */
+public interface UserNaturalIdLookup {
+
+    Optional<User> findByUsername(String username);
+}
@@ -1,16 +1,24 @@
 package com.pats.pats_backend.security;
 
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pats.pats_backend.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import com.pats.pats_backend.repo.UserRepository;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -18,19 +26,77 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * Immutable snapshot of an account; every caller gets its own UserDetails built from it, so erasing the
+     * credentials of one (as ProviderManager does after authenticating) cannot affect the cache
+     */
+    private record CachedUser(String username, String password, boolean enabled, List<GrantedAuthority> authorities) {
+
+        UserDetails toUserDetails() {
+            return new org.springframework.security.core.userdetails.User(
+                    username, password, enabled, true, true, true, authorities);
+        }
+    }
+
+    private final Cache<String, CachedUser> cache;
+
+    @Autowired
+    public CustomUserDetailsService(@Value("${security.user-cache.max-entries:1000}") int maxEntries,
+                                    @Value("${security.user-cache.ttl-ms:600000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    /**
+     * Uncached, for the login path: the password is always checked against the current row
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return load(username).toUserDetails();
+    }
+
+    /**
+     * Cached for the authentication filter; entries are evicted when the User row changes (see
+     * UserDetailsCacheListener) and expire after ttlMs to pick up changes made by other instances
+     */
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        return cache.get(username, this::load).toUserDetails();
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * Evict once the surrounding transaction commits, so a concurrent request cannot re-cache the old row
+     */
+    public void evictAfterCommit(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(username);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(username);
+                }
+            });
+        } else {
+            evict(username);
+        }
+    }
+
+    private CachedUser load(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
+        return new CachedUser(
                 user.getUsername(),
                 user.getPassword(),
                 user.getActive(),
-                true,
-                true,
-                true,
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
-}
\ No newline at end of file
+}
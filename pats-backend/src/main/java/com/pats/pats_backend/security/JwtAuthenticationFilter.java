@@ -1,32 +1,37 @@
 package com.pats.pats_backend.security;
 
+import com.pats.pats_backend.config.LogSampler;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import java.util.ArrayList;
-import java.util.List;
 
 import java.io.IOException;
 
+@Slf4j
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final LogSampler NO_TOKEN_SAMPLER = new LogSampler(100);
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
             HttpServletResponse response,
@@ -35,40 +40,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String authHeader = request.getHeader("Authorization");
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("No Bearer token found");
+            // Anonymous requests are common (login, static pages); keep a sample for troubleshooting
+            if (log.isDebugEnabled() && NO_TOKEN_SAMPLER.sample()) {
+                log.debug("No Bearer token on {} {}", request.getMethod(), request.getRequestURI());
+            }
             filterChain.doFilter(request, response);
             return;
         }
 
         String jwt = authHeader.substring(7);
-        String username = jwtUtil.extractUsername(jwt);
-
-        System.out.println("Extracted username: " + username);
+        // Parsed and verified once per token; later requests only hash it
+        Claims claims = verifiedTokenCache.get(jwt);
+        if (claims == null) {
+            claims = jwtUtil.verify(jwt);
+            verifiedTokenCache.put(jwt, claims);
+        }
+        String username = claims.getSubject();
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                String role = jwtUtil.extractClaim(jwt, claims -> claims.get("role", String.class));
-
-                List<GrantedAuthority> authorities = new ArrayList<>();
-                if (role != null) {
-                    String authorityRole = role.startsWith("ROLE_") ? role : "ROLE_" + role;
-                    authorities.add(new SimpleGrantedAuthority(authorityRole));
-                }
+            UserDetails userDetails = customUserDetailsService.loadCachedUserByUsername(username);
 
+            if (userDetails.isEnabled()) {
+                // Authorities come from the cached account rather than the token, so role changes apply at once
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
-                        authorities);
+                        userDetails.getAuthorities());
 
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             } else {
-                System.out.println("Token validation failed");
+                log.warn("Rejected token for disabled account {}", username);
             }
         } else {
-            System.out.println("Username is null or authentication already exists");
+            log.debug("Token has no subject or request is already authenticated");
         }
 
         filterChain.doFilter(request, response);
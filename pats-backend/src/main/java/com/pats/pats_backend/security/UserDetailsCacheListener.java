@@ -0,0 +1,26 @@
+package com.pats.pats_backend.security;
+
+import com.pats.pats_backend.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener on User that drops the cached UserDetails when an account is deactivated, changes role
+ * or is otherwise updated. Looked up lazily for the same reason as PatientSearchIndexListener.
+ */
+public class UserDetailsCacheListener {
+
+    @Autowired
+    private ObjectProvider<CustomUserDetailsService> userDetailsService;
+
+    @PostUpdate
+    @PostRemove
+    public void onChanged(User user) {
+        CustomUserDetailsService service = userDetailsService == null ? null : userDetailsService.getIfAvailable();
+        if (service != null) {
+            service.evictAfterCommit(user.getUsername());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.pats.pats_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Claims of tokens whose signature has already been verified, keyed by the SHA-256 of the token.
+ * Each entry lives until the token itself expires, so a cache hit never outlives the token; when the cache is
+ * full of live tokens, the least recently used ones are evicted.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Claims> entries;
+
+    public VerifiedTokenCache(@Value("${security.token-cache.max-entries:10000}") int maxEntries) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.<String, Claims>creating((key, claims) ->
+                        Duration.ofMillis(claims.getExpiration().getTime() - System.currentTimeMillis())))
+                .build();
+    }
+
+    /**
+     * Claims for a previously verified, unexpired token, or null
+     */
+    public Claims get(String token) {
+        return entries.getIfPresent(hash(token));
+    }
+
+    public void put(String token, Claims claims) {
+        if (claims.getExpiration() == null || claims.getExpiration().getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        entries.put(hash(token), claims);
+    }
+
+    public long size() {
+        entries.cleanUp();
+        return entries.estimatedSize();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
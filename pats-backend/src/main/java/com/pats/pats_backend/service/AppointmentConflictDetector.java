@@ -0,0 +1,90 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.repo.AppointmentInterval;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * FR9.7 - Duration-aware double-booking detection.
+ * Two sessions conflict when their [start, start + duration) ranges intersect. Because session
+ * length is capped at MAX_DURATION_MINUTES, only appointments starting in
+ * [start - MAX_DURATION_MINUTES, end) can overlap, which keeps the lookup a bounded range scan
+ * on (psychologist_id, appointment_date_time, status) regardless of calendar size.
+ * Active sessions booked before the cap was enforced may be longer; while any exist, the lookback is
+ * widened to the longest of them.
+ */
+@Slf4j
+@Service
+public class AppointmentConflictDetector {
+
+    public static final int DEFAULT_DURATION_MINUTES = 60;
+    public static final int MAX_DURATION_MINUTES = 240;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    // Read once: new sessions are capped, so the longest active one can only get shorter and a stale value
+    // only widens the scan
+    private volatile Integer lookbackMinutes;
+
+    /**
+     * Resolve and validate a requested session length
+     */
+    public int resolveDuration(Integer durationMinutes) {
+        int duration = durationMinutes != null ? durationMinutes : DEFAULT_DURATION_MINUTES;
+        if (duration <= 0 || duration > MAX_DURATION_MINUTES) {
+            throw new IllegalArgumentException(
+                    "Appointment duration must be between 1 and " + MAX_DURATION_MINUTES + " minutes");
+        }
+        return duration;
+    }
+
+    /**
+     * Length of an already booked session; one longer than MAX_DURATION_MINUTES (booked before the cap) keeps
+     * its length, so it can still be rescheduled
+     */
+    public int storedDuration(Integer durationMinutes) {
+        return durationMinutes != null && durationMinutes > 0 ? durationMinutes : DEFAULT_DURATION_MINUTES;
+    }
+
+    /**
+     * Check whether [start, start + durationMinutes) overlaps any active appointment of the psychologist,
+     * ignoring excludedAppointmentId (the appointment being rescheduled), which may be null
+     */
+    @Transactional(readOnly = true)
+    public boolean hasConflict(Long psychologistId, LocalDateTime start, int durationMinutes, Long excludedAppointmentId) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        for (AppointmentInterval candidate : appointmentRepository.findActiveIntervalsStartingBetween(
+                psychologistId, start.minusMinutes(lookbackMinutes()), end)) {
+            if (Objects.equals(candidate.getId(), excludedAppointmentId)) {
+                continue;
+            }
+            LocalDateTime candidateEnd = candidate.getAppointmentDateTime()
+                    .plusMinutes(storedDuration(candidate.getDurationMinutes()));
+            if (candidate.getAppointmentDateTime().isBefore(end) && candidateEnd.isAfter(start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int lookbackMinutes() {
+        Integer lookback = lookbackMinutes;
+        if (lookback == null) {
+            Integer longest = appointmentRepository.findLongestActiveDuration();
+            lookback = Math.max(MAX_DURATION_MINUTES, longest != null ? longest : 0);
+            if (lookback > MAX_DURATION_MINUTES) {
+                log.info("Active appointments longer than {} minutes exist; conflict checks look back {} minutes",
+                        MAX_DURATION_MINUTES, lookback);
+            }
+            lookbackMinutes = lookback;
+        }
+        return lookback;
+    }
+}
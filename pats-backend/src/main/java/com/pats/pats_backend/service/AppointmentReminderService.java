@@ -18,7 +18,10 @@ public class AppointmentReminderService {
     private AppointmentReminderRepository appointmentReminderRepository;
 
     @Autowired
-    private NotificationService notificationService;
+    private ReminderSweeper reminderSweeper;
+
+    @Autowired
+    private ReminderScheduler reminderScheduler;
 
     /**
      * FR9.3 - Send appointment reminders 24 hours and 1 hour before scheduled time
@@ -35,7 +38,7 @@ public class AppointmentReminderService {
         reminder24h.setStatus(ReminderStatus.PENDING);
         reminder24h.setReminderType("APPOINTMENT_REMINDER");
         reminder24h.setRecipientEmail(appointment.getPatient().getUser().getEmail());
-        appointmentReminderRepository.save(reminder24h);
+        reminderScheduler.track(appointmentReminderRepository.save(reminder24h));
 
         // Schedule 1-hour reminder
         AppointmentReminder reminder1h = new AppointmentReminder();
@@ -45,7 +48,7 @@ public class AppointmentReminderService {
         reminder1h.setStatus(ReminderStatus.PENDING);
         reminder1h.setReminderType("APPOINTMENT_REMINDER");
         reminder1h.setRecipientEmail(appointment.getPatient().getUser().getEmail());
-        appointmentReminderRepository.save(reminder1h);
+        reminderScheduler.track(appointmentReminderRepository.save(reminder1h));
     }
 
     /**
@@ -66,7 +69,7 @@ public class AppointmentReminderService {
                     continue;
                 }
                 reminder.setReminderTime(newReminderTime);
-                appointmentReminderRepository.save(reminder);
+                reminderScheduler.track(appointmentReminderRepository.save(reminder));
             }
         }
     }
@@ -76,7 +79,9 @@ public class AppointmentReminderService {
      */
     @Transactional
     public void deleteRemindersByAppointmentId(Long appointmentId) {
-        appointmentReminderRepository.deleteByAppointmentId(appointmentId);
+        List<AppointmentReminder> reminders = appointmentReminderRepository.findByAppointmentId(appointmentId);
+        appointmentReminderRepository.deleteAll(reminders);
+        reminderScheduler.untrack(reminders.stream().map(AppointmentReminder::getId).toList());
     }
 
     /**
@@ -90,22 +95,10 @@ public class AppointmentReminderService {
 
     /**
      * Process and send pending reminders
+     * Delegates to the chunked ReminderSweeper, which also runs on its own schedule.
      */
-    @Transactional
-    public void processPendingReminders() {
-        List<AppointmentReminder> pendingReminders = getPendingReminders();
-        
-        for (AppointmentReminder reminder : pendingReminders) {
-            try {
-                notificationService.sendReminderNotification(reminder);
-                reminder.setStatus(ReminderStatus.SENT);
-                reminder.setSentAt(LocalDateTime.now());
-                appointmentReminderRepository.save(reminder);
-            } catch (Exception e) {
-                // Log error and continue with next reminder
-                e.printStackTrace();
-            }
-        }
+    public int processPendingReminders() {
+        return reminderSweeper.sweep();
     }
 
     /**
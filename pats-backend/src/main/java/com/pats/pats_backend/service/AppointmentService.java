@@ -1,19 +1,28 @@
 package com.pats.pats_backend.service;
 
+import com.pats.pats_backend.dto.AppointmentDTO;
+import com.pats.pats_backend.dto.AppointmentHistoryDTO;
+import com.pats.pats_backend.dto.TimeSlotDTO;
 import com.pats.pats_backend.entity.*;
 import com.pats.pats_backend.enums.AppointmentStatus;
 import com.pats.pats_backend.enums.AttendanceStatus;
 import com.pats.pats_backend.repo.AppointmentHistoryRepository;
 import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.PsychologistRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
+@Timed(value = "pats.service", histogram = true)
 public class AppointmentService {
 
     @Autowired
@@ -22,31 +31,95 @@ public class AppointmentService {
     @Autowired
     private AppointmentHistoryRepository appointmentHistoryRepository;
 
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
     @Autowired
     private AppointmentReminderService appointmentReminderService;
 
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private SlotEngine slotEngine;
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private AppointmentConflictDetector appointmentConflictDetector;
+
+    @Autowired
+    private BookingCoordinator bookingCoordinator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     /**
      * FR9.2 - Display available time slots to patients for booking
      */
     @Transactional(readOnly = true)
-    public List<Appointment> getAvailableSlots(Long psychologistId, LocalDateTime startTime, LocalDateTime endTime) {
+    public List<AppointmentDTO> getAvailableSlots(Long psychologistId, LocalDateTime startTime, LocalDateTime endTime) {
         return appointmentRepository.findAvailableSlots(psychologistId, startTime, endTime);
     }
 
+    /**
+     * FR9.2 - Compute free bookable slots from availability minus booked sessions
+     */
+    @Transactional(readOnly = true)
+    public List<TimeSlotDTO> getFreeSlots(Long psychologistId, LocalDateTime startTime, LocalDateTime endTime,
+                                          int durationMinutes) {
+        return slotEngine.findFreeSlots(psychologistId, startTime, endTime, durationMinutes);
+    }
+
+    /**
+     * FR9.2/FR9.7 - Book from a request. Psychologist and patient are loaded inside the booking transaction,
+     * so reminders and notifications can still reach their lazy user associations.
+     */
+    @Transactional
+    public AppointmentDTO bookAppointment(AppointmentDTO request) {
+        Optional<Psychologist> psychologistOpt = psychologistRepository.findById(request.getPsychologistId());
+        Optional<Patient> patientOpt = patientRepository.findById(request.getPatientId());
+        if (psychologistOpt.isEmpty() || patientOpt.isEmpty()) {
+            throw new NoSuchElementException("Psychologist or Patient not found");
+        }
+
+        Appointment appointment = new Appointment();
+        appointment.setPsychologist(psychologistOpt.get());
+        appointment.setPatient(patientOpt.get());
+        appointment.setAppointmentDateTime(request.getAppointmentDateTime());
+        appointment.setDurationMinutes(request.getDurationMinutes() != null ? request.getDurationMinutes() : 60);
+        appointment.setType(request.getType());
+        appointment.setAppointmentNotes(request.getAppointmentNotes());
+
+        return AppointmentDTO.from(bookAppointment(appointment));
+    }
+
     /**
      * FR9.7 - Prevent double-booking of time slots
      */
     @Transactional
     public Appointment bookAppointment(Appointment appointment) {
-        // Check for double-booking
-        long conflictCount = appointmentRepository.countConflictingAppointments(
-                appointment.getPsychologist().getId(),
-                appointment.getAppointmentDateTime());
+        appointment.setDurationMinutes(appointmentConflictDetector.resolveDuration(appointment.getDurationMinutes()));
 
-        if (conflictCount > 0) {
+        checkOccupancy(appointment.getPsychologist().getId(), appointment.getAppointmentDateTime(),
+                appointment.getDurationMinutes(), null, "book", "Time slot already booked for this psychologist");
+
+        // Serialize with other bookings for this psychologist until commit
+        bookingCoordinator.lockCalendar(appointment.getPsychologist().getId());
+        confirmAvailability(appointment.getPsychologist().getId(), appointment.getAppointmentDateTime(),
+                appointment.getDurationMinutes());
+
+        // Check for double-booking against any overlapping session
+        if (appointmentConflictDetector.hasConflict(
+                appointment.getPsychologist().getId(),
+                appointment.getAppointmentDateTime(),
+                appointment.getDurationMinutes(),
+                null)) {
+            meterRegistry.counter("pats.booking.conflicts", "operation", "book").increment();
             throw new IllegalStateException("Time slot already booked for this psychologist");
         }
 
@@ -54,6 +127,8 @@ public class AppointmentService {
         appointment.setStatus(AppointmentStatus.SCHEDULED);
         appointment.setCreatedAt(LocalDateTime.now());
         Appointment savedAppointment = appointmentRepository.save(appointment);
+        slotEngine.onAppointmentChanged(savedAppointment);
+        calendarService.onAppointmentChanged(savedAppointment);
 
         // Schedule reminders for 24 hours and 1 hour before
         appointmentReminderService.scheduleReminders(savedAppointment);
@@ -84,12 +159,20 @@ public class AppointmentService {
             throw new IllegalStateException("Cannot reschedule within 24 hours of appointment");
         }
 
-        // Check for double-booking at new time
-        long conflictCount = appointmentRepository.countConflictingAppointments(
-                appointment.getPsychologist().getId(),
-                newDateTime);
+        int duration = appointmentConflictDetector.storedDuration(appointment.getDurationMinutes());
+        checkOccupancy(appointment.getPsychologist().getId(), newDateTime, duration, appointment.getId(),
+                "reschedule", "New time slot already booked");
+
+        bookingCoordinator.lockCalendar(appointment.getPsychologist().getId());
+        confirmAvailability(appointment.getPsychologist().getId(), newDateTime, duration);
 
-        if (conflictCount > 0) {
+        // Check for double-booking at new time, ignoring the appointment's own current slot
+        if (appointmentConflictDetector.hasConflict(
+                appointment.getPsychologist().getId(),
+                newDateTime,
+                duration,
+                appointment.getId())) {
+            meterRegistry.counter("pats.booking.conflicts", "operation", "reschedule").increment();
             throw new IllegalStateException("New time slot already booked");
         }
 
@@ -99,6 +182,8 @@ public class AppointmentService {
         appointment.setRescheduledAt(LocalDateTime.now());
 
         Appointment updatedAppointment = appointmentRepository.save(appointment);
+        slotEngine.onAppointmentChanged(updatedAppointment);
+        calendarService.onAppointmentChanged(updatedAppointment);
 
         // Reschedule reminders
         appointmentReminderService.rescheduleReminders(updatedAppointment);
@@ -125,6 +210,8 @@ public class AppointmentService {
         appointment.setCancellationReason(cancellationReason);
 
         appointmentRepository.save(appointment);
+        slotEngine.onAppointmentChanged(appointment);
+        calendarService.onAppointmentChanged(appointment);
 
         // Delete pending reminders
         appointmentReminderService.deleteRemindersByAppointmentId(appointmentId);
@@ -153,6 +240,7 @@ public class AppointmentService {
         history.setNotes(notes);
         history.setActualDurationMinutes(actualDurationMinutes);
         history.setCreatedAt(LocalDateTime.now());
+        calendarService.onAppointmentChanged(appointment);
 
         return appointmentHistoryRepository.save(history);
     }
@@ -161,30 +249,68 @@ public class AppointmentService {
      * FR9.8 - Get appointment history for patient
      */
     @Transactional(readOnly = true)
-    public List<AppointmentHistory> getPatientAppointmentHistory(Long patientId) {
-        return appointmentHistoryRepository.findByAppointmentPatientId(patientId);
+    public List<AppointmentHistoryDTO> getPatientAppointmentHistory(Long patientId) {
+        return appointmentHistoryRepository.findDtosByPatientId(patientId);
     }
 
     /**
      * FR9.8 - Get appointment history for psychologist
      */
     @Transactional(readOnly = true)
-    public List<AppointmentHistory> getPsychologistAppointmentHistory(Long psychologistId) {
-        return appointmentHistoryRepository.findByAppointmentPsychologistId(psychologistId);
+    public List<AppointmentHistoryDTO> getPsychologistAppointmentHistory(Long psychologistId) {
+        return appointmentHistoryRepository.findDtosByPsychologistId(psychologistId);
     }
 
     @Transactional(readOnly = true)
-    public List<Appointment> getAppointmentsByPsychologist(Long psychologistId) {
-        return appointmentRepository.findByPsychologistId(psychologistId);
+    public List<AppointmentDTO> getAppointmentsByPsychologist(Long psychologistId) {
+        return appointmentRepository.findDtosByPsychologistId(psychologistId);
     }
 
     @Transactional(readOnly = true)
-    public List<Appointment> getAppointmentsByPatient(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId);
+    public List<AppointmentDTO> getAppointmentsByPatient(Long patientId) {
+        return appointmentRepository.findDtosByPatientId(patientId);
     }
 
     @Transactional(readOnly = true)
-    public Optional<Appointment> getAppointment(Long appointmentId) {
-        return appointmentRepository.findById(appointmentId);
+    public Optional<AppointmentDTO> getAppointment(Long appointmentId) {
+        return appointmentRepository.findDtoById(appointmentId);
+    }
+
+    /**
+     * FR9.1/FR9.7 - Reject a time outside availability or over a booking before taking the calendar lock.
+     * The slot engine's calendar is local to this node and may miss changes committed elsewhere, so its answer
+     * is only a hint: a booking it reports is confirmed against the database, and a time it reports as outside
+     * availability is checked again on a freshly loaded calendar. Either way the checks under the lock stay
+     * authoritative for the time that passes.
+     */
+    private void checkOccupancy(Long psychologistId, LocalDateTime start, int durationMinutes,
+                                Long ignoredAppointmentId, String operation, String bookedMessage) {
+        SlotEngine.Occupancy occupancy = slotEngine.occupancy(psychologistId, start, durationMinutes, ignoredAppointmentId);
+        if (occupancy == SlotEngine.Occupancy.OUTSIDE_AVAILABILITY) {
+            slotEngine.invalidate(psychologistId);
+            if (slotEngine.occupancy(psychologistId, start, durationMinutes, ignoredAppointmentId)
+                    == SlotEngine.Occupancy.OUTSIDE_AVAILABILITY) {
+                throw new IllegalArgumentException("Requested time is outside the psychologist's availability");
+            }
+        } else if (occupancy == SlotEngine.Occupancy.BOOKED) {
+            if (appointmentConflictDetector.hasConflict(psychologistId, start, durationMinutes, ignoredAppointmentId)) {
+                meterRegistry.counter("pats.booking.conflicts", "operation", operation).increment();
+                throw new IllegalStateException(bookedMessage);
+            }
+            // The cached calendar missed a cancellation or move made on another node
+            slotEngine.invalidate(psychologistId);
+        }
+    }
+
+    /**
+     * FR9.1 - Under the calendar lock, check the requested time against the availability rows themselves. A time
+     * blocked on another node may still look free in this node's calendar, and availability changes take the same
+     * lock, so this answer holds until commit.
+     */
+    private void confirmAvailability(Long psychologistId, LocalDateTime start, int durationMinutes) {
+        if (!slotEngine.isOpenInDatabase(psychologistId, start, durationMinutes)) {
+            slotEngine.invalidate(psychologistId);
+            throw new IllegalArgumentException("Requested time is outside the psychologist's availability");
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.pats.pats_backend.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * One audit trail entry waiting to be written. eventId is stored with the row so replaying the
+ * write-ahead file after a crash never writes an entry twice.
+ */
+record AuditEvent(String eventId, String username, Long patientRecordId, String action, String details,
+                  LocalDateTime actionTimestamp, boolean recovered) {
+}
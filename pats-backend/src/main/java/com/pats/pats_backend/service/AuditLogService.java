@@ -0,0 +1,104 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.AuditLogDTO;
+import com.pats.pats_backend.dto.AuditLogPageDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FR17.9 - Range scans over the audit trail, newest first.
+ * Pages are keyset-paginated on (action_timestamp, id) so deep pages cost the same as the first one, and a
+ * time window lets MySQL prune partitions outside it.
+ */
+@Service
+public class AuditLogService {
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SELECT = "SELECT new com.pats.pats_backend.dto.AuditLogDTO("
+            + "a.id, u.id, u.username, a.userEmail, a.patientRecord.id, a.action, a.actionDetails, a.actionTimestamp, a.ipAddress) "
+            + "FROM AuditLog a LEFT JOIN a.user u ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Page of audit entries matching every given filter; from is inclusive and to exclusive
+     */
+    @Transactional(readOnly = true)
+    public AuditLogPageDTO search(String username, Long patientRecordId, String action,
+                                  LocalDateTime from, LocalDateTime to, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder jpql = new StringBuilder(SELECT).append("WHERE 1 = 1 ");
+        if (username != null && !username.isBlank()) {
+            jpql.append("AND u.username = :username ");
+            parameters.put("username", username);
+        }
+        if (patientRecordId != null) {
+            jpql.append("AND a.patientRecord.id = :patientRecordId ");
+            parameters.put("patientRecordId", patientRecordId);
+        }
+        if (action != null && !action.isBlank()) {
+            jpql.append("AND a.action = :action ");
+            parameters.put("action", action);
+        }
+        if (from != null) {
+            jpql.append("AND a.actionTimestamp >= :from ");
+            parameters.put("from", from);
+        }
+        if (to != null) {
+            jpql.append("AND a.actionTimestamp < :to ");
+            parameters.put("to", to);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String position = decodeCursor(cursor);
+            int separator = position.lastIndexOf('|');
+            try {
+                parameters.put("cursorTime", LocalDateTime.parse(position.substring(0, separator)));
+                parameters.put("cursorId", Long.parseLong(position.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            jpql.append("AND (a.actionTimestamp < :cursorTime OR (a.actionTimestamp = :cursorTime AND a.id < :cursorId)) ");
+        }
+        jpql.append("ORDER BY a.actionTimestamp DESC, a.id DESC");
+
+        TypedQuery<AuditLogDTO> query = entityManager.createQuery(jpql.toString(), AuditLogDTO.class)
+                .setMaxResults(size + 1);
+        parameters.forEach(query::setParameter);
+        List<AuditLogDTO> rows = query.getResultList();
+        boolean hasMore = rows.size() > size;
+        List<AuditLogDTO> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+        return new AuditLogPageDTO(items, nextCursor, hasMore);
+    }
+
+    private static String encodeCursor(AuditLogDTO last) {
+        String position = last.getActionTimestamp() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.AuditLogDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * FR17.9 - Storage layout and retention for audit_logs.
+ * On MySQL the table is partitioned by month of action_timestamp once, by db/mysql/partition_audit_logs.sql;
+ * from then on this job keeps partitions created a few months ahead. Other databases (H2 in tests) keep a plain
+ * table served by the same indexes. Months older than the retention period are exported to gzipped JSON-lines
+ * files and then removed, by dropping their partition where one exists and by a ranged delete otherwise.
+ * On MySQL both jobs take a named lock first, so with several nodes only one of them runs each job.
+ */
+@Slf4j
+@Service
+public class AuditPartitionManager {
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+    private static final String MAX_PARTITION = "pmax";
+    private static final String PARTITIONS_LOCK = "pats.audit_logs.partitions";
+    private static final String ARCHIVE_LOCK = "pats.audit_logs.archive";
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private NamedLocks namedLocks;
+
+    @Value("${audit.partitions.enabled:true}")
+    private boolean partitionsEnabled;
+
+    @Value("${audit.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${audit.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${audit.archive.dir:audit-archive}")
+    private String archiveDir;
+
+    private final TransactionTemplate transaction;
+
+    public AuditPartitionManager(PlatformTransactionManager transactionManager) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Keep partitions created monthsAhead months in advance of a table already partitioned by the migration script
+     */
+    @Scheduled(cron = "${audit.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        if (!partitionsEnabled || !isMySql()) {
+            return;
+        }
+        YearMonth through = YearMonth.now().plusMonths(monthsAhead);
+        namedLocks.runExclusively(PARTITIONS_LOCK, () -> transaction.executeWithoutResult(status -> {
+            List<String> partitions = partitionNames();
+            if (partitions.isEmpty()) {
+                log.warn("audit_logs is not partitioned; apply db/mysql/partition_audit_logs.sql to enable monthly partitions");
+                return;
+            }
+            YearMonth last = partitions.stream()
+                    .filter(name -> !MAX_PARTITION.equals(name))
+                    .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                    .max(YearMonth::compareTo)
+                    .orElse(YearMonth.now().minusMonths(1));
+            if (last.isBefore(through)) {
+                execute("ALTER TABLE audit_logs REORGANIZE PARTITION " + MAX_PARTITION + " INTO ("
+                        + partitionDefinitions(last.plusMonths(1), through) + ")");
+            }
+        }));
+    }
+
+    /**
+     * Archive every month older than the retention period; returns the number of entries archived
+     */
+    @Scheduled(cron = "${audit.archive.cron:0 30 3 * * *}")
+    public int archiveColdMonths() {
+        return namedLocks.callExclusively(ARCHIVE_LOCK, this::archiveOlderThanRetention).orElse(0);
+    }
+
+    private int archiveOlderThanRetention() {
+        LocalDateTime oldest = transaction.execute(status -> entityManager
+                .createQuery("SELECT MIN(a.actionTimestamp) FROM AuditLog a", LocalDateTime.class)
+                .getSingleResult());
+        if (oldest == null) {
+            return 0;
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        int archived = 0;
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            archived += archive(month);
+        }
+        return archived;
+    }
+
+    /**
+     * Export one month to audit_logs-yyyy-MM.jsonl.gz, then remove it from the table.
+     * The file is written under a temporary name and moved into place before anything is removed, so a
+     * failure at any point leaves the rows in the table and the next run starts the month over.
+     */
+    int archive(YearMonth month) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path target = Path.of(archiveDir, "audit_logs-" + month + ".jsonl.gz");
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        int exported = 0;
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8))) {
+                long afterId = 0;
+                while (true) {
+                    long cursor = afterId;
+                    List<AuditLogDTO> chunk = transaction.execute(status -> entityManager.createQuery(
+                                    "SELECT new com.pats.pats_backend.dto.AuditLogDTO(a.id, u.id, u.username, a.userEmail, "
+                                            + "a.patientRecord.id, a.action, a.actionDetails, a.actionTimestamp, a.ipAddress) "
+                                            + "FROM AuditLog a LEFT JOIN a.user u WHERE a.actionTimestamp >= :from "
+                                            + "AND a.actionTimestamp < :to AND a.id > :afterId ORDER BY a.id", AuditLogDTO.class)
+                            .setParameter("from", from)
+                            .setParameter("to", to)
+                            .setParameter("afterId", cursor)
+                            .setMaxResults(EXPORT_CHUNK_SIZE)
+                            .getResultList());
+                    if (chunk == null || chunk.isEmpty()) {
+                        break;
+                    }
+                    for (AuditLogDTO entry : chunk) {
+                        writer.write(JSON.writeValueAsString(entry));
+                        writer.newLine();
+                    }
+                    exported += chunk.size();
+                    afterId = chunk.get(chunk.size() - 1).getId();
+                }
+            }
+            if (exported == 0) {
+                Files.delete(temporary);
+                return 0;
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive audit entries for " + month, e);
+        }
+
+        String partition = month.format(PARTITION_NAME);
+        transaction.executeWithoutResult(status -> {
+            if (isMySql() && partitionNames().contains(partition)) {
+                execute("ALTER TABLE audit_logs DROP PARTITION " + partition);
+            } else {
+                auditTableUpdate("DELETE FROM audit_logs WHERE action_timestamp >= :from AND action_timestamp < :to")
+                        .setParameter("from", from)
+                        .setParameter("to", to)
+                        .executeUpdate();
+            }
+        });
+        log.info("Archived {} audit entries from {} to {}", exported, month, target);
+        return exported;
+    }
+
+    private List<String> partitionNames() {
+        return entityManager.unwrap(Session.class)
+                .createNativeQuery("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION", String.class)
+                .getResultList();
+    }
+
+    /**
+     * One partition per month from first through last, followed by the catch-all partition
+     */
+    static String partitionDefinitions(YearMonth first, YearMonth last) {
+        StringJoiner definitions = new StringJoiner(", ");
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            definitions.add("PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('"
+                    + month.plusMonths(1).atDay(1) + " 00:00:00')");
+        }
+        definitions.add("PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+        return definitions.toString();
+    }
+
+    private void execute(String ddl) {
+        auditTableUpdate(ddl).executeUpdate();
+    }
+
+    /**
+     * Declares audit_logs as the only table touched, so Hibernate leaves the second-level cache alone
+     */
+    private NativeQuery<?> auditTableUpdate(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedQuerySpace("audit_logs");
+    }
+
+    private boolean isMySql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+    }
+}
@@ -0,0 +1,476 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.User;
+import com.pats.pats_backend.repo.AuditLogRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * FR17.9 - Writes the EMR audit trail off the request path.
+ * Callers enqueue events on a lock-free queue; a background thread writes them to audit_logs in
+ * JDBC batches, resolving the acting users with one query per batch. At most audit.writer.capacity events
+ * are held in memory. With audit.wal.enabled every event is also appended to a local write-ahead log before it
+ * is queued, and that log takes the overflow: once the queue is full, events are only appended and are read
+ * back in order as the queue drains. Events still in the log at startup (the process died before they were
+ * committed) are replayed the same way. Without the log, events beyond capacity are dropped and counted.
+ * A batch that fails for a transient reason (the database is down, a lock timed out) is kept and retried
+ * with exponential backoff for as long as it takes. Only an event that the database rejects on its own
+ * merits (a constraint or data error) is set aside, into the dead-letter file, so it cannot hold up the rest.
+ */
+@Slf4j
+@Service
+public class AuditTrailWriter {
+
+    private static final String INSERT = "INSERT INTO audit_logs "
+            + "(event_id, user_id, user_email, patient_record_id, action, action_details, action_timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${audit.writer.capacity:10000}")
+    private int capacity;
+
+    @Value("${audit.writer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${audit.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${audit.writer.max-backoff-ms:30000}")
+    private long maxBackoffMs = 30000;
+
+    @Value("${audit.wal.enabled:false}")
+    private boolean walEnabled;
+
+    @Value("${audit.wal.dir:audit-wal}")
+    private String walDir;
+
+    @Value("${audit.wal.fsync:false}")
+    private boolean walFsync;
+
+    @Value("${audit.wal.segment-bytes:8388608}")
+    private long walSegmentBytes = 8388608;
+
+    @Value("${audit.dead-letter.dir:${audit.wal.dir:audit-wal}}")
+    private String deadLetterDir;
+
+    private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    // Events accepted and not yet written, including those waiting in the write-ahead log only
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    // Held while appending to or reading back from the write-ahead log, so the queue keeps the log's order
+    private final Object spillLock = new Object();
+    // Whether new events go to the write-ahead log only, until everything in it has been read back
+    private boolean spilling;
+    private final TransactionTemplate batchTransaction;
+    // Held while writing, so flush() callers and the worker never write the same events twice
+    private final Object writeLock = new Object();
+    // Events of a failed attempt, written again first once the backoff has passed
+    private final List<AuditEvent> retry = new ArrayList<>();
+    private long backoffMs;
+    private long retryAtNanos;
+    private AuditWriteAheadLog wal;
+    private AuditWriteAheadLog deadLetters;
+    private volatile Thread worker;
+
+    public AuditTrailWriter(PlatformTransactionManager transactionManager) {
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Gauge.builder("pats.audit.queue.pending", pending, AtomicInteger::get)
+                .description("Audit events accepted but not yet written")
+                .register(meterRegistry);
+        if (walEnabled) {
+            wal = new AuditWriteAheadLog(Path.of(walDir), "audit.wal", walFsync, walSegmentBytes);
+            int recovered = wal.unread();
+            if (recovered > 0) {
+                log.info("Replaying {} audit events from the write-ahead log", recovered);
+                spilling = true;
+                pending.addAndGet(recovered);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (worker == null) {
+            worker = new Thread(this::run, "audit-writer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        Thread current;
+        synchronized (this) {
+            current = worker;
+            worker = null;
+        }
+        if (current != null) {
+            current.interrupt();
+            current.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        flush();
+        if (pending.get() > 0) {
+            if (wal != null) {
+                log.warn("{} audit events not yet written; they are replayed from the write-ahead log on the next start",
+                        pending.get());
+            } else {
+                log.error("{} audit events not yet written are lost on shutdown (audit.wal.enabled is off)", pending.get());
+            }
+        }
+        if (wal != null) {
+            wal.close();
+        }
+        if (deadLetters != null) {
+            deadLetters.close();
+        }
+    }
+
+    /**
+     * Audit an action once the surrounding transaction commits, so rolled-back changes leave no trail
+     */
+    public void record(String username, Long patientRecordId, String action, String details) {
+        AuditEvent event = new AuditEvent(UUID.randomUUID().toString(), username, patientRecordId, action, details,
+                LocalDateTime.now(), false);
+        afterCommit(() -> enqueue(event));
+    }
+
+    /**
+     * Runs after the caller's data has committed, so nothing here may fail the request or write to the database
+     */
+    private void enqueue(AuditEvent event) {
+        if (wal != null) {
+            enqueueDurably(event);
+        } else if (pending.get() >= capacity) {
+            drop(event);
+            return;
+        } else {
+            queue.offer(event);
+            pending.incrementAndGet();
+        }
+        Thread current = worker;
+        if (current != null && pending.get() >= batchSize) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private void enqueueDurably(AuditEvent event) {
+        synchronized (spillLock) {
+            boolean spill = spilling || pending.get() - wal.unread() >= capacity;
+            try {
+                wal.append(event, spill);
+            } catch (UncheckedIOException e) {
+                meterRegistry.counter("pats.audit.wal.failures").increment();
+                if (spill) {
+                    drop(event);
+                    return;
+                }
+                wal.markUnlogged();
+                log.error("Audit event {} queued without a write-ahead record: {}", event.eventId(), e.getMessage());
+            }
+            spilling = spill;
+            if (!spill) {
+                queue.offer(event);
+            }
+            pending.incrementAndGet();
+        }
+    }
+
+    private void drop(AuditEvent event) {
+        meterRegistry.counter("pats.audit.dropped").increment();
+        // Logged once per thousand so an outage does not flood the log as well
+        if (dropped.getAndIncrement() % 1000 == 0) {
+            log.error("Audit queue full, dropping audit events ({} so far, latest {}); audit.wal.enabled keeps them "
+                    + "in the write-ahead log instead", dropped.get(), event);
+        }
+    }
+
+    /**
+     * Move events waiting in the write-ahead log into the queue as far as capacity allows
+     */
+    private void refill() {
+        if (wal == null) {
+            return;
+        }
+        synchronized (spillLock) {
+            if (!spilling) {
+                return;
+            }
+            int room = Math.min(capacity - (pending.get() - wal.unread()), batchSize);
+            if (room > 0) {
+                try {
+                    queue.addAll(wal.read(room));
+                } catch (IOException e) {
+                    log.error("Could not read audit events back from the write-ahead log: {}", e.getMessage());
+                    return;
+                }
+            }
+            spilling = wal.unread() > 0;
+        }
+    }
+
+    /**
+     * Write everything queued so far on the calling thread, unless a failed write is backing off; returns the
+     * number of events written or set aside as dead letters
+     */
+    public int flush() {
+        int written = 0;
+        synchronized (writeLock) {
+            while (backoffRemainingNanos() == 0) {
+                refill();
+                boolean retrying = !retry.isEmpty();
+                List<AuditEvent> batch = new ArrayList<>(retry);
+                retry.clear();
+                AuditEvent event;
+                while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    return written;
+                }
+                int handled = write(batch, retrying);
+                written += handled;
+                pending.addAndGet(-handled);
+                if (handled < batch.size()) {
+                    retry.addAll(batch.subList(handled, batch.size()));
+                    return written;
+                }
+            }
+            return written;
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long backoff;
+            synchronized (writeLock) {
+                backoff = backoffRemainingNanos();
+            }
+            if (backoff > 0) {
+                LockSupport.parkNanos(backoff);
+            } else if (pending.get() < batchSize) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Audit writer flush failed", e);
+            }
+        }
+    }
+
+    /**
+     * One transaction per batch; returns how many events from the front of the batch are done with, either
+     * written or dead-lettered. A batch the database rejects is split so only the offending events are set aside;
+     * a transient failure stops the attempt and starts the backoff, leaving the rest for the retry.
+     */
+    private int write(List<AuditEvent> batch, boolean retrying) {
+        try {
+            batchTransaction.executeWithoutResult(status -> persist(batch, retrying));
+        } catch (RuntimeException e) {
+            meterRegistry.counter("pats.audit.failures").increment();
+            if (!isRejected(e)) {
+                backOff(batch.size(), e);
+                return 0;
+            }
+            if (batch.size() > 1) {
+                int handled = 0;
+                for (AuditEvent event : batch) {
+                    if (write(List.of(event), retrying) == 0) {
+                        break;
+                    }
+                    handled++;
+                }
+                return handled;
+            }
+            if (!quarantine(batch.get(0), e)) {
+                backOff(1, e);
+                return 0;
+            }
+        }
+        backoffMs = 0;
+        markPersisted(batch);
+        return batch.size();
+    }
+
+    /**
+     * Inserts over plain JDBC so the rows go out as one batch despite IDENTITY ids. Events that may already have
+     * been committed (replayed from the write-ahead log, or retried after an unclear failure) are checked by
+     * event_id first.
+     */
+    private void persist(List<AuditEvent> batch, boolean retrying) {
+        Set<String> usernames = batch.stream().map(AuditEvent::username).collect(Collectors.toSet());
+        Map<String, User> users = userRepository.findByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(User::getUsername, Function.identity()));
+
+        Set<String> alreadyWritten = new HashSet<>();
+        if (retrying || batch.stream().anyMatch(AuditEvent::recovered)) {
+            alreadyWritten.addAll(auditLogRepository.findExistingEventIds(
+                    batch.stream().map(AuditEvent::eventId).toList()));
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                int rows = 0;
+                for (AuditEvent event : batch) {
+                    User user = users.get(event.username());
+                    if (user == null || alreadyWritten.contains(event.eventId())) {
+                        continue;
+                    }
+                    insert.setString(1, event.eventId());
+                    insert.setLong(2, user.getId());
+                    insert.setString(3, user.getEmail());
+                    if (event.patientRecordId() != null) {
+                        insert.setLong(4, event.patientRecordId());
+                    } else {
+                        insert.setNull(4, Types.BIGINT);
+                    }
+                    insert.setString(5, event.action());
+                    insert.setString(6, event.details());
+                    insert.setTimestamp(7, Timestamp.valueOf(event.actionTimestamp()));
+                    insert.addBatch();
+                    rows++;
+                }
+                if (rows > 0) {
+                    insert.executeBatch();
+                }
+            }
+        });
+    }
+
+    private void backOff(int events, RuntimeException e) {
+        backoffMs = backoffMs == 0 ? Math.max(flushIntervalMs, 1) : Math.min(backoffMs * 2, maxBackoffMs);
+        retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+        log.warn("Audit batch of {} failed, retrying in {} ms: {}", events, backoffMs, e.getMessage());
+    }
+
+    private long backoffRemainingNanos() {
+        return backoffMs == 0 ? 0 : Math.max(retryAtNanos - System.nanoTime(), 0);
+    }
+
+    /**
+     * Whether the database rejected the data itself, so writing it again can never succeed
+     */
+    static boolean isRejected(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof ConstraintViolationException
+                    || cause instanceof DataException || cause instanceof SQLIntegrityConstraintViolationException
+                    || cause instanceof SQLDataException) {
+                return true;
+            }
+            if (cause instanceof BatchUpdateException batchError) {
+                SQLException next = batchError.getNextException();
+                if (next != null && next != cause && isRejected(next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Append a rejected event to the dead-letter file for manual follow-up; false if that failed too, in which
+     * case the event is kept and retried
+     */
+    private boolean quarantine(AuditEvent event, RuntimeException error) {
+        try {
+            if (deadLetters == null) {
+                deadLetters = new AuditWriteAheadLog(Path.of(deadLetterDir), "audit.dead", true, Long.MAX_VALUE);
+            }
+            deadLetters.append(event, true);
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Could not dead-letter rejected audit event {}: {}", event.eventId(), e.getMessage());
+            return false;
+        }
+        meterRegistry.counter("pats.audit.dead-letters").increment();
+        log.error("Audit event rejected by the database and moved to the dead-letter file: {}", event, error);
+        return true;
+    }
+
+    private void markPersisted(List<AuditEvent> batch) {
+        if (wal == null) {
+            return;
+        }
+        try {
+            wal.markPersisted(batch.size());
+        } catch (IOException e) {
+            log.warn("Could not remove persisted audit write-ahead segments: {}", e.getMessage());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.pats.pats_backend.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of audit events that have been accepted but not yet committed to audit_logs, kept in
+ * numbered segment files "name.N" of about segmentBytes each. Records are [length][crc32][payload]; a torn
+ * record at the tail (crash mid-append) fails its checksum and ends the replay.
+ * Events are persisted in the order they were appended, so a count of persisted events is enough to tell which
+ * segments are done with: those are deleted, and the last one is truncated once nothing is outstanding.
+ * Events are either handed to the caller at append or left unread, to be read back later in order; events
+ * found on disk when the log is opened start out unread.
+ */
+class AuditWriteAheadLog implements AutoCloseable {
+
+    private static final class Segment {
+        final long number;
+        final Path path;
+        final FileChannel channel;
+        // Events counted in this segment, including any kept in memory only after a failed append
+        int events;
+        int persisted;
+
+        Segment(long number, Path path, FileChannel channel) {
+            this.number = number;
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+
+    private record Record(AuditEvent event, long next) {
+    }
+
+    private final Path dir;
+    private final String name;
+    private final boolean fsync;
+    private final long segmentBytes;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    // The next unread record is at readPosition in readSegment; unread counts the records from there on
+    private Segment readSegment;
+    private long readPosition;
+    private int unread;
+
+    AuditWriteAheadLog(Path dir, String name, boolean fsync, long segmentBytes) throws IOException {
+        this.dir = dir.toAbsolutePath();
+        this.name = name;
+        this.fsync = fsync;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(this.dir);
+        for (Path path : segmentFiles()) {
+            Segment segment = open(segmentNumber(path));
+            long position = 0;
+            Record record;
+            while ((record = readRecord(segment.channel, position)) != null) {
+                segment.events++;
+                position = record.next();
+            }
+            // Drop a torn tail so new appends start on a record boundary
+            segment.channel.truncate(position);
+            segments.add(segment);
+            unread += segment.events;
+        }
+        if (segments.isEmpty()) {
+            segments.add(open(1));
+        }
+        Segment current = segments.getLast();
+        current.channel.position(current.channel.size());
+        readSegment = segments.getFirst();
+        readPosition = 0;
+    }
+
+    /**
+     * Append an event. One the caller keeps in memory may only be appended while nothing is unread, and the read
+     * position moves past it; with leaveUnread it stays unread until read back.
+     */
+    synchronized void append(AuditEvent event, boolean leaveUnread) {
+        if (!leaveUnread && unread > 0) {
+            throw new IllegalStateException("Unread events must be read back before new ones are kept in memory");
+        }
+        byte[] payload = encode(event);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.length);
+        record.putInt(payload.length).putInt((int) checksum.getValue()).put(payload).flip();
+        long start = -1;
+        try {
+            Segment current = currentForAppend();
+            start = current.channel.position();
+            while (record.hasRemaining()) {
+                current.channel.write(record);
+            }
+            if (fsync) {
+                current.channel.force(false);
+            }
+            current.events++;
+            if (leaveUnread) {
+                unread++;
+            } else {
+                readSegment = current;
+                readPosition = current.channel.position();
+            }
+        } catch (IOException e) {
+            discardTail(start);
+            throw new UncheckedIOException("Audit write-ahead append failed", e);
+        }
+    }
+
+    /**
+     * Count an event the caller keeps in memory although its append failed, so persisting it later is
+     * attributed to the right segment
+     */
+    synchronized void markUnlogged() {
+        segments.getLast().events++;
+    }
+
+    /**
+     * Up to max unread events, oldest first
+     */
+    synchronized List<AuditEvent> read(int max) throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        while (events.size() < max && unread > 0) {
+            Record record = readRecord(readSegment.channel, readPosition);
+            if (record == null) {
+                Segment next = after(readSegment);
+                if (next == null) {
+                    // Records went missing under us; nothing more can be read back
+                    unread = 0;
+                    break;
+                }
+                readSegment = next;
+                readPosition = 0;
+                continue;
+            }
+            events.add(record.event());
+            readPosition = record.next();
+            unread--;
+        }
+        return events;
+    }
+
+    synchronized int unread() {
+        return unread;
+    }
+
+    /**
+     * Record that the oldest count events are committed; segments holding only committed events are deleted
+     */
+    synchronized void markPersisted(int count) throws IOException {
+        while (count > 0 || (segments.size() > 1 && isDone(segments.getFirst()))) {
+            Segment oldest = segments.getFirst();
+            int taken = Math.min(count, oldest.events - oldest.persisted);
+            oldest.persisted += taken;
+            count -= taken;
+            if (!isDone(oldest)) {
+                return;
+            }
+            if (oldest != segments.getLast()) {
+                segments.removeFirst();
+                if (readSegment == oldest) {
+                    readSegment = segments.getFirst();
+                    readPosition = 0;
+                }
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            } else {
+                if (unread == 0) {
+                    oldest.channel.truncate(0);
+                    oldest.channel.position(0);
+                    oldest.events = 0;
+                    oldest.persisted = 0;
+                    readSegment = oldest;
+                    readPosition = 0;
+                }
+                return;
+            }
+        }
+    }
+
+    synchronized long size() throws IOException {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.channel.size();
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+    }
+
+    private static boolean isDone(Segment segment) {
+        return segment.persisted >= segment.events;
+    }
+
+    private Segment currentForAppend() throws IOException {
+        Segment current = segments.getLast();
+        if (current.events > 0 && current.channel.position() >= segmentBytes) {
+            current = open(current.number + 1);
+            segments.add(current);
+        }
+        return current;
+    }
+
+    private Segment after(Segment segment) {
+        boolean found = false;
+        for (Segment candidate : segments) {
+            if (found) {
+                return candidate;
+            }
+            found = candidate == segment;
+        }
+        return null;
+    }
+
+    private Segment open(long number) throws IOException {
+        Path path = dir.resolve(name + "." + number);
+        return new Segment(number, path, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> segmentNumber(path) > 0)
+                    .sorted(Comparator.comparingLong(this::segmentNumber))
+                    .toList();
+        }
+    }
+
+    // N for a file named "name.N", otherwise -1
+    private long segmentNumber(Path path) {
+        String file = path.getFileName().toString();
+        String suffix = file.startsWith(name + ".") ? file.substring(name.length() + 1) : "";
+        return !suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit) ? Long.parseLong(suffix) : -1;
+    }
+
+    // A partly written record would end every later replay at it, so it is cut off again
+    private void discardTail(long start) {
+        if (start < 0) {
+            return;
+        }
+        try {
+            Segment current = segments.getLast();
+            current.channel.truncate(start);
+            current.channel.position(start);
+        } catch (IOException e) {
+            // Replay will stop at the torn record; the events behind it are still written from the queue
+        }
+    }
+
+    /**
+     * The record at position, or null at the end of the segment or at a torn or corrupt record
+     */
+    private static Record readRecord(FileChannel channel, long position) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        if (channel.read(header, position) < 8) {
+            return null;
+        }
+        header.flip();
+        int length = header.getInt();
+        long crc = header.getInt() & 0xFFFFFFFFL;
+        if (length <= 0 || position + 8 + length > channel.size()) {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        channel.read(payload, position + 8);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.array());
+        if (checksum.getValue() != crc) {
+            return null;
+        }
+        return new Record(decode(payload.array()), position + 8 + length);
+    }
+
+    private static byte[] encode(AuditEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, event.eventId());
+            writeString(out, event.username());
+            out.writeLong(event.patientRecordId() == null ? -1 : event.patientRecordId());
+            writeString(out, event.action());
+            writeString(out, event.details());
+            writeString(out, event.actionTimestamp().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AuditEvent decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            String eventId = readString(in);
+            String username = readString(in);
+            long recordId = in.readLong();
+            String action = readString(in);
+            String details = readString(in);
+            LocalDateTime timestamp = LocalDateTime.parse(readString(in));
+            return new AuditEvent(eventId, username, recordId < 0 ? null : recordId, action, details, timestamp, true);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
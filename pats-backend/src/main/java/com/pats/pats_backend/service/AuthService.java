@@ -7,6 +7,7 @@ import com.pats.pats_backend.entity.Patient;
 import com.pats.pats_backend.entity.Psychologist;
 import com.pats.pats_backend.entity.User;
 import com.pats.pats_backend.enums.UserRole;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,6 +21,7 @@ import com.pats.pats_backend.repo.UserRepository;
 import com.pats.pats_backend.security.JwtUtil;
 
 @Service
+@Timed(value = "pats.service", histogram = true)
 public class AuthService {
 
     @Autowired
@@ -2,30 +2,49 @@ package com.pats.pats_backend.service;
 
 import com.pats.pats_backend.entity.Availability;
 import com.pats.pats_backend.repo.AvailabilityRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = "pats.service", histogram = true)
 public class AvailabilityService {
 
     @Autowired
     private AvailabilityRepository availabilityRepository;
 
+    @Autowired
+    private SlotEngine slotEngine;
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private BookingCoordinator bookingCoordinator;
+
     /**
      * FR9.1 - The system shall allow psychologists to define their availability schedule
      */
     @Transactional
     public Availability createAvailability(Availability availability) {
+        // Rejects malformed recurrence rules and exception dates before they reach the schedule
+        Recurrence.of(availability);
+        // Serialize with bookings, which check availability under the same lock
+        bookingCoordinator.lockCalendar(availability.getPsychologist().getId());
         availability.setCreatedAt(java.time.LocalDateTime.now());
         availability.setUpdatedAt(java.time.LocalDateTime.now());
-        return availabilityRepository.save(availability);
+        Availability saved = availabilityRepository.save(availability);
+        slotEngine.onAvailabilityChanged(saved);
+        calendarService.onAvailabilityChanged(saved.getPsychologist().getId(), saved.getSpecificDate());
+        return saved;
     }
 
     /**
@@ -33,21 +52,31 @@ public class AvailabilityService {
      */
     @Transactional
     public Availability updateAvailability(Long availabilityId, Availability availability) {
+        Recurrence.of(availability);
         Optional<Availability> existingOpt = availabilityRepository.findById(availabilityId);
         if (existingOpt.isEmpty()) {
             throw new IllegalArgumentException("Availability not found");
         }
 
         Availability existing = existingOpt.get();
+        bookingCoordinator.lockCalendar(existing.getPsychologist().getId());
+        // The override may move to another week, or become part of the weekly schedule
+        calendarService.onAvailabilityChanged(existing.getPsychologist().getId(), existing.getSpecificDate());
         existing.setDayOfWeek(availability.getDayOfWeek());
         existing.setStartTime(availability.getStartTime());
         existing.setEndTime(availability.getEndTime());
         existing.setSpecificDate(availability.getSpecificDate());
+        existing.setRecurrenceRule(availability.getRecurrenceRule());
+        existing.setRecurrenceStart(availability.getRecurrenceStart());
+        existing.setExceptionDates(availability.getExceptionDates());
         existing.setIsAvailable(availability.getIsAvailable());
         existing.setNotes(availability.getNotes());
         existing.setUpdatedAt(java.time.LocalDateTime.now());
 
-        return availabilityRepository.save(existing);
+        Availability saved = availabilityRepository.save(existing);
+        slotEngine.onAvailabilityChanged(saved);
+        calendarService.onAvailabilityChanged(saved.getPsychologist().getId(), saved.getSpecificDate());
+        return saved;
     }
 
     /**
@@ -55,7 +84,13 @@ public class AvailabilityService {
      */
     @Transactional
     public void deleteAvailability(Long availabilityId) {
+        Long psychologistId = availabilityRepository.findById(availabilityId).map(availability -> {
+            bookingCoordinator.lockCalendar(availability.getPsychologist().getId());
+            calendarService.onAvailabilityChanged(availability.getPsychologist().getId(), availability.getSpecificDate());
+            return availability.getPsychologist().getId();
+        }).orElse(null);
         availabilityRepository.deleteById(availabilityId);
+        slotEngine.onAvailabilityDeleted(psychologistId, availabilityId);
     }
 
     /**
@@ -91,7 +126,16 @@ public class AvailabilityService {
     }
 
     /**
-     * Check if time slot is available
+     * FR9.1 - Check a concrete time range against the expanded schedule: recurrence rules, exception dates,
+     * date overrides and blocks. Answered from SlotEngine's cached occurrence arrays.
+     */
+    @Transactional(readOnly = true)
+    public boolean isTimeSlotAvailable(Long psychologistId, LocalDateTime startTime, LocalDateTime endTime) {
+        return slotEngine.isOpen(psychologistId, startTime, endTime);
+    }
+
+    /**
+     * Check if time slot is available on a weekday, from the weekly rows only
      */
     @Transactional(readOnly = true)
     public boolean isTimeSlotAvailable(Long psychologistId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
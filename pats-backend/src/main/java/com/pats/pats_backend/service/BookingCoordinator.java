@@ -0,0 +1,30 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.repo.PsychologistRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * FR9.7 - Serializes calendar writes per psychologist.
+ * The psychologist row acts as the lock stripe: SELECT ... FOR UPDATE is held until the booking
+ * transaction commits, so a conflict check and the following insert can no longer interleave with
+ * another booking for the same psychologist, while bookings for other psychologists lock other
+ * rows and proceed in parallel. Works across backend nodes because the lock lives in the database.
+ */
+@Service
+public class BookingCoordinator {
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    /**
+     * Lock the psychologist's calendar for the rest of the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockCalendar(Long psychologistId) {
+        psychologistRepository.findByIdForUpdate(psychologistId)
+                .orElseThrow(() -> new IllegalArgumentException("Psychologist not found"));
+    }
+}
@@ -0,0 +1,275 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.CalendarDayDTO;
+import com.pats.pats_backend.dto.CalendarSessionDTO;
+import com.pats.pats_backend.dto.CalendarWeekDTO;
+import com.pats.pats_backend.dto.TimeSlotDTO;
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.Availability;
+import com.pats.pats_backend.entity.CalendarWeek;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.AvailabilityRepository;
+import com.pats.pats_backend.repo.CalendarWeekRepository;
+import com.pats.pats_backend.repo.PsychologistRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.pats.pats_backend.service.SlotEngine.fromMinutes;
+import static com.pats.pats_backend.service.SlotEngine.toMinutes;
+
+/**
+ * Calendar read model for the psychologist dashboard: one materialized document per (psychologist, ISO week)
+ * holding availability blocks, booked sessions and the free gaps between them, with an ETag over the document.
+ * Weeks are built on first read. Once a change commits, the write paths in AppointmentService and
+ * AvailabilityService rebuild the weeks it touched; a change to the recurring weekly schedule touches every
+ * week, so those weeks are dropped and rebuilt on their next read. Weeks older than max-age are rebuilt on read
+ * as a backstop for changes made outside these services.
+ */
+@Slf4j
+@Service
+public class CalendarService {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private CalendarWeekRepository calendarWeekRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Value("${calendar.weeks.max-age-minutes:60}")
+    private long maxAgeMinutes;
+
+    // Bumped on every change so a week built concurrently with a commit is served but not stored
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    private final TransactionTemplate calendarTransaction;
+
+    public CalendarService(PlatformTransactionManager transactionManager) {
+        this.calendarTransaction = new TransactionTemplate(transactionManager);
+        this.calendarTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * FR9.1/FR9.2 - Calendar week containing the given date, built on first read
+     */
+    public CalendarWeek getWeek(Long psychologistId, LocalDate date) {
+        CalendarWeek.Key key = new CalendarWeek.Key(psychologistId, weekStart(date));
+        Optional<CalendarWeek> stored = calendarWeekRepository.findById(key);
+        if (stored.isPresent() && stored.get().getBuiltAt().isAfter(LocalDateTime.now().minusMinutes(maxAgeMinutes))) {
+            return stored.get();
+        }
+        if (psychologistRepository.findById(psychologistId).isEmpty()) {
+            throw new NoSuchElementException("Psychologist not found");
+        }
+
+        long generation = generation(psychologistId).get();
+        CalendarWeek built = calendarTransaction.execute(status -> build(key));
+        if (generation(psychologistId).get() != generation) {
+            return built;
+        }
+        try {
+            calendarTransaction.executeWithoutResult(status -> {
+                if (updateIfNewer(built) == 0 && !calendarWeekRepository.existsById(key)) {
+                    calendarWeekRepository.save(built);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request stored the same week first; keep whichever build saw the later snapshot
+            calendarTransaction.executeWithoutResult(status -> updateIfNewer(built));
+        }
+        return built;
+    }
+
+    /**
+     * Whether the psychologist is the given user's own profile; calendars list patients, so only the owner reads them
+     */
+    public boolean isOwnedBy(Long psychologistId, String username) {
+        return username != null && psychologistRepository.existsByIdAndUserUsername(psychologistId, username);
+    }
+
+    /**
+     * Every ISO week overlapping the month, in order
+     */
+    public List<CalendarWeek> getMonth(Long psychologistId, YearMonth month) {
+        List<CalendarWeek> weeks = new ArrayList<>();
+        for (LocalDate start = weekStart(month.atDay(1)); !start.isAfter(month.atEndOfMonth()); start = start.plusWeeks(1)) {
+            weeks.add(getWeek(psychologistId, start));
+        }
+        return weeks;
+    }
+
+    /**
+     * Rebuild the weeks holding an appointment's current and original time once the current transaction commits
+     */
+    public void onAppointmentChanged(Appointment appointment) {
+        if (appointment.getPsychologist() == null || appointment.getAppointmentDateTime() == null) {
+            return;
+        }
+        Set<LocalDate> weeks = new LinkedHashSet<>();
+        weeks.add(weekStart(appointment.getAppointmentDateTime().toLocalDate()));
+        if (appointment.getOriginalDateTime() != null) {
+            weeks.add(weekStart(appointment.getOriginalDateTime().toLocalDate()));
+        }
+        Long psychologistId = appointment.getPsychologist().getId();
+        afterCommit(() -> weeks.forEach(week -> rebuildIfStored(psychologistId, week)));
+    }
+
+    /**
+     * Rebuild the week of a dated availability override once the current transaction commits; a recurring
+     * window (no specificDate) drops every stored week of the psychologist instead
+     */
+    public void onAvailabilityChanged(Long psychologistId, LocalDate specificDate) {
+        afterCommit(() -> {
+            if (specificDate != null) {
+                rebuildIfStored(psychologistId, weekStart(specificDate));
+                return;
+            }
+            generation(psychologistId).incrementAndGet();
+            try {
+                calendarTransaction.executeWithoutResult(status -> calendarWeekRepository.deleteByPsychologistId(psychologistId));
+            } catch (RuntimeException e) {
+                log.warn("Could not drop calendar weeks of psychologist {}", psychologistId, e);
+            }
+        });
+    }
+
+    /**
+     * Strong ETag over a set of weeks, for responses spanning several of them
+     */
+    public static String combinedEtag(List<CalendarWeek> weeks) {
+        StringBuilder etags = new StringBuilder();
+        for (CalendarWeek week : weeks) {
+            etags.append(week.getEtag()).append(',');
+        }
+        return hash(etags.toString());
+    }
+
+    static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private void rebuildIfStored(Long psychologistId, LocalDate weekStart) {
+        generation(psychologistId).incrementAndGet();
+        CalendarWeek.Key key = new CalendarWeek.Key(psychologistId, weekStart);
+        try {
+            calendarTransaction.executeWithoutResult(status -> {
+                if (calendarWeekRepository.existsById(key)) {
+                    updateIfNewer(build(key));
+                }
+            });
+        } catch (RuntimeException e) {
+            // The stored week stays as it was until max-age runs out
+            log.warn("Could not rebuild calendar week {} of psychologist {}", weekStart, psychologistId, e);
+        }
+    }
+
+    /**
+     * builtAt is taken before anything is read, so it orders builds by the snapshot they saw
+     */
+    private CalendarWeek build(CalendarWeek.Key key) {
+        LocalDateTime builtAt = LocalDateTime.now();
+        String document = JSON.writeValueAsString(buildDocument(key.getPsychologistId(), key.getWeekStart()));
+        return new CalendarWeek(key.getPsychologistId(), key.getWeekStart(), hash(document), document, builtAt);
+    }
+
+    private int updateIfNewer(CalendarWeek week) {
+        return calendarWeekRepository.updateIfNewer(week.getPsychologistId(), week.getWeekStart(), week.getEtag(),
+                week.getDocument(), week.getBuiltAt());
+    }
+
+    CalendarWeekDTO buildDocument(Long psychologistId, LocalDate weekStart) {
+        SlotEngine.PsychologistCalendar calendar = new SlotEngine.PsychologistCalendar();
+        for (Availability availability : availabilityRepository.findByPsychologistId(psychologistId)) {
+            calendar.putWindow(SlotEngine.Window.of(availability));
+        }
+        List<CalendarSessionDTO> sessions = appointmentRepository.findCalendarSessions(
+                psychologistId, weekStart.atStartOfDay(), weekStart.plusWeeks(1).atStartOfDay());
+
+        CalendarWeekDTO week = new CalendarWeekDTO(psychologistId, weekStart, new ArrayList<>());
+        for (LocalDate date = weekStart; date.isBefore(weekStart.plusWeeks(1)); date = date.plusDays(1)) {
+            LocalDate day = date;
+            List<CalendarSessionDTO> daySessions = sessions.stream()
+                    .filter(session -> session.getStartTime().toLocalDate().equals(day))
+                    .toList();
+            List<long[]> availability = calendar.expand(day, day);
+            List<long[]> booked = new ArrayList<>();
+            for (CalendarSessionDTO session : daySessions) {
+                booked.add(new long[]{toMinutes(session.getStartTime()), toMinutes(session.getEndTime())});
+            }
+            List<long[]> gaps = SlotEngine.PsychologistCalendar.subtract(availability,
+                    SlotEngine.PsychologistCalendar.merge(booked));
+            week.getDays().add(new CalendarDayDTO(day, slots(availability), new ArrayList<>(daySessions), slots(gaps)));
+        }
+        return week;
+    }
+
+    private static List<TimeSlotDTO> slots(List<long[]> intervals) {
+        List<TimeSlotDTO> slots = new ArrayList<>();
+        for (long[] interval : intervals) {
+            slots.add(new TimeSlotDTO(fromMinutes(interval[0]), fromMinutes(interval[1])));
+        }
+        return slots;
+    }
+
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private AtomicLong generation(Long psychologistId) {
+        return generations.computeIfAbsent(psychologistId, id -> new AtomicLong());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
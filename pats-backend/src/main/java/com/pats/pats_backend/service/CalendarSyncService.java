@@ -1,6 +1,7 @@
 package com.pats.pats_backend.service;
 
 import com.pats.pats_backend.entity.AppointmentHistory;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,6 +13,7 @@ import org.springframework.stereotype.Service;
  * - Microsoft Outlook Calendar
  * - Apple Calendar
  */
+@Slf4j
 @Service
 public class CalendarSyncService {
 
@@ -25,7 +27,7 @@ public class CalendarSyncService {
         // For Apple: use iCalendar format
         
         String calendarId = generateExternalCalendarId(history);
-        System.out.println("[CALENDAR SYNC] Syncing appointment to " + provider + " with ID: " + calendarId);
+        log.info("Syncing appointment to {} calendar with id {}", provider, calendarId);
         
         history.setExternalCalendarSyncId(calendarId);
         history.setExternalCalendarProvider(provider);
@@ -36,7 +38,7 @@ public class CalendarSyncService {
      */
     public void unsyncAppointmentFromExternalCalendar(AppointmentHistory history) {
         if (history.getExternalCalendarSyncId() != null && history.getExternalCalendarProvider() != null) {
-            System.out.println("[CALENDAR SYNC] Removing appointment from " + history.getExternalCalendarProvider());
+            log.info("Removing appointment from {} calendar", history.getExternalCalendarProvider());
             history.setExternalCalendarSyncId(null);
             history.setExternalCalendarProvider(null);
         }
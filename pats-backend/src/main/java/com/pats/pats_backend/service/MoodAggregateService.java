@@ -0,0 +1,184 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.MoodSummaryDTO;
+import com.pats.pats_backend.dto.MoodWindowDTO;
+import com.pats.pats_backend.entity.MoodAggregate;
+import com.pats.pats_backend.entity.MoodEntry;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.MoodAggregateRepository;
+import com.pats.pats_backend.repo.MoodEntryRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.pats.pats_backend.entity.MoodAggregate.WINDOW_DAYS;
+
+/**
+ * Per-patient rolling mood statistics for psychologist dashboards.
+ * Each check-in updates the patient's MoodAggregate row in constant time; summaries are computed from
+ * the 90-day ring in that row instead of the full mood history.
+ */
+@Service
+public class MoodAggregateService {
+
+    @Autowired
+    private MoodAggregateRepository moodAggregateRepository;
+
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    /**
+     * Fold a newly saved entry into the patient's aggregate. Patients without an aggregate row yet
+     * (history from before aggregates existed) are rebuilt from their history once.
+     */
+    @Transactional
+    public void record(MoodEntry entry) {
+        Long patientId = entry.getPatient().getId();
+        if (!moodAggregateRepository.existsById(patientId) && createIfAbsent(patientId)) {
+            // The rebuild already read the entry being recorded
+            return;
+        }
+        MoodAggregate aggregate = moodAggregateRepository.findByIdForUpdate(patientId).orElseThrow();
+        apply(aggregate, entry.getEntryTimestamp().toLocalDate(), entry.getEmotionalRating());
+    }
+
+    /**
+     * A missing aggregate is rebuilt and stored once, so later summaries read the row only
+     */
+    @Transactional
+    public MoodSummaryDTO getSummary(Long patientId) {
+        Optional<MoodAggregate> aggregate = moodAggregateRepository.findById(patientId);
+        if (aggregate.isEmpty()) {
+            createIfAbsent(patientId);
+            aggregate = moodAggregateRepository.findById(patientId);
+        }
+        return toSummary(aggregate.orElseThrow(), LocalDate.now());
+    }
+
+    /**
+     * Creators are serialized on the patient row, and the aggregate is checked again with a locking read so
+     * a row committed meanwhile is seen. Returns false if another transaction created it first.
+     */
+    private boolean createIfAbsent(Long patientId) {
+        Patient patient = patientRepository.findByIdForUpdate(patientId).orElseThrow();
+        if (moodAggregateRepository.findByIdForUpdate(patientId).isPresent()) {
+            return false;
+        }
+        moodAggregateRepository.save(rebuild(patient));
+        return true;
+    }
+
+    /**
+     * Streaks and totals need every check-in day, but ratings only for the days the ring still holds, so full
+     * entries are read for the last WINDOW_DAYS only
+     */
+    MoodAggregate rebuild(Patient patient) {
+        MoodAggregate aggregate = new MoodAggregate();
+        aggregate.setPatientId(patient.getId());
+        List<LocalDate> days = moodEntryRepository.findEntryDatesByPatient(patient);
+        if (days.isEmpty()) {
+            return aggregate;
+        }
+        LocalDate lastDay = days.get(days.size() - 1);
+        Map<LocalDate, Integer> ratings = new HashMap<>();
+        for (MoodEntry entry : moodEntryRepository.findByPatientInRange(patient,
+                lastDay.minusDays(WINDOW_DAYS - 1).atStartOfDay(), lastDay.plusDays(1).atStartOfDay())) {
+            ratings.put(entry.getEntryTimestamp().toLocalDate(), entry.getEmotionalRating());
+        }
+        for (LocalDate day : days) {
+            // Days older than the window get 0, which apply() clears again as the ring moves past them
+            apply(aggregate, day, ratings.getOrDefault(day, 0));
+        }
+        return aggregate;
+    }
+
+    /**
+     * O(1) update: at most WINDOW_DAYS ring slots are cleared when days were skipped
+     */
+    static void apply(MoodAggregate aggregate, LocalDate date, int rating) {
+        byte[] ring = aggregate.getDailyRatings();
+        long day = date.toEpochDay();
+        LocalDate lastEntryDate = aggregate.getLastEntryDate();
+
+        if (lastEntryDate == null || day > lastEntryDate.toEpochDay()) {
+            long last = lastEntryDate == null ? day - WINDOW_DAYS : lastEntryDate.toEpochDay();
+            for (long skipped = Math.max(last + 1, day - WINDOW_DAYS + 1); skipped < day; skipped++) {
+                ring[slot(skipped)] = 0;
+            }
+            boolean consecutive = lastEntryDate != null && day == last + 1;
+            aggregate.setCurrentStreak(consecutive ? aggregate.getCurrentStreak() + 1 : 1);
+            aggregate.setLongestStreak(Math.max(aggregate.getLongestStreak(), aggregate.getCurrentStreak()));
+            aggregate.setLastEntryDate(date);
+            aggregate.setLastRating(rating);
+            ring[slot(day)] = (byte) rating;
+        } else if (day > lastEntryDate.toEpochDay() - WINDOW_DAYS) {
+            // Late entry inside the window; streaks are only tracked forward
+            ring[slot(day)] = (byte) rating;
+        }
+        aggregate.setTotalEntries(aggregate.getTotalEntries() + 1);
+    }
+
+    static MoodSummaryDTO toSummary(MoodAggregate aggregate, LocalDate today) {
+        LocalDate lastEntryDate = aggregate.getLastEntryDate();
+        boolean streakActive = lastEntryDate != null && !lastEntryDate.isBefore(today.minusDays(1));
+        return new MoodSummaryDTO(
+                aggregate.getPatientId(),
+                aggregate.getLastRating(),
+                lastEntryDate,
+                streakActive ? aggregate.getCurrentStreak() : 0,
+                aggregate.getLongestStreak(),
+                aggregate.getTotalEntries(),
+                window(aggregate, today, 7),
+                window(aggregate, today, 30),
+                window(aggregate, today, WINDOW_DAYS));
+    }
+
+    private static MoodWindowDTO window(MoodAggregate aggregate, LocalDate today, int days) {
+        MoodWindowDTO window = new MoodWindowDTO(days, 0, null, null, null, null);
+        if (aggregate.getLastEntryDate() == null) {
+            return window;
+        }
+        long last = aggregate.getLastEntryDate().toEpochDay();
+        long from = Math.max(today.toEpochDay() - days + 1, last - WINDOW_DAYS + 1);
+        long to = Math.min(today.toEpochDay(), last);
+
+        int count = 0;
+        long sum = 0;
+        long sumOfSquares = 0;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (long day = from; day <= to; day++) {
+            int rating = aggregate.getDailyRatings()[slot(day)];
+            if (rating > 0) {
+                count++;
+                sum += rating;
+                sumOfSquares += (long) rating * rating;
+                min = Math.min(min, rating);
+                max = Math.max(max, rating);
+            }
+        }
+        if (count > 0) {
+            double mean = (double) sum / count;
+            window.setCheckins(count);
+            window.setMean(mean);
+            window.setVariance((double) sumOfSquares / count - mean * mean);
+            window.setMin(min);
+            window.setMax(max);
+        }
+        return window;
+    }
+
+    private static int slot(long epochDay) {
+        return (int) Math.floorMod(epochDay, (long) WINDOW_DAYS);
+    }
+}
@@ -1,13 +1,16 @@
 package com.pats.pats_backend.service;
 
-import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.PatientContact;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class MoodEntryReminderService {
     @Autowired
@@ -15,13 +18,15 @@ public class MoodEntryReminderService {
 
     // Runs every day at 8:00 PM
     @Scheduled(cron = "0 0 20 * * *")
+    @Transactional(readOnly = true)
     public void sendDailyCheckinReminders() {
         LocalDate today = LocalDate.now();
-        List<Patient> missingPatients = moodEntryService.getPatientsMissingCheckin(today);
-        for (Patient patient : missingPatients) {
-            // Placeholder for notification logic
-            System.out.println("Reminder: Patient " + patient.getId() + " has not completed their daily check-in.");
-            // TODO: Integrate with email/SMS notification service
+        try (Stream<PatientContact> missingPatients = moodEntryService.getPatientsMissingCheckin(today)) {
+            missingPatients.forEach(patient -> {
+                // Placeholder for notification logic
+                log.info("Reminder: patient {} has not completed their daily check-in", patient.getPatientId());
+                // TODO: Integrate with email/SMS notification service
+            });
         }
     }
 }
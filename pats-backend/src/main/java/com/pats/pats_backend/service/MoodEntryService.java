@@ -1,38 +1,75 @@
 package com.pats.pats_backend.service;
 
+import com.pats.pats_backend.dto.MoodHistoryItemDTO;
+import com.pats.pats_backend.dto.MoodHistoryPageDTO;
 import com.pats.pats_backend.entity.MoodEntry;
 import com.pats.pats_backend.entity.Patient;
 import com.pats.pats_backend.repo.MoodEntryRepository;
+import com.pats.pats_backend.repo.PatientContact;
 import com.pats.pats_backend.repo.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.Base64;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "pats.service", histogram = true)
 public class MoodEntryService {
+    public static final int MAX_HISTORY_PAGE_SIZE = 200;
+    // Stand-ins for open from/to bounds, inside the DATETIME range of every supported database
+    private static final LocalDateTime HISTORY_LOWER_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_UPPER_BOUND = LocalDateTime.of(9999, 1, 1, 0, 0);
+
     @Autowired
     private MoodEntryRepository moodEntryRepository;
     @Autowired
     private PatientRepository patientRepository;
+    @Autowired
+    private MoodAggregateService moodAggregateService;
 
+    /**
+     * One check-in per day, enforced by the unique (patient_id, entry_date) constraint
+     */
+    @Transactional
     public MoodEntry createMoodEntry(Long patientId, Integer rating, String notes) {
         Patient patient = patientRepository.findById(patientId).orElseThrow();
-        LocalDate today = LocalDate.now();
-        Optional<MoodEntry> existing = moodEntryRepository.findByPatientAndDate(patient, today);
-        if (existing.isPresent()) {
-            throw new IllegalStateException("Check-in already submitted for today.");
-        }
         MoodEntry entry = new MoodEntry();
         entry.setPatient(patient);
         entry.setEmotionalRating(rating);
         entry.setNotes(notes);
         entry.setEntryTimestamp(LocalDateTime.now());
-        return moodEntryRepository.save(entry);
+        MoodEntry saved;
+        try {
+            saved = moodEntryRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, MoodEntry.UNIQUE_PATIENT_DATE)) {
+                throw e;
+            }
+            throw new IllegalStateException("Check-in already submitted for today.");
+        }
+        moodAggregateService.record(saved);
+        return saved;
+    }
+
+    /**
+     * Drivers report the constraint name in their own case, and MySQL prefixes it with the table
+     */
+    private static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraintName);
     }
 
     public List<MoodEntry> getPatientHistory(Long patientId) {
@@ -40,15 +77,57 @@ public class MoodEntryService {
         return moodEntryRepository.findByPatient(patient);
     }
 
+    /**
+     * Keyset-paginated history, newest first, optionally bounded to [from, to).
+     * The cursor encodes the (entryTimestamp, id) of the last item returned, so every page costs the same
+     * regardless of how much history precedes it.
+     */
+    public MoodHistoryPageDTO getPatientHistoryPage(Long patientId, String cursor, LocalDateTime from,
+                                                    LocalDateTime to, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        LocalDateTime beforeTimestamp = to != null ? to : HISTORY_UPPER_BOUND;
+        long beforeId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            LocalDateTime cursorTimestamp;
+            long cursorId;
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+                cursorTimestamp = LocalDateTime.parse(position[0]);
+                cursorId = Long.parseLong(position[1]);
+            } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if (cursorTimestamp.isBefore(beforeTimestamp)) {
+                beforeTimestamp = cursorTimestamp;
+                beforeId = cursorId;
+            }
+        }
+
+        List<MoodHistoryItemDTO> rows = moodEntryRepository.findHistoryPage(patientId,
+                from != null ? from : HISTORY_LOWER_BOUND, beforeTimestamp, beforeId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<MoodHistoryItemDTO> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1)) : null;
+        return new MoodHistoryPageDTO(items, nextCursor, hasMore);
+    }
+
     public List<MoodEntry> getAllEntriesForDate(LocalDate date) {
         return moodEntryRepository.findAllByDate(date);
     }
 
-    public List<Patient> getPatientsMissingCheckin(LocalDate date) {
-        List<Patient> allPatients = patientRepository.findAll();
-        return allPatients.stream()
-                .filter(p -> moodEntryRepository.findByPatientAndDate(p, date).isEmpty())
-                .toList();
+    private static String encodeCursor(MoodHistoryItemDTO last) {
+        String position = last.getEntryTimestamp() + "," + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Patients who have not checked in on the given date, streamed from a single query.
+     * Callers must close the stream and consume it inside a read-only transaction.
+     */
+    public Stream<PatientContact> getPatientsMissingCheckin(LocalDate date) {
+        return patientRepository.streamMissingCheckin(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
     }
 }
 
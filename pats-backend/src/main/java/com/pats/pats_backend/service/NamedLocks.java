@@ -0,0 +1,74 @@
+package com.pats.pats_backend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide mutual exclusion for maintenance jobs. On MySQL a named lock is held on a connection of its own for
+ * the whole job (the job's own transactions use other connections); elsewhere (H2 in tests, a single node) the job
+ * just runs.
+ */
+@Slf4j
+@Service
+public class NamedLocks {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate lockTransaction;
+
+    public NamedLocks(PlatformTransactionManager transactionManager) {
+        this.lockTransaction = new TransactionTemplate(transactionManager);
+        this.lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Run a job only if no other node is running it; returns false when the job was skipped
+     */
+    public boolean runExclusively(String lockName, Runnable job) {
+        return callExclusively(lockName, () -> {
+            job.run();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Run a job only if no other node is running it; empty when the job was skipped
+     */
+    public <T> Optional<T> callExclusively(String lockName, Supplier<T> job) {
+        if (!isMySql()) {
+            return Optional.ofNullable(job.get());
+        }
+        return lockTransaction.execute(status -> {
+            Object acquired = entityManager.createNativeQuery("SELECT GET_LOCK(:name, 0)")
+                    .setParameter("name", lockName)
+                    .getSingleResult();
+            if (!(acquired instanceof Number number) || number.intValue() != 1) {
+                log.info("Skipping {}: another node holds the lock", lockName);
+                return Optional.empty();
+            }
+            try {
+                return Optional.ofNullable(job.get());
+            } finally {
+                entityManager.createNativeQuery("SELECT RELEASE_LOCK(:name)")
+                        .setParameter("name", lockName)
+                        .getSingleResult();
+            }
+        });
+    }
+
+    private boolean isMySql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+    }
+}
@@ -0,0 +1,25 @@
+package com.pats.pats_backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Outbound email/SMS channel. This is the only place that performs notification I/O;
+ * callers on request paths go through the outbox in NotificationService instead.
+ */
+@Slf4j
+@Service
+public class NotificationChannel {
+
+    /**
+     * Deliver one message. The idempotency key is stable across retries so the provider can
+     * discard a duplicate when an earlier attempt succeeded but was not acknowledged.
+     */
+    public void deliver(String recipientEmail, String subject, String message, String idempotencyKey) {
+        // Send email (to be integrated with actual email service)
+        log.info("Sending notification to {} [{}]: {}", recipientEmail, idempotencyKey, subject);
+        if (log.isDebugEnabled()) {
+            log.debug("Notification body [{}]: {}", idempotencyKey, message);
+        }
+    }
+}
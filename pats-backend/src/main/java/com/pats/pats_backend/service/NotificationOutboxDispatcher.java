@@ -0,0 +1,145 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.NotificationOutbox;
+import com.pats.pats_backend.enums.OutboxStatus;
+import com.pats.pats_backend.repo.NotificationOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains notification_outbox in batches on a bounded worker pool.
+ * Each batch is claimed with FOR UPDATE SKIP LOCKED and leased for lease-seconds, so several backend
+ * nodes can dispatch at once without sending an entry twice.
+ * Failed deliveries are retried with exponential backoff until max-attempts, then parked as FAILED.
+ */
+@Slf4j
+@Service
+public class NotificationOutboxDispatcher {
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private NotificationChannel notificationChannel;
+
+    @Value("${notification.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${notification.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${notification.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    private final TransactionTemplate claimTransaction;
+    private final ThreadPoolExecutor workers;
+
+    public NotificationOutboxDispatcher(PlatformTransactionManager transactionManager,
+            @Value("${notification.outbox.workers:4}") int workerCount) {
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(workerCount * 16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-outbox-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Deliver due outbox entries until a partial batch shows the backlog is drained, or until a
+     * batch records no outcome at all (the database is failing, so wait for the next poll)
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:1000}")
+    public void dispatchPending() {
+        List<NotificationOutbox> batch;
+        int recorded;
+        do {
+            batch = claimDue();
+            List<Future<?>> deliveries = new ArrayList<>(batch.size());
+            for (NotificationOutbox entry : batch) {
+                deliveries.add(workers.submit(() -> deliver(entry)));
+            }
+            recorded = 0;
+            for (Future<?> delivery : deliveries) {
+                try {
+                    delivery.get();
+                    recorded++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // The entry stays leased and is retried once the lease runs out
+                    log.error("Outbox delivery bookkeeping failed", e.getCause());
+                }
+            }
+        } while (batch.size() == batchSize && recorded > 0);
+    }
+
+    private List<NotificationOutbox> claimDue() {
+        List<NotificationOutbox> batch = claimTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Long> ids = notificationOutboxRepository.claimDueIds(now, batchSize);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            notificationOutboxRepository.lease(ids, now.plusSeconds(leaseSeconds));
+            return notificationOutboxRepository.findByIdIn(ids);
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private void deliver(NotificationOutbox entry) {
+        try {
+            notificationChannel.deliver(entry.getRecipientEmail(), entry.getSubject(), entry.getMessage(),
+                    entry.getIdempotencyKey());
+        } catch (Exception e) {
+            int attempt = entry.getAttempts() + 1;
+            boolean giveUp = attempt >= maxAttempts;
+            notificationOutboxRepository.markAttemptFailed(
+                    entry.getId(),
+                    giveUp ? OutboxStatus.FAILED : OutboxStatus.PENDING,
+                    LocalDateTime.now().plusSeconds(backoffSeconds(attempt)),
+                    e.getMessage());
+            return;
+        }
+        // Outside the try: a delivered entry must not be recorded as a failed attempt
+        notificationOutboxRepository.markSent(entry.getId(), LocalDateTime.now());
+    }
+
+    long backoffSeconds(int attempt) {
+        long delay = backoffBaseSeconds << Math.min(attempt - 1, 20);
+        return Math.min(delay, backoffMaxSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
@@ -2,8 +2,14 @@ package com.pats.pats_backend.service;
 
 import com.pats.pats_backend.entity.Appointment;
 import com.pats.pats_backend.entity.AppointmentReminder;
+import com.pats.pats_backend.entity.NotificationOutbox;
+import com.pats.pats_backend.enums.OutboxStatus;
+import com.pats.pats_backend.repo.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 /**
  * Service for handling notifications and reminders
  * Handles email/SMS sending for:
@@ -12,75 +18,100 @@ import org.springframework.stereotype.Service;
  * - Cancellation notifications
  * - Rescheduling notifications
  * - External calendar sync
+ *
+ * Confirmation, cancellation and reschedule notices are written to the notification_outbox
+ * table in the caller's transaction, so booking latency never includes channel I/O.
  */
 @Service
 public class NotificationService {
 
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private NotificationChannel notificationChannel;
+
     /**
      * FR9.3 - Send appointment reminder
+     * Called from the reminder job, outside any request, so it delivers directly.
      */
     public void sendReminderNotification(AppointmentReminder reminder) {
-        // Implementation would integrate with email/SMS service
-        // Example: EmailService.send(reminder.getRecipientEmail(), ...)
         String subject = "Appointment Reminder - " + reminder.getHoursBefore() + " hours before";
         String message = buildReminderMessage(reminder);
-        
-        // Send email (to be integrated with actual email service)
-        System.out.println("[NOTIFICATION] Sending reminder to: " + reminder.getRecipientEmail());
-        System.out.println("Subject: " + subject);
-        System.out.println("Message: " + message);
+
+        notificationChannel.deliver(reminder.getRecipientEmail(), subject, message, "REMINDER:" + reminder.getId());
     }
 
     /**
      * FR9.5 - Send cancellation notification
+     * Queued in the caller's transaction and delivered by NotificationOutboxDispatcher after commit.
      */
     public void sendCancellationNotification(Appointment appointment) {
         String patientEmail = appointment.getPatient().getUser().getEmail();
         String psychologistEmail = appointment.getPsychologist().getUser().getEmail();
-        
+
         String subject = "Appointment Cancelled";
         String message = buildCancellationMessage(appointment);
-        
-        // Send to patient
-        System.out.println("[NOTIFICATION] Sending cancellation to patient: " + patientEmail);
-        System.out.println("Subject: " + subject);
-        System.out.println("Message: " + message);
-        
-        // Send to psychologist
-        System.out.println("[NOTIFICATION] Sending cancellation to psychologist: " + psychologistEmail);
-        System.out.println("Subject: " + subject);
+
+        // Send to patient and psychologist
+        enqueue("CANCELLATION_NOTICE", appointment, patientEmail, subject, message, "");
+        enqueue("CANCELLATION_NOTICE", appointment, psychologistEmail, subject, message, "");
     }
 
     /**
      * Send appointment confirmation
+     * Queued in the caller's transaction and delivered by NotificationOutboxDispatcher after commit.
      */
     public void sendAppointmentConfirmation(Appointment appointment) {
         String patientEmail = appointment.getPatient().getUser().getEmail();
         String subject = "Appointment Scheduled - Confirmation";
         String message = buildConfirmationMessage(appointment);
-        
-        System.out.println("[NOTIFICATION] Sending confirmation to: " + patientEmail);
-        System.out.println("Subject: " + subject);
-        System.out.println("Message: " + message);
+
+        enqueue("APPOINTMENT_CONFIRMATION", appointment, patientEmail, subject, message, "");
     }
 
     /**
      * FR9.4 - Send reschedule notification
+     * Queued in the caller's transaction and delivered by NotificationOutboxDispatcher after commit.
      */
     public void sendRescheduleNotification(Appointment appointment) {
         String patientEmail = appointment.getPatient().getUser().getEmail();
         String psychologistEmail = appointment.getPsychologist().getUser().getEmail();
-        
+
         String subject = "Appointment Rescheduled";
         String message = buildRescheduleMessage(appointment);
-        
-        // Send to patient
-        System.out.println("[NOTIFICATION] Sending reschedule notice to patient: " + patientEmail);
-        System.out.println("Subject: " + subject);
-        System.out.println("Message: " + message);
-        
-        // Send to psychologist
-        System.out.println("[NOTIFICATION] Sending reschedule notice to psychologist: " + psychologistEmail);
+
+        // A reschedule can happen several times, even back to an earlier time, so each one is numbered
+        enqueue("RESCHEDULE_NOTICE", appointment, patientEmail, subject, message,
+                nextNoticeNumber("RESCHEDULE_NOTICE", appointment, patientEmail));
+        enqueue("RESCHEDULE_NOTICE", appointment, psychologistEmail, subject, message,
+                nextNoticeNumber("RESCHEDULE_NOTICE", appointment, psychologistEmail));
+    }
+
+    private String nextNoticeNumber(String type, Appointment appointment, String recipientEmail) {
+        long queued = notificationOutboxRepository.countByNotificationTypeAndAppointmentIdAndRecipientEmail(
+                type, appointment.getId(), recipientEmail);
+        return String.valueOf(queued + 1);
+    }
+
+    private void enqueue(String type, Appointment appointment, String recipientEmail,
+                         String subject, String message, String version) {
+        String idempotencyKey = type + ":" + appointment.getId() + ":" + recipientEmail
+                + (version.isEmpty() ? "" : ":" + version);
+        if (notificationOutboxRepository.existsByIdempotencyKey(idempotencyKey)) {
+            return;
+        }
+
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setIdempotencyKey(idempotencyKey);
+        entry.setNotificationType(type);
+        entry.setAppointmentId(appointment.getId());
+        entry.setRecipientEmail(recipientEmail);
+        entry.setSubject(subject);
+        entry.setMessage(message);
+        entry.setStatus(OutboxStatus.PENDING);
+        entry.setNextAttemptAt(LocalDateTime.now());
+        notificationOutboxRepository.save(entry);
     }
 
     private String buildReminderMessage(AppointmentReminder reminder) {
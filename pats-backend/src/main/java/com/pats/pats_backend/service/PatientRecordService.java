@@ -3,8 +3,11 @@ package com.pats.pats_backend.service;
 import com.pats.pats_backend.entity.*;
 import com.pats.pats_backend.repo.*;
 import com.pats.pats_backend.dto.*;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -15,15 +18,16 @@ import java.util.Optional;
 /**
  * Service for managing Electronic Medical Records (EMR).
  */
+@Slf4j
 @Service
+@Timed(value = "pats.service", histogram = true)
 @RequiredArgsConstructor
 public class PatientRecordService {
 
     private final PatientRecordRepository patientRecordRepository;
     private final EmergencyContactRepository emergencyContactRepository;
-    private final AuditLogRepository auditLogRepository;
     private final PatientRepository patientRepository;
-    private final UserRepository userRepository;
+    private final AuditTrailWriter auditTrailWriter;
 
     // ==================== FR17.1: Patient Record Management ====================
 
@@ -32,7 +36,7 @@ public class PatientRecordService {
      * Identity data (name, email) is automatically pulled from the Patient entity.
      */
     @Transactional
-    public PatientRecord createPatientRecord(Long patientId, PatientRecordRequest request) {
+    public PatientRecordDTO createPatientRecord(Long patientId, PatientRecordRequest request) {
         // 1. Fetch the existing patient to serve as the source of truth for identity
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
@@ -57,24 +61,24 @@ public class PatientRecordService {
         record.setIsActive(true);
 
         PatientRecord saved = patientRecordRepository.save(record);
-        logAudit(saved, "CREATED", "Electronic Medical Record initialized");
+        logAudit(saved.getId(), "CREATED", "Electronic Medical Record initialized");
 
-        return saved;
+        return PatientRecordDTO.from(saved);
     }
 
     /**
      * Retrieves a patient record by its ID.
      */
-    public PatientRecord getPatientRecord(Long id) {
-        PatientRecord record = patientRecordRepository.findById(id)
+    public PatientRecordDTO getPatientRecord(Long id) {
+        PatientRecordDTO record = patientRecordRepository.findDtoById(id)
                 .orElseThrow(() -> new RuntimeException("Patient record not found"));
 
-        logAudit(record, "VIEWED", "Medical record accessed");
+        logAudit(record.getId(), "VIEWED", "Medical record accessed");
         return record;
     }
 
-    public Optional<PatientRecord> getPatientRecordByPatientId(Long patientId) {
-        return patientRecordRepository.findByPatientId(patientId);
+    public Optional<PatientRecordDTO> getPatientRecordByPatientId(Long patientId) {
+        return patientRecordRepository.findDtoByPatientId(patientId);
     }
 
     /**
@@ -82,7 +86,7 @@ public class PatientRecordService {
      * Core identity data remains untouched to maintain data integrity.
      */
     @Transactional
-    public PatientRecord updatePatientRecord(Long id, PatientRecordRequest request) {
+    public PatientRecordDTO updatePatientRecord(Long id, PatientRecordRequest request) {
         PatientRecord record = patientRecordRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Patient record not found"));
 
@@ -96,9 +100,9 @@ public class PatientRecordService {
         record.setPostalCode(request.getPostalCode());
 
         PatientRecord saved = patientRecordRepository.save(record);
-        logAudit(saved, "UPDATED", "Medical record information updated");
+        logAudit(saved.getId(), "UPDATED", "Medical record information updated");
 
-        return saved;
+        return PatientRecordDTO.from(saved);
     }
 
     // ==================== FR17.6: Emergency Contacts ====================
@@ -107,7 +111,7 @@ public class PatientRecordService {
      * Adds an emergency contact to a patient's profile.
      */
     @Transactional
-    public EmergencyContact addEmergencyContact(Long patientId, EmergencyContactRequest request) {
+    public EmergencyContactDTO addEmergencyContact(Long patientId, EmergencyContactRequest request) {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
@@ -126,17 +130,17 @@ public class PatientRecordService {
         EmergencyContact saved = emergencyContactRepository.save(contact);
 
         // Log action if a record exists for audit purposes
-        patientRecordRepository.findByPatientId(patientId).ifPresent(record -> logAudit(record, "CREATED",
+        patientRecordRepository.findByPatientId(patientId).ifPresent(record -> logAudit(record.getId(), "CREATED",
                 "Emergency contact added: " + contact.getFirstName() + " " + contact.getLastName()));
 
-        return saved;
+        return EmergencyContactDTO.from(saved);
     }
 
     /**
      * Returns all emergency contacts for a patient, ordered by priority.
      */
-    public List<EmergencyContact> getEmergencyContacts(Long patientId) {
-        return emergencyContactRepository.findByPatientIdOrderByPriorityAsc(patientId);
+    public List<EmergencyContactDTO> getEmergencyContacts(Long patientId) {
+        return emergencyContactRepository.findDtosByPatientId(patientId);
     }
 
     /**
@@ -150,38 +154,22 @@ public class PatientRecordService {
         Long patientId = contact.getPatient().getId();
         emergencyContactRepository.delete(contact);
 
-        patientRecordRepository.findByPatientId(patientId).ifPresent(record -> logAudit(record, "DELETED",
+        patientRecordRepository.findByPatientId(patientId).ifPresent(record -> logAudit(record.getId(), "DELETED",
                 "Emergency contact removed: " + contact.getFirstName() + " " + contact.getLastName()));
     }
 
     // ==================== FR17.9: Audit Trail ====================
 
-    /**
-     * Retrieves the history of actions performed on a specific patient record.
-     */
-    public List<AuditLog> getAuditTrail(Long patientRecordId) {
-        return auditLogRepository.findByPatientRecordIdOrderByActionTimestampDesc(patientRecordId);
-    }
-
     /**
      * Internal helper to log system actions for compliance and security.
+     * Only the acting username is captured here; AuditTrailWriter resolves and writes the entry in the background.
      */
-    private void logAudit(PatientRecord record, String action, String details) {
-        try {
-            String username = SecurityContextHolder.getContext().getAuthentication().getName();
-            userRepository.findByUsername(username).ifPresent(user -> {
-                AuditLog log = new AuditLog();
-                log.setUser(user);
-                log.setUserEmail(user.getEmail());
-                log.setPatientRecord(record);
-                log.setAction(action);
-                log.setActionDetails(details);
-                log.setActionTimestamp(LocalDateTime.now());
-                auditLogRepository.save(log);
-            });
-        } catch (Exception e) {
-            // Logging failure should not interrupt the main business transaction
-            System.err.println("Audit logging failed: " + e.getMessage());
+    private void logAudit(Long recordId, String action, String details) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            log.warn("Audit event {} on record {} has no authenticated user", action, recordId);
+            return;
         }
+        auditTrailWriter.record(authentication.getName(), recordId, action, details);
     }
 }
\ No newline at end of file
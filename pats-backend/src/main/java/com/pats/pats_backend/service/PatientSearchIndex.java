@@ -0,0 +1,422 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.PatientSearchPageDTO;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.PatientContact;
+import com.pats.pats_backend.repo.PatientRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Trigram index over patient first name, last name, email local part and phone number.
+ * Text is accent-folded and lower-cased, then split into tokens. Each token is padded as "  token " so the
+ * index holds both its interior trigrams (infix search) and its leading trigrams (prefix search for 1-2
+ * character terms). A search first counts the postings of each query trigram, up to max-candidates + 1. When
+ * the rarest one has at most patients.search.max-candidates postings, its patients are the candidates, so a
+ * selective query reads a bounded slice of the index whatever its size. Otherwise the candidates are the
+ * patients holding every query trigram, intersected in SQL. Either way every candidate is verified against
+ * patient_search_documents and token-prefix matches rank first, so each match is found on some page.
+ */
+@Slf4j
+@Service
+public class PatientSearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TERMS = 5;
+    private static final int GRAM_ROWS_PER_INSERT = 100;
+    private static final String REBUILD_LOCK = "pats.patient_search.rebuild";
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private record GramPostings(String gram, long postings) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private NamedLocks namedLocks;
+
+    @Value("${patients.search.rebuild-chunk-size:500}")
+    private int rebuildChunkSize;
+
+    @Value("${patients.search.max-candidates:5000}")
+    private int maxCandidates;
+
+    @Value("${patients.search.update-attempts:3}")
+    private int updateAttempts;
+
+    private final TransactionTemplate indexTransaction;
+
+    public PatientSearchIndex(PlatformTransactionManager transactionManager) {
+        this.indexTransaction = new TransactionTemplate(transactionManager);
+        this.indexTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Ranked page of patients matching every whitespace-separated term of the query
+     */
+    public PatientSearchPageDTO search(String query, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<String> terms = tokens(query).stream().distinct().limit(MAX_TERMS).toList();
+        if (terms.isEmpty()) {
+            return new PatientSearchPageDTO(List.of(), page, size, false);
+        }
+
+        Set<String> grams = new LinkedHashSet<>();
+        terms.forEach(term -> grams.addAll(queryGrams(term)));
+        GramPostings rarest = rarestGram(grams);
+        if (rarest.postings() == 0) {
+            return new PatientSearchPageDTO(List.of(), page, size, false);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT d.patient_id, (0");
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(" + CASE WHEN d.search_text LIKE :prefix").append(i).append(" THEN 1 ELSE 0 END");
+        }
+        boolean selective = rarest.postings() <= maxCandidates;
+        sql.append(") AS prefix_hits FROM (").append(selective
+                        ? "SELECT g.patient_id FROM patient_search_grams g WHERE g.gram = :gram"
+                        : "SELECT g.patient_id FROM patient_search_grams g WHERE g.gram IN (:grams) "
+                                + "GROUP BY g.patient_id HAVING COUNT(*) = :gramCount")
+                .append(") c JOIN patient_search_documents d ON d.patient_id = c.patient_id WHERE 1 = 1");
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(" AND d.search_text LIKE :match").append(i);
+        }
+        sql.append(" ORDER BY prefix_hits DESC, d.patient_id LIMIT :limit OFFSET :offset");
+
+        Query nativeQuery = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            nativeQuery.setParameter("prefix" + i, "% " + term + "%");
+            nativeQuery.setParameter("match" + i, term.length() < 3 ? "% " + term + "%" : "%" + term + "%");
+        }
+        if (selective) {
+            nativeQuery.setParameter("gram", rarest.gram());
+        } else {
+            nativeQuery.setParameter("grams", grams);
+            nativeQuery.setParameter("gramCount", grams.size());
+        }
+        nativeQuery.setParameter("limit", size + 1);
+        nativeQuery.setParameter("offset", (long) page * size);
+
+        List<Long> ids = new ArrayList<>();
+        for (Object row : nativeQuery.getResultList()) {
+            ids.add(((Number) ((Object[]) row)[0]).longValue());
+        }
+        boolean hasMore = ids.size() > size;
+        if (hasMore) {
+            ids = ids.subList(0, size);
+        }
+        Map<Long, PatientContact> contacts = patientRepository.findContactsByIdIn(ids).stream()
+                .collect(Collectors.toMap(PatientContact::getPatientId, Function.identity()));
+        List<PatientContact> items = ids.stream().map(contacts::get).filter(contact -> contact != null).toList();
+        return new PatientSearchPageDTO(items, page, size, hasMore);
+    }
+
+    /**
+     * The query gram with the fewest postings, counted in one statement. Counting stops at max-candidates + 1
+     * postings per gram: past that the search intersects all grams anyway, and counting common grams in full
+     * would cost more than the search itself. Zero postings when some gram has none, since then nothing can
+     * match.
+     */
+    private GramPostings rarestGram(Set<String> grams) {
+        List<String> ordered = new ArrayList<>(grams);
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < ordered.size(); i++) {
+            sql.append(i == 0 ? "" : " UNION ALL ").append("SELECT ").append(i)
+                    .append(", COUNT(*) FROM (SELECT 1 FROM patient_search_grams WHERE gram = :gram").append(i)
+                    .append(" LIMIT :probe) c").append(i);
+        }
+        Query counts = entityManager.createNativeQuery(sql.toString()).setParameter("probe", maxCandidates + 1);
+        for (int i = 0; i < ordered.size(); i++) {
+            counts.setParameter("gram" + i, ordered.get(i));
+        }
+        GramPostings rarest = null;
+        for (Object row : counts.getResultList()) {
+            Object[] columns = (Object[]) row;
+            long postings = ((Number) columns[1]).longValue();
+            if (rarest == null || postings < rarest.postings()) {
+                rarest = new GramPostings(ordered.get(((Number) columns[0]).intValue()), postings);
+            }
+            if (postings == 0) {
+                break;
+            }
+        }
+        return rarest;
+    }
+
+    /**
+     * Reindex a patient once the current transaction commits
+     */
+    public void onPatientChanged(Long patientId) {
+        afterCommit(() -> updateIndex("patient " + patientId, status -> reindex(patientId)));
+    }
+
+    /**
+     * Reindex the patient owning a user account (email changes) once the current transaction commits
+     */
+    public void onUserChanged(Long userId) {
+        afterCommit(() -> updateIndex("user " + userId, status ->
+                patientRepository.findByUserId(userId).ifPresent(patient -> reindex(patient.getId()))));
+    }
+
+    public void onPatientDeleted(Long patientId) {
+        afterCommit(() -> updateIndex("patient " + patientId, status -> remove(List.of(patientId))));
+    }
+
+    /**
+     * Rebuild the whole index in keyset-ordered chunks, one transaction per chunk; returns patients indexed.
+     * The old entries stay searchable meanwhile: each chunk locks its patient rows (so it runs one after a
+     * concurrent reindex of the same patient, never alongside it) and replaces their entries, and entries of
+     * patients that no longer exist are dropped at the end. Only one node rebuilds at a time.
+     */
+    public int rebuild() {
+        return namedLocks.callExclusively(REBUILD_LOCK, this::rebuildInChunks)
+                .orElseThrow(() -> new IllegalStateException("A search index rebuild is already running"));
+    }
+
+    /**
+     * Build the index on first start after upgrading, when patients exist but nothing is indexed yet. Every node
+     * runs this on startup; the first to take the rebuild lock builds the index and the others skip it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        namedLocks.runExclusively(REBUILD_LOCK, () -> {
+            Number documents = (Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM patient_search_documents")
+                    .getSingleResult();
+            if (documents.longValue() == 0 && patientRepository.count() > 0) {
+                rebuildInChunks();
+            }
+        });
+    }
+
+    private int rebuildInChunks() {
+        int indexed = 0;
+        long afterId = 0;
+        while (true) {
+            long cursor = afterId;
+            List<Patient> chunk = indexTransaction.execute(status -> {
+                List<Patient> patients = entityManager.createQuery(
+                                "SELECT p FROM Patient p JOIN FETCH p.user WHERE p.id > :afterId ORDER BY p.id", Patient.class)
+                        .setParameter("afterId", cursor)
+                        .setMaxResults(rebuildChunkSize)
+                        .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                        .getResultList();
+                if (!patients.isEmpty()) {
+                    remove(patients.stream().map(Patient::getId).toList());
+                    patients.forEach(this::write);
+                }
+                return patients;
+            });
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            indexed += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        indexTransaction.executeWithoutResult(status -> {
+            searchTableUpdate("DELETE FROM patient_search_grams WHERE patient_id NOT IN (SELECT id FROM patients)")
+                    .executeUpdate();
+            searchTableUpdate("DELETE FROM patient_search_documents WHERE patient_id NOT IN (SELECT id FROM patients)")
+                    .executeUpdate();
+        });
+        return indexed;
+    }
+
+    /**
+     * Index updates run after the change has committed, so a failure must not reach the caller. A failed
+     * update (typically a deadlock on the gram table) is retried; one that keeps failing is logged and
+     * repaired by the next change to the patient or by a rebuild.
+     */
+    private void updateIndex(String subject, Consumer<TransactionStatus> update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                indexTransaction.executeWithoutResult(update);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= updateAttempts) {
+                    log.error("Search index update for {} failed after {} attempts", subject, attempt, e);
+                    return;
+                }
+                log.warn("Search index update for {} failed, retrying: {}", subject, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The patient row is locked first, so concurrent reindexes of one patient run one after the other
+     * instead of racing on its documents and grams
+     */
+    private void reindex(Long patientId) {
+        Patient patient = entityManager.find(Patient.class, patientId, LockModeType.PESSIMISTIC_WRITE);
+        remove(List.of(patientId));
+        if (patient != null) {
+            write(patient);
+        }
+    }
+
+    private void remove(List<Long> patientIds) {
+        searchTableUpdate("DELETE FROM patient_search_grams WHERE patient_id IN (:patientIds)")
+                .setParameter("patientIds", patientIds).executeUpdate();
+        searchTableUpdate("DELETE FROM patient_search_documents WHERE patient_id IN (:patientIds)")
+                .setParameter("patientIds", patientIds).executeUpdate();
+    }
+
+    private void write(Patient patient) {
+        List<String> tokens = new ArrayList<>();
+        tokens.addAll(tokens(patient.getFirstName()));
+        tokens.addAll(tokens(patient.getLastName()));
+        if (patient.getUser() != null) {
+            tokens.addAll(tokens(localPart(patient.getUser().getEmail())));
+        }
+        if (patient.getPhoneNumber() != null) {
+            String digits = patient.getPhoneNumber().replaceAll("[^0-9]", "");
+            if (!digits.isEmpty()) {
+                tokens.add(digits);
+            }
+        }
+        String searchText = " " + String.join(" ", new LinkedHashSet<>(tokens)) + " ";
+        if (searchText.length() > 1024) {
+            searchText = searchText.substring(0, 1023) + " ";
+        }
+
+        searchTableUpdate("INSERT INTO patient_search_documents (patient_id, search_text) VALUES (:patientId, :text)")
+                .setParameter("patientId", patient.getId())
+                .setParameter("text", searchText)
+                .executeUpdate();
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            grams.addAll(indexGrams(token));
+        }
+        List<String> pending = new ArrayList<>(grams);
+        for (int from = 0; from < pending.size(); from += GRAM_ROWS_PER_INSERT) {
+            insertGrams(patient.getId(), pending.subList(from, Math.min(from + GRAM_ROWS_PER_INSERT, pending.size())));
+        }
+    }
+
+    /**
+     * One multi-row INSERT per chunk instead of a statement per gram
+     */
+    private void insertGrams(Long patientId, List<String> grams) {
+        StringBuilder sql = new StringBuilder("INSERT INTO patient_search_grams (gram, patient_id) VALUES ");
+        for (int i = 0; i < grams.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(:gram").append(i).append(", :patientId)");
+        }
+        Query insert = searchTableUpdate(sql.toString()).setParameter("patientId", patientId);
+        for (int i = 0; i < grams.size(); i++) {
+            insert.setParameter("gram" + i, grams.get(i));
+        }
+        insert.executeUpdate();
+    }
+
+    /**
+     * Native statements declare the search tables they touch; otherwise Hibernate invalidates every
+     * second-level cache region after each one
+     */
+    private Query searchTableUpdate(String sql) {
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("patient_search_documents")
+                .addSynchronizedQuerySpace("patient_search_grams");
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Email domains (gmail, com, ...) are shared by most patients and would only add postings no query can use
+     * to narrow its candidates, so only the part before the @ is indexed
+     */
+    static String localPart(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        return at < 0 ? email : email.substring(0, at);
+    }
+
+    static Set<String> indexGrams(String token) {
+        String padded = "  " + token + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Terms of three or more characters match anywhere in a token; shorter terms match token prefixes
+     */
+    static Set<String> queryGrams(String term) {
+        if (term.length() >= 3) {
+            Set<String> grams = new LinkedHashSet<>();
+            for (int i = 0; i + 3 <= term.length(); i++) {
+                grams.add(term.substring(i, i + 3));
+            }
+            return grams;
+        }
+        Set<String> grams = new LinkedHashSet<>();
+        String padded = "  " + term;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * JPA listener on Patient and User that keeps PatientSearchIndex in sync, registered in META-INF/orm.xml.
+ * Instantiated by Hibernate through Spring's bean container; the index is looked up lazily because
+ * listeners are created while the EntityManagerFactory it depends on is still being built.
+ */
+public class PatientSearchIndexListener {
+
+    @Autowired
+    private ObjectProvider<PatientSearchIndex> patientSearchIndex;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        PatientSearchIndex index = patientSearchIndex == null ? null : patientSearchIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        if (entity instanceof Patient patient) {
+            index.onPatientChanged(patient.getId());
+        } else if (entity instanceof User user) {
+            index.onUserChanged(user.getId());
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        PatientSearchIndex index = patientSearchIndex == null ? null : patientSearchIndex.getIfAvailable();
+        if (index != null && entity instanceof Patient patient) {
+            index.onPatientDeleted(patient.getId());
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package com.pats.pats_backend.service;
 
+import com.pats.pats_backend.dto.PatientDTO;
+import com.pats.pats_backend.dto.PatientSearchPageDTO;
+import com.pats.pats_backend.dto.PatientSummary;
+import com.pats.pats_backend.dto.PatientSummaryPageDTO;
 import com.pats.pats_backend.entity.Patient;
 import com.pats.pats_backend.entity.User;
 import com.pats.pats_backend.enums.UserRole;
 import com.pats.pats_backend.repo.PatientRepository;
 import com.pats.pats_backend.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service for managing patients - allows psychologist to add new patients
@@ -22,19 +34,98 @@ public class PatientService {
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PatientSearchIndex patientSearchIndex;
+    private final EntityManager entityManager;
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Sortable listing columns; each has a (column, id) index on patients matching the keyset ORDER BY
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "lastName", "p.lastName",
+        "firstName", "p.firstName",
+        "registeredAt", "p.registeredAt",
+        "id", "p.id"
+    );
+
+    private static final String SUMMARY_SELECT =
+        "SELECT new com.pats.pats_backend.dto.PatientSummary(p.id, p.firstName, p.lastName, p.dateOfBirth, " +
+        "p.gender, p.phoneNumber, p.city, u.email, p.registeredAt) FROM Patient p JOIN p.user u ";
 
     /**
-     * Get all patients for listing/selection
+     * Feed every patient summary, ordered by name, to the consumer without materializing the list.
+     * Rows are streamed from the database with a fetch size inside one read-only transaction.
      */
-    public List<Patient> getAllPatients() {
-        return patientRepository.findAll();
+    @Transactional(readOnly = true)
+    public void forEachPatientSummary(Consumer<PatientSummary> consumer) {
+        try (Stream<PatientSummary> summaries = patientRepository.streamAllSummaries()) {
+            summaries.forEach(consumer);
+        }
+    }
+
+    /**
+     * Keyset-paginated patient summaries sorted by lastName, firstName, registeredAt or id
+     */
+    @Transactional(readOnly = true)
+    public PatientSummaryPageDTO getPatientPage(String sort, String direction, String cursor, int size) {
+        String column = SORT_COLUMNS.get(sort);
+        if (column == null) {
+            throw new IllegalArgumentException("sort must be one of " + SORT_COLUMNS.keySet());
+        }
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        if (!descending && !"asc".equalsIgnoreCase(direction)) {
+            throw new IllegalArgumentException("direction must be asc or desc");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        String order = descending ? "DESC" : "ASC";
+        String after = descending ? "<" : ">";
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT);
+        Object cursorValue = null;
+        Long cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String position = decodeCursor(cursor);
+            int separator = position.lastIndexOf('|');
+            try {
+                cursorId = Long.parseLong(position.substring(separator + 1));
+                cursorValue = parseSortValue(sort, position.substring(0, Math.max(separator, 0)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            if ("id".equals(sort)) {
+                jpql.append("WHERE p.id ").append(after).append(" :cursorId ");
+            } else {
+                jpql.append("WHERE (").append(column).append(' ').append(after).append(" :cursorValue OR (")
+                    .append(column).append(" = :cursorValue AND p.id ").append(after).append(" :cursorId)) ");
+            }
+        }
+        if ("id".equals(sort)) {
+            jpql.append("ORDER BY p.id ").append(order);
+        } else {
+            jpql.append("ORDER BY ").append(column).append(' ').append(order).append(", p.id ").append(order);
+        }
+
+        TypedQuery<PatientSummary> query = entityManager.createQuery(jpql.toString(), PatientSummary.class)
+            .setMaxResults(size + 1);
+        if (cursorId != null) {
+            query.setParameter("cursorId", cursorId);
+            if (!"id".equals(sort)) {
+                query.setParameter("cursorValue", cursorValue);
+            }
+        }
+        List<PatientSummary> rows = query.getResultList();
+        boolean hasMore = rows.size() > size;
+        List<PatientSummary> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? encodeCursor(sort, items.get(items.size() - 1)) : null;
+        return new PatientSummaryPageDTO(items, nextCursor, hasMore);
     }
 
     /**
      * Get patient by ID
      */
-    public Patient getPatientById(Long id) {
-        return patientRepository.findById(id)
+    public PatientDTO getPatientById(Long id) {
+        return patientRepository.findDtoById(id)
             .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
     }
 
@@ -43,7 +134,7 @@ public class PatientService {
      * This is what psychologist will use to add patients manually
      */
     @Transactional
-    public Patient createPatient(Patient patientData, String username, String email, String password) {
+    public PatientDTO createPatient(Patient patientData, String username, String email, String password) {
         // Check if username/email already exists
         if (userRepository.existsByUsername(username)) {
             throw new RuntimeException("Username already exists: " + username);
@@ -63,14 +154,14 @@ public class PatientService {
 
         // Create Patient profile
         patientData.setUser(user);
-        return patientRepository.save(patientData);
+        return PatientDTO.from(patientRepository.save(patientData));
     }
 
     /**
      * Update patient information
      */
     @Transactional
-    public Patient updatePatient(Long id, Patient updatedData) {
+    public PatientDTO updatePatient(Long id, Patient updatedData) {
         Patient existing = patientRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Patient not found with id: " + id));
 
@@ -88,19 +179,47 @@ public class PatientService {
         existing.setInsuranceProvider(updatedData.getInsuranceProvider());
         existing.setInsurancePolicyNumber(updatedData.getInsurancePolicyNumber());
 
-        return patientRepository.save(existing);
+        return PatientDTO.from(patientRepository.save(existing));
+    }
+
+    private static Object parseSortValue(String sort, String value) {
+        return switch (sort) {
+            case "registeredAt" -> LocalDateTime.parse(value);
+            case "id" -> null;
+            default -> value;
+        };
+    }
+
+    private static String encodeCursor(String sort, PatientSummary last) {
+        Object value = switch (sort) {
+            case "lastName" -> last.getLastName();
+            case "firstName" -> last.getFirstName();
+            case "registeredAt" -> last.getRegisteredAt();
+            default -> "";
+        };
+        String position = value + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Search patients by name, email or phone (prefix, infix and accent-insensitive), ranked and paginated
+     */
+    public PatientSearchPageDTO searchPatients(String searchTerm, int page, int size) {
+        return patientSearchIndex.search(searchTerm, page, size);
     }
 
     /**
-     * Search patients by name
+     * Rebuild the patient search index from scratch
      */
-    public List<Patient> searchPatients(String searchTerm) {
-        // You can implement custom search in repository
-        return patientRepository.findAll().stream()
-            .filter(p -> 
-                p.getFirstName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                p.getLastName().toLowerCase().contains(searchTerm.toLowerCase())
-            )
-            .toList();
+    public int rebuildSearchIndex() {
+        return patientSearchIndex.rebuild();
     }
 }
\ No newline at end of file
@@ -0,0 +1,254 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Availability;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Recurrence of a weekly-schedule Availability row: an RFC 5545 RRULE subset anchored at recurrenceStart
+ * (DTSTART) minus its exception dates (EXDATE). Supported parts are FREQ=DAILY|WEEKLY, INTERVAL, BYDAY with plain
+ * weekdays (WEEKLY only), UNTIL as a date (the date part of a date-time) and COUNT; weeks start on Monday.
+ * COUNT is resolved to the date of its last occurrence when parsed, so occursOn is constant time.
+ */
+final class Recurrence {
+
+    static final int MAX_COUNT = 1000;
+
+    enum Frequency { DAILY, WEEKLY }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final Set<DayOfWeek> days;
+    private final LocalDate start;
+    private final LocalDate until;
+    private final Set<LocalDate> exceptions;
+
+    private Recurrence(Frequency frequency, int interval, Set<DayOfWeek> days, LocalDate start, LocalDate until,
+                       Set<LocalDate> exceptions) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.days = days;
+        this.start = start;
+        this.until = until;
+        this.exceptions = exceptions;
+    }
+
+    /**
+     * Recurrence of a row of the weekly schedule; null for a dated override or a row with neither rule nor dayOfWeek.
+     * A row without a rule repeats every week on its dayOfWeek.
+     */
+    static Recurrence of(Availability availability) {
+        if (availability.getSpecificDate() != null) {
+            return null;
+        }
+        Set<LocalDate> exceptions = parseDates(availability.getExceptionDates());
+        String rule = availability.getRecurrenceRule();
+        if (rule == null || rule.isBlank()) {
+            if (availability.getDayOfWeek() == null) {
+                return null;
+            }
+            return new Recurrence(Frequency.WEEKLY, 1, EnumSet.of(availability.getDayOfWeek()),
+                    availability.getRecurrenceStart(), null, exceptions);
+        }
+        return parse(rule, availability.getDayOfWeek(), availability.getRecurrenceStart(), exceptions);
+    }
+
+    /**
+     * A WEEKLY rule without BYDAY repeats on the weekday of start, or on defaultDay when there is no start
+     */
+    static Recurrence parse(String rule, DayOfWeek defaultDay, LocalDate start, Set<LocalDate> exceptions) {
+        String body = rule.trim();
+        if (body.regionMatches(true, 0, "RRULE:", 0, 6)) {
+            body = body.substring(6);
+        }
+
+        Frequency frequency = null;
+        int interval = 1;
+        Integer count = null;
+        LocalDate until = null;
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : body.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int separator = part.indexOf('=');
+            if (separator < 0) {
+                throw invalid(rule, "expected NAME=VALUE but got " + part);
+            }
+            String name = part.substring(0, separator).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(separator + 1).trim().toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "FREQ" -> frequency = switch (value) {
+                    case "DAILY" -> Frequency.DAILY;
+                    case "WEEKLY" -> Frequency.WEEKLY;
+                    default -> throw invalid(rule, "FREQ must be DAILY or WEEKLY");
+                };
+                case "INTERVAL" -> interval = positive(rule, name, value);
+                case "COUNT" -> count = positive(rule, name, value);
+                case "UNTIL" -> until = parseUntil(rule, value);
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        days.add(weekday(rule, day.trim()));
+                    }
+                }
+                case "WKST" -> {
+                    if (!value.equals("MO")) {
+                        throw invalid(rule, "only WKST=MO is supported");
+                    }
+                }
+                default -> throw invalid(rule, name + " is not supported");
+            }
+        }
+
+        if (frequency == null) {
+            throw invalid(rule, "FREQ is required");
+        }
+        if (until != null && count != null) {
+            throw invalid(rule, "UNTIL and COUNT cannot both be set");
+        }
+        if (count != null && count > MAX_COUNT) {
+            throw invalid(rule, "COUNT is limited to " + MAX_COUNT);
+        }
+        if (start == null && (interval > 1 || count != null)) {
+            throw invalid(rule, "INTERVAL and COUNT need a recurrenceStart to count from");
+        }
+        if (frequency == Frequency.DAILY) {
+            if (!days.isEmpty()) {
+                throw invalid(rule, "BYDAY is only supported with FREQ=WEEKLY");
+            }
+            days = EnumSet.allOf(DayOfWeek.class);
+        } else if (days.isEmpty()) {
+            DayOfWeek day = start != null ? start.getDayOfWeek() : defaultDay;
+            if (day == null) {
+                throw invalid(rule, "BYDAY is required without a dayOfWeek or recurrenceStart");
+            }
+            days.add(day);
+        }
+
+        Recurrence recurrence = new Recurrence(frequency, interval, days, start, until, exceptions);
+        return count == null ? recurrence
+                : new Recurrence(frequency, interval, days, start, recurrence.nth(count), exceptions);
+    }
+
+    /**
+     * Weekdays the rule can fall on
+     */
+    Set<DayOfWeek> days() {
+        return days;
+    }
+
+    boolean occursOn(LocalDate date) {
+        if ((start != null && date.isBefore(start)) || (until != null && date.isAfter(until))
+                || !days.contains(date.getDayOfWeek()) || exceptions.contains(date)) {
+            return false;
+        }
+        if (interval == 1) {
+            return true;
+        }
+        long periods = frequency == Frequency.DAILY
+                ? ChronoUnit.DAYS.between(start, date)
+                : ChronoUnit.WEEKS.between(monday(start), monday(date));
+        return periods % interval == 0;
+    }
+
+    /**
+     * Occurrences from from through to, in order
+     */
+    List<LocalDate> occurrences(LocalDate from, LocalDate to) {
+        List<LocalDate> occurrences = new ArrayList<>();
+        LocalDate first = start != null && start.isAfter(from) ? start : from;
+        LocalDate last = until != null && until.isBefore(to) ? until : to;
+        for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+            if (occursOn(date)) {
+                occurrences.add(date);
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Date of the count-th occurrence, exception dates included as RFC 5545 counts them
+     */
+    private LocalDate nth(int count) {
+        if (frequency == Frequency.DAILY) {
+            return start.plusDays((long) (count - 1) * interval);
+        }
+        int seen = 0;
+        for (LocalDate week = monday(start); ; week = week.plusWeeks(interval)) {
+            for (DayOfWeek day : days) {
+                LocalDate date = week.plusDays(day.ordinal());
+                if (!date.isBefore(start) && ++seen == count) {
+                    return date;
+                }
+            }
+        }
+    }
+
+    private static LocalDate monday(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    static Set<LocalDate> parseDates(String dates) {
+        Set<LocalDate> parsed = new HashSet<>();
+        if (dates == null) {
+            return parsed;
+        }
+        for (String date : dates.split(",")) {
+            if (date.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(LocalDate.parse(date.trim()));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid exception date: " + date.trim());
+            }
+        }
+        return parsed;
+    }
+
+    private static LocalDate parseUntil(String rule, String value) {
+        try {
+            return value.contains("-")
+                    ? LocalDate.parse(value.substring(0, Math.min(10, value.length())))
+                    : LocalDate.parse(value.substring(0, Math.min(8, value.length())), DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            throw invalid(rule, "UNTIL must be a date such as 20301231");
+        }
+    }
+
+    private static int positive(String rule, String name, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw invalid(rule, name + " must be a positive number");
+    }
+
+    private static DayOfWeek weekday(String rule, String day) {
+        for (DayOfWeek candidate : DayOfWeek.values()) {
+            if (candidate.name().startsWith(day) && day.length() == 2) {
+                return candidate;
+            }
+        }
+        throw invalid(rule, "BYDAY takes MO, TU, WE, TH, FR, SA or SU");
+    }
+
+    private static IllegalArgumentException invalid(String rule, String reason) {
+        return new IllegalArgumentException("Invalid recurrence rule '" + rule + "': " + reason);
+    }
+}
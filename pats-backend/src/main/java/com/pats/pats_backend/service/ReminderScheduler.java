@@ -0,0 +1,148 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.AppointmentReminder;
+import com.pats.pats_backend.enums.ReminderStatus;
+import com.pats.pats_backend.repo.AppointmentReminderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * FR9.3 - Fires appointment reminders from an in-process timing wheel.
+ * The wheel holds every PENDING reminder due within the horizon; the horizon is reloaded from the
+ * appointment_reminders table periodically, so the table is the durable journal rather than something
+ * polled on every tick. Changes made by AppointmentReminderService are applied after their transaction commits.
+ */
+@Slf4j
+@Service
+public class ReminderScheduler {
+
+    @Autowired
+    private AppointmentReminderRepository appointmentReminderRepository;
+
+    @Autowired
+    private ReminderSweeper reminderSweeper;
+
+    @Value("${reminders.wheel.horizon-hours:48}")
+    private long horizonHours;
+
+    private final TimingWheel wheel;
+    private volatile LocalDateTime horizonEnd = LocalDateTime.MIN;
+    private volatile Thread worker;
+
+    public ReminderScheduler(@Value("${reminders.wheel.tick-ms:1}") long tickMs,
+                             @Value("${reminders.wheel.size:64}") int wheelSize) {
+        this.wheel = new TimingWheel(tickMs, wheelSize);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        loadHorizon();
+        if (worker == null) {
+            worker = new Thread(this::run, "reminder-wheel");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+    }
+
+    /**
+     * Load every PENDING reminder due before the next horizon end into the wheel.
+     * Runs well inside the horizon so the wheel never runs dry between reloads.
+     */
+    @Scheduled(initialDelayString = "${reminders.wheel.reload-interval-ms:3600000}",
+            fixedDelayString = "${reminders.wheel.reload-interval-ms:3600000}")
+    public void loadHorizon() {
+        LocalDateTime end = LocalDateTime.now().plusHours(horizonHours);
+        for (AppointmentReminder reminder :
+                appointmentReminderRepository.findByStatusAndReminderTimeBefore(ReminderStatus.PENDING, end)) {
+            wheel.schedule(reminder.getId(), toEpochMillis(reminder.getReminderTime()));
+        }
+        horizonEnd = end;
+    }
+
+    /**
+     * Add or move a reminder once the surrounding transaction commits.
+     * Reminders beyond the horizon are left to the next reload.
+     */
+    public void track(AppointmentReminder reminder) {
+        Long id = reminder.getId();
+        LocalDateTime reminderTime = reminder.getReminderTime();
+        boolean pending = reminder.getStatus() == ReminderStatus.PENDING;
+        afterCommit(() -> {
+            if (pending && reminderTime.isBefore(horizonEnd)) {
+                wheel.schedule(id, toEpochMillis(reminderTime));
+            } else {
+                wheel.cancel(id);
+            }
+        });
+    }
+
+    /**
+     * Remove reminders once the surrounding transaction commits
+     */
+    public void untrack(Collection<Long> reminderIds) {
+        List<Long> ids = List.copyOf(reminderIds);
+        afterCommit(() -> ids.forEach(wheel::cancel));
+    }
+
+    public boolean isScheduled(Long reminderId) {
+        return wheel.contains(reminderId);
+    }
+
+    public int getScheduledCount() {
+        return wheel.size();
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<Long> due = wheel.poll(1000);
+                if (!due.isEmpty()) {
+                    // Anything not sent stays PENDING and is picked up by the catch-up sweep
+                    reminderSweeper.sendDue(due);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Reminder wheel dispatch failed", e);
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
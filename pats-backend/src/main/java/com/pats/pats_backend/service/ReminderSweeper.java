@@ -0,0 +1,160 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.AppointmentReminder;
+import com.pats.pats_backend.enums.ReminderStatus;
+import com.pats.pats_backend.repo.AppointmentReminderRepository;
+import com.pats.pats_backend.repo.FetchPlan;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FR9.3 - Sends due appointment reminders.
+ * ReminderScheduler fires reminders on time through sendDue; the periodic sweep is the catch-up path
+ * for reminders that were created on another node or missed while this one was down.
+ * Reminders are claimed in keyset-paginated chunks with FOR UPDATE SKIP LOCKED, so several backend
+ * nodes can sweep concurrently without sending a reminder twice. Each chunk loads its appointment,
+ * patient and psychologist graph in one fetch-join query and commits in its own transaction.
+ */
+@Slf4j
+@Service
+public class ReminderSweeper implements MeterBinder {
+
+    @Autowired
+    private AppointmentReminderRepository appointmentReminderRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Value("${reminders.sweep.chunk-size:100}")
+    private int chunkSize;
+
+    private final TransactionTemplate chunkTransaction;
+
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastSweepMillis;
+
+    public ReminderSweeper(PlatformTransactionManager transactionManager) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Send every reminder due now; returns the number sent
+     */
+    @Scheduled(initialDelayString = "${reminders.sweep.initial-delay-ms:10000}",
+            fixedDelayString = "${reminders.sweep.interval-ms:600000}")
+    public int sweep() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long afterId = 0;
+        int sentThisSweep = 0;
+
+        while (true) {
+            long cursor = afterId;
+            ChunkResult chunk = chunkTransaction.execute(status -> processChunk(now, cursor));
+            if (chunk == null || chunk.claimed == 0) {
+                break;
+            }
+            sentThisSweep += chunk.sent;
+            afterId = chunk.lastId;
+            if (chunk.claimed < chunkSize) {
+                break;
+            }
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - started, 1);
+        sweeps.incrementAndGet();
+        lastSweepMillis = elapsedNanos / 1_000_000;
+        return sentThisSweep;
+    }
+
+    /**
+     * Send the given reminders if they are still pending and due; returns the number sent.
+     * Reminders that were moved, deleted or already sent elsewhere are left alone.
+     */
+    public int sendDue(Collection<Long> reminderIds) {
+        if (reminderIds.isEmpty()) {
+            return 0;
+        }
+        Integer sentNow = chunkTransaction.execute(status -> {
+            List<Long> ids = appointmentReminderRepository.claimDueRemindersByIdIn(LocalDateTime.now(), reminderIds);
+            return ids.isEmpty() ? 0 : send(ids);
+        });
+        return sentNow == null ? 0 : sentNow;
+    }
+
+    private ChunkResult processChunk(LocalDateTime now, long afterId) {
+        List<Long> ids = appointmentReminderRepository.claimDueReminderIds(now, afterId, chunkSize);
+        if (ids.isEmpty()) {
+            return new ChunkResult(0, 0, afterId);
+        }
+        return new ChunkResult(ids.size(), send(ids), ids.get(ids.size() - 1));
+    }
+
+    private int send(List<Long> ids) {
+        claimed.addAndGet(ids.size());
+
+        int sentInBatch = 0;
+        for (AppointmentReminder reminder : appointmentReminderRepository.findByIdIn(ids, FetchPlan.DETAIL)) {
+            try {
+                notificationService.sendReminderNotification(reminder);
+                reminder.setStatus(ReminderStatus.SENT);
+                reminder.setSentAt(LocalDateTime.now());
+                sentInBatch++;
+            } catch (Exception e) {
+                // Leave it PENDING for the next sweep and continue with the rest of the chunk
+                failed.incrementAndGet();
+                log.warn("Reminder {} failed: {}", reminder.getId(), e.getMessage());
+            }
+        }
+        sent.addAndGet(sentInBatch);
+        return sentInBatch;
+    }
+
+    /**
+     * Publishes the sweep counters as pats.reminders.* (reminders sent by the timing wheel are included)
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pats.reminders.sweeps", sweeps, AtomicLong::get).register(registry);
+        FunctionCounter.builder("pats.reminders.claimed", claimed, AtomicLong::get).register(registry);
+        FunctionCounter.builder("pats.reminders.sent", sent, AtomicLong::get).register(registry);
+        FunctionCounter.builder("pats.reminders.failed", failed, AtomicLong::get)
+                .description("Reminder sends that failed and were left PENDING for retry")
+                .register(registry);
+        TimeGauge.builder("pats.reminders.last.sweep.duration", this, TimeUnit.MILLISECONDS,
+                        sweeper -> sweeper.lastSweepMillis)
+                .register(registry);
+    }
+
+    private static final class ChunkResult {
+        final int claimed;
+        final int sent;
+        final long lastId;
+
+        ChunkResult(int claimed, int sent, long lastId) {
+            this.claimed = claimed;
+            this.sent = sent;
+            this.lastId = lastId;
+        }
+    }
+}
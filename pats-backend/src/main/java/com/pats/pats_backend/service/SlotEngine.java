@@ -0,0 +1,721 @@
+package com.pats.pats_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pats.pats_backend.dto.TimeSlotDTO;
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.Availability;
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.AvailabilityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * In-memory slot engine for FR9.2.
+ * Keeps one calendar per psychologist: recurring availability windows (see Recurrence), an interval tree of
+ * specificDate overrides and an interval tree of booked appointments. A calendar is loaded
+ * from the database on first use and afterwards kept in sync by the write paths in
+ * AppointmentService and AvailabilityService once their transactions commit.
+ * At most MAX_CACHED_CALENDARS calendars are kept, least recently used evicted first, and each is reloaded
+ * CALENDAR_TTL after it was loaded so changes committed on other nodes show up. Appointments are loaded
+ * from yesterday on and extended further back only when a query reaches earlier.
+ * Open time is expanded lazily into sorted occurrence arrays covering a rolling window of
+ * occurrenceWindowDays from today; queries inside it are answered from the arrays, queries
+ * beyond it expand the rules for just the days asked for.
+ * Point checks go through per-day occupancy bitsets, one bit per SLOT_MINUTES cell, holding which cells are
+ * wholly open and which overlap a booking; a range on cell boundaries is answered by masking a few words.
+ */
+@Service
+public class SlotEngine {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private static final int MAX_CACHED_CALENDARS = 2000;
+
+    private static final Duration CALENDAR_TTL = Duration.ofMinutes(5);
+
+    private static final int GENERATION_STRIPES = 1024;
+
+    static final int SLOT_MINUTES = 5;
+
+    public enum Occupancy { FREE, OUTSIDE_AVAILABILITY, BOOKED }
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Value("${availability.occurrences.window-days:120}")
+    private int occurrenceWindowDays = 120;
+
+    private final Cache<Long, PsychologistCalendar> calendars = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_CALENDARS)
+            .expireAfterWrite(CALENDAR_TTL)
+            .build();
+
+    // Bumped on every change so a calendar loaded concurrently with a commit is not cached stale. Psychologists
+    // share stripes, so a bump can at worst make another psychologist's concurrent load skip the cache.
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    /**
+     * FR9.2 - Free slots of the given length between from and to
+     */
+    public List<TimeSlotDTO> findFreeSlots(Long psychologistId, LocalDateTime from, LocalDateTime to, int durationMinutes) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Slot duration must be positive");
+        }
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+
+        PsychologistCalendar calendar = calendarFor(psychologistId);
+        synchronized (calendar) {
+            loadBookingsFrom(psychologistId, calendar, toMinutes(from));
+            return calendar.freeSlots(toMinutes(from), toMinutes(to), durationMinutes, LocalDate.now(), occurrenceWindowDays);
+        }
+    }
+
+    /**
+     * FR9.1 - Whether availability covers the whole of [start, end), date overrides and blocks included;
+     * booked appointments are not considered
+     */
+    public boolean isOpen(Long psychologistId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            return false;
+        }
+        PsychologistCalendar calendar = calendarFor(psychologistId);
+        synchronized (calendar) {
+            return calendar.isOpen(toMinutes(start), toMinutes(end), LocalDate.now(), occurrenceWindowDays);
+        }
+    }
+
+    /**
+     * FR9.7 - Whether [start, start + durationMinutes) can be booked: outside availability when the psychologist
+     * keeps a schedule that does not cover it, booked when it overlaps an appointment other than ignoredAppointmentId.
+     * Changes committed on other nodes may be missing for up to CALENDAR_TTL, so callers treat the answer as a
+     * hint and confirm it inside their own transaction, see isOpenInDatabase.
+     */
+    public Occupancy occupancy(Long psychologistId, LocalDateTime start, int durationMinutes, Long ignoredAppointmentId) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("Slot duration must be positive");
+        }
+        long from = toMinutes(start);
+        PsychologistCalendar calendar = calendarFor(psychologistId);
+        synchronized (calendar) {
+            loadBookingsFrom(psychologistId, calendar, from);
+            return calendar.occupancy(from, from + durationMinutes, ignoredAppointmentId, LocalDate.now(), occurrenceWindowDays);
+        }
+    }
+
+    /**
+     * FR9.1 - Whether availability as currently stored allows [start, start + durationMinutes), as occupancy
+     * decides it: always for a psychologist without a schedule. Reads the availability rows instead of the cached
+     * calendar, for callers that hold the psychologist's calendar lock and need an answer no other node can change.
+     */
+    public boolean isOpenInDatabase(Long psychologistId, LocalDateTime start, int durationMinutes) {
+        PsychologistCalendar calendar = new PsychologistCalendar();
+        for (Availability availability : availabilityRepository.findByPsychologistId(psychologistId)) {
+            calendar.putWindow(Window.of(availability));
+        }
+        long from = toMinutes(start);
+        // A window of no days expands the rules for just the days asked for
+        return !calendar.isScheduled() || calendar.isOpen(from, from + durationMinutes, LocalDate.now(), 0);
+    }
+
+    /**
+     * Apply a booked, rescheduled or cancelled appointment once the surrounding transaction commits
+     */
+    public void onAppointmentChanged(Appointment appointment) {
+        if (appointment.getId() == null || appointment.getPsychologist() == null) {
+            return;
+        }
+        Long psychologistId = appointment.getPsychologist().getId();
+        Long appointmentId = appointment.getId();
+        boolean cancelled = appointment.getStatus() == AppointmentStatus.CANCELLED;
+        long start = toMinutes(appointment.getAppointmentDateTime());
+        long end = start + durationOf(appointment);
+
+        afterCommit(() -> apply(psychologistId, calendar -> {
+            calendar.removeAppointment(appointmentId);
+            if (!cancelled) {
+                calendar.putAppointment(appointmentId, start, end);
+            }
+        }));
+    }
+
+    /**
+     * Apply a created or updated availability row once the surrounding transaction commits
+     */
+    public void onAvailabilityChanged(Availability availability) {
+        if (availability.getId() == null || availability.getPsychologist() == null) {
+            return;
+        }
+        Long psychologistId = availability.getPsychologist().getId();
+        Window window = Window.of(availability);
+
+        afterCommit(() -> apply(psychologistId, calendar -> calendar.putWindow(window)));
+    }
+
+    /**
+     * Drop a deleted availability row once the surrounding transaction commits. When the owner is unknown
+     * (the row was already gone) every calendar holding the window is evicted instead.
+     */
+    public void onAvailabilityDeleted(Long psychologistId, Long availabilityId) {
+        afterCommit(() -> {
+            if (psychologistId != null) {
+                apply(psychologistId, calendar -> calendar.removeWindow(availabilityId));
+                return;
+            }
+            for (int stripe = 0; stripe < GENERATION_STRIPES; stripe++) {
+                generations.incrementAndGet(stripe);
+            }
+            calendars.asMap().forEach((id, calendar) -> {
+                synchronized (calendar) {
+                    if (calendar.hasWindow(availabilityId)) {
+                        calendars.invalidate(id);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Forget the cached calendar; the next query reloads it from the database
+     */
+    public void invalidate(Long psychologistId) {
+        generations.incrementAndGet(stripe(psychologistId));
+        calendars.invalidate(psychologistId);
+    }
+
+    private PsychologistCalendar calendarFor(Long psychologistId) {
+        PsychologistCalendar cached = calendars.getIfPresent(psychologistId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generations.get(stripe(psychologistId));
+        PsychologistCalendar loaded = load(psychologistId);
+        if (generations.get(stripe(psychologistId)) == generation) {
+            PsychologistCalendar raced = calendars.asMap().putIfAbsent(psychologistId, loaded);
+            return raced != null ? raced : loaded;
+        }
+        return loaded;
+    }
+
+    private PsychologistCalendar load(Long psychologistId) {
+        PsychologistCalendar calendar = new PsychologistCalendar();
+        for (Availability availability : availabilityRepository.findByPsychologistId(psychologistId)) {
+            calendar.putWindow(Window.of(availability));
+        }
+        // Appointments are shorter than a day, so starting a day early covers any that run into today
+        long bookedFrom = toMinutes(LocalDate.now().atStartOfDay()) - MINUTES_PER_DAY;
+        putBookings(calendar, appointmentRepository.findByPsychologistIdAndAppointmentDateTimeGreaterThanEqual(
+                psychologistId, fromMinutes(bookedFrom)));
+        calendar.bookedFrom = bookedFrom;
+        return calendar;
+    }
+
+    /**
+     * Extend the calendar's appointments back far enough for a query starting at from; the caller holds the
+     * calendar's monitor, so changes committed meanwhile are applied after the rows are read
+     */
+    private void loadBookingsFrom(Long psychologistId, PsychologistCalendar calendar, long from) {
+        long needed = from - MINUTES_PER_DAY;
+        if (needed < calendar.bookedFrom) {
+            putBookings(calendar, appointmentRepository.findByPsychologistIdAndAppointmentDateTimeBetween(
+                    psychologistId, fromMinutes(needed), fromMinutes(calendar.bookedFrom)));
+            calendar.bookedFrom = needed;
+        }
+    }
+
+    private static void putBookings(PsychologistCalendar calendar, List<Appointment> appointments) {
+        for (Appointment appointment : appointments) {
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                long start = toMinutes(appointment.getAppointmentDateTime());
+                calendar.putAppointment(appointment.getId(), start, start + durationOf(appointment));
+            }
+        }
+    }
+
+    private void apply(Long psychologistId, Consumer<PsychologistCalendar> change) {
+        generations.incrementAndGet(stripe(psychologistId));
+        PsychologistCalendar calendar = calendars.getIfPresent(psychologistId);
+        if (calendar != null) {
+            synchronized (calendar) {
+                change.accept(calendar);
+            }
+        }
+    }
+
+    private static int stripe(Long psychologistId) {
+        return Math.floorMod(psychologistId.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static int durationOf(Appointment appointment) {
+        return appointment.getDurationMinutes() != null ? appointment.getDurationMinutes() : 60;
+    }
+
+    static long toMinutes(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromMinutes(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Immutable snapshot of an Availability row, detached from the persistence context
+     */
+    static final class Window {
+        final long id;
+        final Recurrence recurrence;
+        final LocalDate specificDate;
+        final LocalTime startTime;
+        final LocalTime endTime;
+        final boolean available;
+
+        private Window(long id, Recurrence recurrence, LocalDate specificDate,
+                       LocalTime startTime, LocalTime endTime, boolean available) {
+            this.id = id;
+            this.recurrence = recurrence;
+            this.specificDate = specificDate;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.available = available;
+        }
+
+        static Window of(Availability availability) {
+            return new Window(
+                    availability.getId(),
+                    recurrenceOf(availability),
+                    availability.getSpecificDate(),
+                    availability.getStartTime(),
+                    availability.getEndTime(),
+                    !Boolean.FALSE.equals(availability.getIsAvailable()));
+        }
+
+        /**
+         * Rules are validated when saved, so a row that still fails to parse is left out of the calendar
+         */
+        private static Recurrence recurrenceOf(Availability availability) {
+            try {
+                return Recurrence.of(availability);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        boolean isValid() {
+            return startTime != null && endTime != null && startTime.isBefore(endTime);
+        }
+
+        long startOn(LocalDate date) {
+            return toMinutes(date.atTime(startTime));
+        }
+
+        long endOn(LocalDate date) {
+            return toMinutes(date.atTime(endTime));
+        }
+    }
+
+    /**
+     * Occupancy of one day as bitsets over its SLOT_MINUTES cells: open has a cell set when availability covers
+     * all of it, booked when any appointment overlaps it
+     */
+    static final class DayOccupancy {
+        static final int CELLS = (int) (MINUTES_PER_DAY / SLOT_MINUTES);
+
+        final long[] open = new long[(CELLS + 63) / 64];
+        final long[] booked = new long[(CELLS + 63) / 64];
+
+        static void set(long[] bits, int from, int to) {
+            for (int word = from >>> 6; from < to && word <= (to - 1) >>> 6; word++) {
+                bits[word] |= mask(word, from, to);
+            }
+        }
+
+        static boolean covers(long[] bits, int from, int to) {
+            for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+                long mask = mask(word, from, to);
+                if ((bits[word] & mask) != mask) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static boolean intersects(long[] bits, int from, int to) {
+            for (int word = from >>> 6; word <= (to - 1) >>> 6; word++) {
+                if ((bits[word] & mask(word, from, to)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Bits of cells [from, to) that fall in the given word
+        private static long mask(int word, int from, int to) {
+            int low = Math.max(from - word * 64, 0);
+            int high = Math.min(to - word * 64, 64);
+            return (high == 64 ? -1L : (1L << high) - 1) & (-1L << low);
+        }
+    }
+
+    static final class PsychologistCalendar {
+        private static final int MAX_CACHED_DAYS = 366;
+
+        private final Map<DayOfWeek, List<Window>> weekly = new EnumMap<>(DayOfWeek.class);
+        private final IntervalTree<Window> overrides = new IntervalTree<>();
+        private final Map<Long, Window> windowsById = new HashMap<>();
+        private final IntervalTree<Long> booked = new IntervalTree<>();
+        private final Map<Long, long[]> bookedIntervals = new HashMap<>();
+
+        // Windows in windowsById that open time rather than block it
+        private int availableWindows;
+
+        // Occupancy bitsets by epoch day, least recently used first; built on demand and dropped when stale
+        private final Map<Long, DayOccupancy> days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DayOccupancy> eldest) {
+                return size() > MAX_CACHED_DAYS;
+            }
+        };
+
+        // Appointments starting at or after this minute are loaded; earlier ones are read when a query needs them
+        long bookedFrom = Long.MIN_VALUE;
+
+        // Open time over [expandedFrom, expandedFrom + window days) as sorted, disjoint intervals; null when stale
+        private LocalDate expandedFrom;
+        private long expandedStart;
+        private long expandedEnd;
+        private long[] openStarts;
+        private long[] openEnds;
+
+        void putWindow(Window window) {
+            removeWindow(window.id);
+            if (!window.isValid()) {
+                return;
+            }
+            if (window.specificDate != null) {
+                overrides.insert(window.startOn(window.specificDate), window.endOn(window.specificDate), window.id, window);
+            } else if (window.recurrence != null) {
+                for (DayOfWeek day : window.recurrence.days()) {
+                    weekly.computeIfAbsent(day, key -> new ArrayList<>()).add(window);
+                }
+            } else {
+                return;
+            }
+            windowsById.put(window.id, window);
+            if (window.available) {
+                availableWindows++;
+            }
+            openStarts = null;
+            days.clear();
+        }
+
+        boolean isScheduled() {
+            return availableWindows > 0;
+        }
+
+        boolean hasWindow(long id) {
+            return windowsById.containsKey(id);
+        }
+
+        void removeWindow(long id) {
+            Window window = windowsById.remove(id);
+            if (window == null) {
+                return;
+            }
+            if (window.available) {
+                availableWindows--;
+            }
+            if (window.specificDate != null) {
+                overrides.remove(window.startOn(window.specificDate), id);
+            } else {
+                for (DayOfWeek day : window.recurrence.days()) {
+                    weekly.get(day).remove(window);
+                }
+            }
+            openStarts = null;
+            days.clear();
+        }
+
+        void putAppointment(long id, long start, long end) {
+            removeAppointment(id);
+            booked.insert(start, end, id, id);
+            bookedIntervals.put(id, new long[]{start, end});
+            forgetDays(start, end);
+        }
+
+        void removeAppointment(long id) {
+            long[] interval = bookedIntervals.remove(id);
+            if (interval != null) {
+                booked.remove(interval[0], id);
+                forgetDays(interval[0], interval[1]);
+            }
+        }
+
+        List<TimeSlotDTO> freeSlots(long from, long to, int durationMinutes, LocalDate today, int windowDays) {
+            List<long[]> blocked = new ArrayList<>();
+            for (IntervalTree.Node<Long> node : booked.overlapping(from, to)) {
+                blocked.add(new long[]{node.start, node.end});
+            }
+
+            List<TimeSlotDTO> slots = new ArrayList<>();
+            for (long[] free : subtract(open(from, to, today, windowDays), merge(blocked))) {
+                long start = Math.max(free[0], from);
+                long end = Math.min(free[1], to);
+                for (long slotStart = start; slotStart + durationMinutes <= end; slotStart += durationMinutes) {
+                    slots.add(new TimeSlotDTO(fromMinutes(slotStart), fromMinutes(slotStart + durationMinutes)));
+                }
+            }
+            return slots;
+        }
+
+        /**
+         * Availability only restricts psychologists who keep a schedule; without one any time can be booked
+         */
+        Occupancy occupancy(long from, long to, Long ignoredAppointmentId, LocalDate today, int windowDays) {
+            if (isScheduled() && !isOpen(from, to, today, windowDays)) {
+                return Occupancy.OUTSIDE_AVAILABILITY;
+            }
+            return isBooked(from, to, ignoredAppointmentId, today, windowDays) ? Occupancy.BOOKED : Occupancy.FREE;
+        }
+
+        boolean isOpen(long from, long to, LocalDate today, int windowDays) {
+            // Open cells lie wholly inside open time, so covering every cell the range touches is conclusive;
+            // failing to is conclusive only when the range starts and ends on cell boundaries
+            for (long day = Math.floorDiv(from, MINUTES_PER_DAY); day * MINUTES_PER_DAY < to; day++) {
+                long dayStart = day * MINUTES_PER_DAY;
+                if (!DayOccupancy.covers(occupancyOf(day, today, windowDays).open,
+                        floorCell(from, dayStart), ceilCell(to, dayStart))) {
+                    return !isAligned(from, to) && isOpenExactly(from, to, today, windowDays);
+                }
+            }
+            return true;
+        }
+
+        boolean isBooked(long from, long to, Long ignoredAppointmentId, LocalDate today, int windowDays) {
+            // Booked cells cover every appointment, so no hit is conclusive; a hit is conclusive only on cell
+            // boundaries and when no appointment is ignored
+            for (long day = Math.floorDiv(from, MINUTES_PER_DAY); day * MINUTES_PER_DAY < to; day++) {
+                long dayStart = day * MINUTES_PER_DAY;
+                if (DayOccupancy.intersects(occupancyOf(day, today, windowDays).booked,
+                        floorCell(from, dayStart), ceilCell(to, dayStart))) {
+                    if (isAligned(from, to) && ignoredAppointmentId == null) {
+                        return true;
+                    }
+                    return booked.overlapping(from, to).stream()
+                            .anyMatch(node -> !node.value.equals(ignoredAppointmentId));
+                }
+            }
+            return false;
+        }
+
+        private boolean isOpenExactly(long from, long to, LocalDate today, int windowDays) {
+            // Open intervals are disjoint and never touch, so a covered range lies inside a single one
+            for (long[] interval : open(from, to, today, windowDays)) {
+                if (interval[0] <= from && interval[1] >= to) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private DayOccupancy occupancyOf(long day, LocalDate today, int windowDays) {
+            DayOccupancy occupancy = days.get(day);
+            if (occupancy != null) {
+                return occupancy;
+            }
+            occupancy = new DayOccupancy();
+            long dayStart = day * MINUTES_PER_DAY;
+            long dayEnd = dayStart + MINUTES_PER_DAY;
+            for (long[] interval : open(dayStart, dayEnd, today, windowDays)) {
+                // Only cells the interval covers completely
+                DayOccupancy.set(occupancy.open, ceilCell(interval[0], dayStart), floorCell(interval[1], dayStart));
+            }
+            for (IntervalTree.Node<Long> node : booked.overlapping(dayStart, dayEnd)) {
+                DayOccupancy.set(occupancy.booked, floorCell(node.start, dayStart), ceilCell(node.end, dayStart));
+            }
+            days.put(day, occupancy);
+            return occupancy;
+        }
+
+        private void forgetDays(long start, long end) {
+            for (long day = Math.floorDiv(start, MINUTES_PER_DAY); day * MINUTES_PER_DAY < end; day++) {
+                days.remove(day);
+            }
+        }
+
+        // Index of the cell holding the given minute of the day starting at dayStart, clamped to the day
+        private static int floorCell(long minute, long dayStart) {
+            return (int) ((clamp(minute, dayStart) - dayStart) / SLOT_MINUTES);
+        }
+
+        // Index of the first cell starting at or after the given minute, clamped to the day
+        private static int ceilCell(long minute, long dayStart) {
+            return (int) ((clamp(minute, dayStart) - dayStart + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        }
+
+        private static long clamp(long minute, long dayStart) {
+            return Math.min(Math.max(minute, dayStart), dayStart + MINUTES_PER_DAY);
+        }
+
+        private static boolean isAligned(long from, long to) {
+            return from % SLOT_MINUTES == 0 && to % SLOT_MINUTES == 0;
+        }
+
+        /**
+         * Open intervals overlapping [from, to), from the occurrence arrays when the range lies inside the
+         * rolling window; the arrays are re-expanded when a window changed or the day rolled over
+         */
+        List<long[]> open(long from, long to, LocalDate today, int windowDays) {
+            if (windowDays > 0) {
+                if (openStarts == null || !today.equals(expandedFrom)) {
+                    List<long[]> expanded = expand(today, today.plusDays(windowDays - 1));
+                    openStarts = new long[expanded.size()];
+                    openEnds = new long[expanded.size()];
+                    for (int i = 0; i < expanded.size(); i++) {
+                        openStarts[i] = expanded.get(i)[0];
+                        openEnds[i] = expanded.get(i)[1];
+                    }
+                    expandedFrom = today;
+                    expandedStart = toMinutes(today.atStartOfDay());
+                    expandedEnd = expandedStart + windowDays * MINUTES_PER_DAY;
+                }
+                if (from >= expandedStart && to <= expandedEnd) {
+                    List<long[]> open = new ArrayList<>();
+                    for (int i = firstEndingAfter(from); i < openStarts.length && openStarts[i] < to; i++) {
+                        open.add(new long[]{openStarts[i], openEnds[i]});
+                    }
+                    return open;
+                }
+            }
+            return expand(fromMinutes(from).toLocalDate(), fromMinutes(to - 1).toLocalDate());
+        }
+
+        /**
+         * Open time from firstDay through lastDay: weekly windows on the days their rule occurs, date overrides
+         * with open hours replacing the weekly schedule for their day, and blocks (weekly or dated) always applied
+         */
+        List<long[]> expand(LocalDate firstDay, LocalDate lastDay) {
+            List<long[]> open = new ArrayList<>();
+            List<long[]> blocked = new ArrayList<>();
+
+            Set<LocalDate> overriddenDays = new HashSet<>();
+            long rangeStart = toMinutes(firstDay.atStartOfDay());
+            long rangeEnd = toMinutes(lastDay.atStartOfDay()) + MINUTES_PER_DAY;
+            for (IntervalTree.Node<Window> node : overrides.overlapping(rangeStart, rangeEnd)) {
+                if (node.value.available) {
+                    open.add(new long[]{node.start, node.end});
+                    overriddenDays.add(node.value.specificDate);
+                } else {
+                    blocked.add(new long[]{node.start, node.end});
+                }
+            }
+
+            for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+                for (Window window : weekly.getOrDefault(day.getDayOfWeek(), List.of())) {
+                    if (!window.recurrence.occursOn(day)) {
+                        continue;
+                    }
+                    long[] interval = {window.startOn(day), window.endOn(day)};
+                    if (!window.available) {
+                        blocked.add(interval);
+                    } else if (!overriddenDays.contains(day)) {
+                        open.add(interval);
+                    }
+                }
+            }
+            return subtract(merge(open), merge(blocked));
+        }
+
+        private int firstEndingAfter(long minute) {
+            int low = 0;
+            int high = openEnds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (openEnds[middle] <= minute) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        static List<long[]> merge(List<long[]> intervals) {
+            intervals.sort(Comparator.comparingLong(interval -> interval[0]));
+            List<long[]> merged = new ArrayList<>();
+            for (long[] interval : intervals) {
+                long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && interval[0] <= last[1]) {
+                    last[1] = Math.max(last[1], interval[1]);
+                } else {
+                    merged.add(new long[]{interval[0], interval[1]});
+                }
+            }
+            return merged;
+        }
+
+        static List<long[]> subtract(List<long[]> open, List<long[]> blocked) {
+            List<long[]> result = new ArrayList<>();
+            int b = 0;
+            for (long[] interval : open) {
+                long cursor = interval[0];
+                while (b < blocked.size() && blocked.get(b)[1] <= cursor) {
+                    b++;
+                }
+                int i = b;
+                while (i < blocked.size() && blocked.get(i)[0] < interval[1]) {
+                    long[] block = blocked.get(i);
+                    if (block[0] > cursor) {
+                        result.add(new long[]{cursor, block[0]});
+                    }
+                    cursor = Math.max(cursor, block[1]);
+                    i++;
+                }
+                if (cursor < interval[1]) {
+                    result.add(new long[]{cursor, interval[1]});
+                }
+            }
+            return result;
+        }
+    }
+}
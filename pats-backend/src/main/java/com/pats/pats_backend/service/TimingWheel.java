@@ -0,0 +1,196 @@
+package com.pats.pats_backend.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hierarchical timing wheel keyed by long ids, with deadlines in epoch milliseconds.
+ * Level 0 has tickMs resolution; each overflow level ticks once per full turn of the level below.
+ * Non-empty buckets sit in a DelayQueue, so an idle wheel blocks instead of ticking, and entries
+ * cascade down a level when their coarse bucket expires until they fall due.
+ */
+class TimingWheel {
+
+    private static final class Entry {
+        final long key;
+        final long deadline;
+        Bucket bucket;
+
+        Entry(long key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Bucket implements Delayed {
+        private final Map<Long, Entry> entries = new LinkedHashMap<>();
+        private volatile long expiration = -1;
+
+        void add(Entry entry) {
+            entries.put(entry.key, entry);
+            entry.bucket = this;
+        }
+
+        void remove(Entry entry) {
+            if (entries.remove(entry.key, entry)) {
+                entry.bucket = null;
+            }
+        }
+
+        List<Entry> drain() {
+            List<Entry> drained = new ArrayList<>(entries.values());
+            entries.clear();
+            expiration = -1;
+            for (Entry entry : drained) {
+                entry.bucket = null;
+            }
+            return drained;
+        }
+
+        /** Returns true when the bucket was idle and has to be (re)queued */
+        boolean setExpiration(long expiration) {
+            long previous = this.expiration;
+            this.expiration = expiration;
+            return previous != expiration;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiration - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiration, ((Bucket) other).expiration);
+        }
+    }
+
+    private static final class Level {
+        final long tickMs;
+        final int size;
+        final long interval;
+        final Bucket[] buckets;
+        long currentTime;
+        Level overflow;
+
+        Level(long tickMs, int size, long startMs) {
+            this.tickMs = tickMs;
+            this.size = size;
+            this.interval = tickMs * size;
+            this.buckets = new Bucket[size];
+            for (int i = 0; i < size; i++) {
+                buckets[i] = new Bucket();
+            }
+            this.currentTime = startMs - startMs % tickMs;
+        }
+    }
+
+    private final Level root;
+    private final DelayQueue<Bucket> queue = new DelayQueue<>();
+    private final Map<Long, Entry> index = new HashMap<>();
+
+    TimingWheel(long tickMs, int wheelSize) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize greater than 1");
+        }
+        this.root = new Level(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * Add an entry, replacing any entry already scheduled under the same key.
+     * A deadline in the past fires on the next poll.
+     */
+    synchronized void schedule(long key, long deadlineMs) {
+        cancel(key);
+        Entry entry = new Entry(key, deadlineMs);
+        index.put(key, entry);
+        if (!place(root, entry)) {
+            Bucket immediate = new Bucket();
+            immediate.add(entry);
+            immediate.setExpiration(deadlineMs);
+            queue.offer(immediate);
+        }
+    }
+
+    synchronized boolean cancel(long key) {
+        Entry entry = index.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry);
+        }
+        return true;
+    }
+
+    synchronized boolean contains(long key) {
+        return index.containsKey(key);
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Wait up to timeoutMs for the next bucket to expire and return the keys that fell due, in deadline order.
+     * Entries from coarser buckets that are not yet due are cascaded into finer levels.
+     */
+    List<Long> poll(long timeoutMs) throws InterruptedException {
+        Bucket bucket = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (bucket == null) {
+            return List.of();
+        }
+        List<Entry> due = new ArrayList<>();
+        synchronized (this) {
+            while (bucket != null) {
+                advance(root, bucket.expiration);
+                for (Entry entry : bucket.drain()) {
+                    if (index.get(entry.key) == entry && !place(root, entry)) {
+                        index.remove(entry.key);
+                        due.add(entry);
+                    }
+                }
+                bucket = queue.poll();
+            }
+        }
+        due.sort((a, b) -> Long.compare(a.deadline, b.deadline));
+        List<Long> keys = new ArrayList<>(due.size());
+        for (Entry entry : due) {
+            keys.add(entry.key);
+        }
+        return keys;
+    }
+
+    private boolean place(Level level, Entry entry) {
+        if (entry.deadline < level.currentTime + level.tickMs) {
+            return false;
+        }
+        if (entry.deadline < level.currentTime + level.interval) {
+            long virtualId = entry.deadline / level.tickMs;
+            Bucket bucket = level.buckets[(int) (virtualId % level.size)];
+            bucket.add(entry);
+            if (bucket.setExpiration(virtualId * level.tickMs)) {
+                queue.offer(bucket);
+            }
+            return true;
+        }
+        if (level.overflow == null) {
+            level.overflow = new Level(level.interval, level.size, level.currentTime);
+        }
+        return place(level.overflow, entry);
+    }
+
+    private static void advance(Level level, long timeMs) {
+        for (Level current = level; current != null; current = current.overflow) {
+            if (timeMs >= current.currentTime + current.tickMs) {
+                current.currentTime = timeMs - timeMs % current.tickMs;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+-- FR1.5 - One-time backfill of mood_entries.entry_date, the calendar day of each check-in (MySQL 8).
+--
+-- The application fills entry_date on every insert and update and relies on the unique (patient_id, entry_date)
+-- key to refuse a second check-in on the same day. Check-ins recorded before the column existed have no date and
+-- escape that key, and the entity now declares the column NOT NULL, which ddl-auto cannot add to a populated
+-- table. Apply this once, before deploying that version; it works whether or not the column was already added.
+--
+-- Adding the unique key fails when a patient checked in twice on one day before the key existed. The first
+-- query lists those days; resolve them by hand (they are clinical records) and run the script again.
+
+SELECT patient_id, DATE(entry_timestamp) AS entry_day, COUNT(*) AS entries
+FROM mood_entries
+GROUP BY patient_id, DATE(entry_timestamp)
+HAVING COUNT(*) > 1;
+
+-- The column, if an earlier deploy has not added it yet
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE mood_entries ADD COLUMN entry_date DATE NULL', 'DO 0')
+            FROM information_schema.COLUMNS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'mood_entries' AND COLUMN_NAME = 'entry_date');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+UPDATE mood_entries SET entry_date = DATE(entry_timestamp) WHERE entry_date IS NULL;
+
+ALTER TABLE mood_entries MODIFY entry_date DATE NOT NULL;
+
+-- The unique key, named as MoodEntry.UNIQUE_PATIENT_DATE
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+                      'ALTER TABLE mood_entries ADD CONSTRAINT uk_mood_entries_patient_date UNIQUE (patient_id, entry_date)',
+                      'DO 0')
+            FROM information_schema.TABLE_CONSTRAINTS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'mood_entries'
+              AND CONSTRAINT_NAME = 'uk_mood_entries_patient_date');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
@@ -0,0 +1,48 @@
+-- FR17.9 - One-time conversion of audit_logs to monthly RANGE COLUMNS partitions on action_timestamp (MySQL 8).
+--
+-- The ALTERs below rebuild the whole table and hold a metadata lock while they run, so apply this once, from one
+-- client, in a maintenance window (or through an online schema change tool) rather than from the application.
+-- Afterwards AuditPartitionManager keeps partitions created a few months ahead and drops archived months.
+-- Partitioned InnoDB tables allow no foreign keys, and every unique key (the primary key included) has to
+-- contain the partitioning column. Partitions are named pYYYYMM plus the catch-all pmax, as the application expects.
+-- Months ahead created here match audit.partitions.months-ahead (default 3).
+
+SET SESSION group_concat_max_len = 1000000;
+
+-- Foreign keys
+SET @ddl = (SELECT CONCAT('ALTER TABLE audit_logs ', GROUP_CONCAT('DROP FOREIGN KEY `', CONSTRAINT_NAME, '`'))
+            FROM information_schema.TABLE_CONSTRAINTS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND CONSTRAINT_TYPE = 'FOREIGN KEY');
+SET @ddl = IFNULL(@ddl, 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+-- Unique keys other than the primary key
+SET @ddl = (SELECT CONCAT('ALTER TABLE audit_logs ', GROUP_CONCAT('DROP INDEX `', CONSTRAINT_NAME, '`'))
+            FROM information_schema.TABLE_CONSTRAINTS
+            WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'audit_logs' AND CONSTRAINT_TYPE = 'UNIQUE');
+SET @ddl = IFNULL(@ddl, 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+ALTER TABLE audit_logs DROP PRIMARY KEY, ADD PRIMARY KEY (id, action_timestamp);
+
+-- One partition per month from the oldest entry through three months ahead, then the catch-all
+SET @first = (SELECT DATE_FORMAT(IFNULL(MIN(action_timestamp), NOW()), '%Y-%m-01') FROM audit_logs);
+SET @last = DATE_FORMAT(NOW() + INTERVAL 3 MONTH, '%Y-%m-01');
+SET @ddl = (
+    WITH RECURSIVE months (month) AS (
+        SELECT CAST(@first AS DATE)
+        UNION ALL
+        SELECT month + INTERVAL 1 MONTH FROM months WHERE month < CAST(@last AS DATE)
+    )
+    SELECT CONCAT('ALTER TABLE audit_logs PARTITION BY RANGE COLUMNS(action_timestamp) (',
+                  GROUP_CONCAT('PARTITION p', DATE_FORMAT(month, '%Y%m'), ' VALUES LESS THAN (''',
+                               month + INTERVAL 1 MONTH, ' 00:00:00'')' ORDER BY month SEPARATOR ', '),
+                  ', PARTITION pmax VALUES LESS THAN (MAXVALUE))')
+    FROM months);
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
@@ -0,0 +1,87 @@
+package com.pats.pats_backend.config;
+
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.entity.User;
+import com.pats.pats_backend.repo.PsychologistRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.QueryAssertions;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reference rows are served from the second-level cache across transactions and stay fresh after updates
+ */
+@DataJpaTest(showSql = false, properties = QueryAssertions.INSPECTOR_PROPERTY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CacheConfig.class)
+class CacheConfigTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        psychologistRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testFindById_SecondReadServedFromCache() {
+        Long psychologistId = transactionTemplate.execute(status ->
+                TestData.psychologist(entityManager, "cached-psych").getId());
+
+        transactionTemplate.executeWithoutResult(status ->
+                psychologistRepository.findById(psychologistId).orElseThrow().getUser().getUsername());
+        // The lazy user association is resolved from the users region as well
+        String[] cached = QueryAssertions.assertMaxQueries(0, () -> transactionTemplate.execute(status -> {
+            Psychologist psychologist = psychologistRepository.findById(psychologistId).orElseThrow();
+            return new String[]{psychologist.getLastName(), psychologist.getUser().getUsername()};
+        }));
+
+        assertEquals("cached-psych", cached[0]);
+        assertEquals("cached-psych", cached[1]);
+    }
+
+    @Test
+    void testFindByUsername_ResolvedThroughNaturalIdCache() {
+        transactionTemplate.executeWithoutResult(status -> TestData.psychologist(entityManager, "natural"));
+
+        userRepository.findByUsername("natural").orElseThrow();
+        User cached = QueryAssertions.assertMaxQueries(0, () -> userRepository.findByUsername("natural").orElseThrow());
+
+        assertEquals("natural@test.com", cached.getEmail());
+        assertTrue(userRepository.findByUsername("missing").isEmpty());
+    }
+
+    @Test
+    void testUpdate_ReplacesCachedEntry() {
+        Long userId = transactionTemplate.execute(status ->
+                TestData.psychologist(entityManager, "changing").getUser().getId());
+        userRepository.findByUsername("changing").orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(User.class, userId).setEmail("changed@test.com"));
+
+        User reread = QueryAssertions.assertMaxQueries(0, () -> userRepository.findByUsername("changing").orElseThrow());
+        assertEquals("changed@test.com", reread.getEmail());
+    }
+}
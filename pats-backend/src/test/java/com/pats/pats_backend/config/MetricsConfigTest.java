@@ -0,0 +1,40 @@
+package com.pats.pats_backend.config;
+
+import com.pats.pats_backend.service.AvailabilityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef",
+        "jwt.expiration=3600000",
+        "reminders.sweep.initial-delay-ms=3600000"
+})
+class MetricsConfigTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Test
+    void testPrometheusScrape_IncludesServiceTimersPoolAndHibernateMetrics() {
+        availabilityService.getPsychologistAvailabilities(1L);
+
+        assertInstanceOf(PrometheusMeterRegistry.class, meterRegistry);
+        String scrape = ((PrometheusMeterRegistry) meterRegistry).scrape();
+        assertTrue(scrape.contains("pats_service_seconds_bucket{class=\"com.pats.pats_backend.service.AvailabilityService\""),
+                "service timer with histogram buckets");
+        assertTrue(scrape.contains("hikaricp_connections_active"), "Hikari pool gauges");
+        assertTrue(scrape.contains("hibernate_statements_total"), "Hibernate statistics");
+        assertTrue(scrape.contains("pats_reminders_failed_total"), "reminder failure counter");
+        assertTrue(scrape.contains("pats_hibernate_second_level_cache_hit_ratio"), "cache hit ratio");
+        assertTrue(scrape.lines().anyMatch(line -> line.startsWith("hibernate_second_level_cache_requests_total")
+                && line.contains("region=\"users\"")), "per-region second-level cache statistics");
+    }
+}
@@ -0,0 +1,58 @@
+package com.pats.pats_backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCountInspectorTest {
+
+    private final QueryCountInspector inspector = new QueryCountInspector();
+
+    @AfterEach
+    void tearDown() {
+        while (QueryCountInspector.current() != null) {
+            QueryCountInspector.stop();
+        }
+    }
+
+    @Test
+    void testInspect_FlagsRepeatedSelectShapes() {
+        QueryCountInspector.start();
+        for (int id = 1; id <= 6; id++) {
+            inspector.inspect("select u.id, u.email from users u\n  where u.id = " + id);
+        }
+        inspector.inspect("select p.id from patients p where p.id in (?, ?, ?)");
+        inspector.inspect("select p.id from patients p where p.id in (?)");
+        for (int i = 0; i < 6; i++) {
+            inspector.inspect("insert into audit_logs (action, id) values (?, ?)");
+        }
+        QueryCountInspector.Scope scope = QueryCountInspector.stop();
+
+        assertEquals(14, scope.getStatements());
+        // inserts repeat too, but only SELECTs are N+1 candidates
+        assertEquals(Map.of("select u.id, u.email from users u where u.id = ?", 6), scope.getRepeatedSelects(5));
+        assertEquals(2, scope.getRepeatedSelects(2).size());
+    }
+
+    @Test
+    void testScopes_NestedScopesCountTowardsParent() {
+        QueryCountInspector.start();
+        inspector.inspect("select 1");
+        QueryCountInspector.start();
+        inspector.inspect("select 2");
+        assertEquals(1, QueryCountInspector.stop().getStatements());
+        inspector.inspect("select 3");
+
+        assertEquals(3, QueryCountInspector.stop().getStatements());
+        assertNull(QueryCountInspector.current());
+    }
+
+    @Test
+    void testInspect_IgnoresThreadsWithoutScope() {
+        assertEquals("select 1", inspector.inspect("select 1"));
+        assertEquals(0, QueryCountInspector.stop().getStatements());
+    }
+}
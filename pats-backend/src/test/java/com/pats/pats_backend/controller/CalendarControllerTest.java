@@ -0,0 +1,89 @@
+package com.pats.pats_backend.controller;
+
+import com.pats.pats_backend.entity.CalendarWeek;
+import com.pats.pats_backend.service.CalendarService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CalendarControllerTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+    private static final Principal OWNER = () -> "drsmith";
+
+    @Mock
+    private CalendarService calendarService;
+
+    @InjectMocks
+    private CalendarController calendarController;
+
+    @Test
+    void testGetWeek_ReturnsStoredDocumentWithEtag() {
+        when(calendarService.isOwnedBy(1L, "drsmith")).thenReturn(true);
+        when(calendarService.getWeek(1L, MONDAY)).thenReturn(week("abc123"));
+
+        ResponseEntity<?> response = calendarController.getWeek(1L, MONDAY, null, OWNER);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertEquals("{\"days\":[]}", response.getBody());
+        assertTrue(response.getHeaders().getCacheControl().contains("no-cache"));
+    }
+
+    @Test
+    void testGetWeek_NotModifiedWhenEtagMatches() {
+        when(calendarService.isOwnedBy(1L, "drsmith")).thenReturn(true);
+        when(calendarService.getWeek(1L, MONDAY)).thenReturn(week("abc123"));
+
+        ResponseEntity<?> response = calendarController.getWeek(1L, MONDAY, "\"other\", W/\"abc123\"", OWNER);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetWeek_UnknownPsychologistIsNotFound() {
+        when(calendarService.isOwnedBy(9L, "drsmith")).thenReturn(true);
+        when(calendarService.getWeek(9L, MONDAY)).thenThrow(new NoSuchElementException("Psychologist not found"));
+
+        assertEquals(HttpStatus.NOT_FOUND, calendarController.getWeek(9L, MONDAY, null, OWNER).getStatusCode());
+    }
+
+    @Test
+    void testGetWeek_OtherPsychologistsCalendarIsForbidden() {
+        when(calendarService.isOwnedBy(2L, "drsmith")).thenReturn(false);
+
+        assertEquals(HttpStatus.FORBIDDEN, calendarController.getWeek(2L, MONDAY, null, OWNER).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, calendarController.getMonth(2L, 2030, 1, null, OWNER).getStatusCode());
+        verify(calendarService, never()).getWeek(any(), any());
+        verify(calendarService, never()).getMonth(any(), any());
+    }
+
+    @Test
+    void testMatches_RequiresQuotedTagOrWildcard() {
+        assertTrue(CalendarController.matches("*", "abc123"));
+        assertTrue(CalendarController.matches("\"abc123\"", "abc123"));
+        assertFalse(CalendarController.matches("abc123", "abc123"));
+        assertFalse(CalendarController.matches("\"abc1234\"", "abc123"));
+        assertFalse(CalendarController.matches(null, "abc123"));
+    }
+
+    private static CalendarWeek week(String etag) {
+        return new CalendarWeek(1L, MONDAY, etag, "{\"days\":[]}", LocalDateTime.now());
+    }
+}
@@ -0,0 +1,252 @@
+package com.pats.pats_backend.controller;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.BeanDescription;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationConfig;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.ValueSerializerModifier;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls every handler of every controller with services and repositories mocked to hand back entities
+ * wherever their signature allows, and serializes each response with a mapper that refuses @Entity types.
+ * A handler that passes a managed entity (or a list or page holding one) through to the response fails here.
+ */
+class ControllerEntityExposureTest {
+
+    private static final String BASE_PACKAGE = "com.pats.pats_backend";
+
+    private static final JsonMapper GUARDED_MAPPER = JsonMapper.builder()
+            .addModule(new SimpleModule().setSerializerModifier(new ValueSerializerModifier() {
+                @Override
+                public ValueSerializer<?> modifySerializer(SerializationConfig config, BeanDescription.Supplier beanDesc,
+                                                           ValueSerializer<?> serializer) {
+                    if (isEntity(beanDesc.getBeanClass())) {
+                        throw new IllegalStateException("Serialized managed entity " + beanDesc.getBeanClass().getName());
+                    }
+                    return serializer;
+                }
+            }))
+            .build();
+
+    // Any method returning an entity, a DTO, or a list or Optional of either gets a populated sample;
+    // generic repository methods such as findById are resolved against the mocked repository type
+    // Handlers behind an ownership check run as the owner, so they reach their response.
+    private static final Answer<Object> SAMPLES = invocation -> {
+        if (invocation.getMethod().getName().equals("isOwnedBy")) {
+            return true;
+        }
+        Object sample = sample(ResolvableType.forMethodReturnType(invocation.getMethod(), invocation.getMock().getClass()));
+        return sample != null ? sample : Mockito.RETURNS_DEFAULTS.answer(invocation);
+    };
+
+    @Test
+    void testGuardedMapper_RejectsEntitiesAndAcceptsDtos() {
+        assertThrows(Exception.class, () -> GUARDED_MAPPER.writeValueAsString(new com.pats.pats_backend.entity.Patient()));
+        assertThrows(Exception.class, () -> GUARDED_MAPPER.writeValueAsString(
+                List.of(new com.pats.pats_backend.entity.MoodEntry())));
+        assertDoesNotThrow(() -> GUARDED_MAPPER.writeValueAsString(new com.pats.pats_backend.dto.AppointmentDTO()));
+    }
+
+    @Test
+    void testControllers_NeverSerializeManagedEntities() throws Exception {
+        List<String> exposures = new ArrayList<>();
+        int handlers = 0;
+        for (Class<?> controllerType : controllerTypes()) {
+            Object controller = instantiate(controllerType);
+            for (Method method : controllerType.getDeclaredMethods()) {
+                if (!AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class)) {
+                    continue;
+                }
+                handlers++;
+                String handler = controllerType.getSimpleName() + "." + method.getName();
+                Object result;
+                try {
+                    result = method.invoke(controller, arguments(method));
+                } catch (InvocationTargetException e) {
+                    fail(handler + " threw " + e.getCause());
+                    return;
+                }
+                Object body = result instanceof ResponseEntity<?> response ? response.getBody() : result;
+                try {
+                    if (body instanceof StreamingResponseBody streaming) {
+                        streaming.writeTo(new ByteArrayOutputStream());
+                    } else {
+                        GUARDED_MAPPER.writeValueAsString(body);
+                    }
+                } catch (Exception e) {
+                    exposures.add(handler + ": " + e.getMessage());
+                }
+                if (result instanceof ResponseEntity<?> response && !response.getStatusCode().is2xxSuccessful()) {
+                    exposures.add(handler + " never reached its response: " + response.getStatusCode() + " " + body);
+                }
+            }
+        }
+        assertTrue(handlers > 30, "expected to exercise every handler, found " + handlers);
+        assertTrue(exposures.isEmpty(), String.join("\n", exposures));
+    }
+
+    private static List<Class<?>> controllerTypes() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(RestController.class));
+        List<Class<?>> types = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(BASE_PACKAGE)) {
+            types.add(Class.forName(definition.getBeanClassName()));
+        }
+        assertFalse(types.isEmpty());
+        return types;
+    }
+
+    private static Object instantiate(Class<?> type) throws Exception {
+        Constructor<?> constructor = Arrays.stream(type.getDeclaredConstructors())
+                .max(Comparator.comparingInt(Constructor::getParameterCount))
+                .orElseThrow();
+        Object[] dependencies = Arrays.stream(constructor.getParameterTypes())
+                .map(ControllerEntityExposureTest::dependency)
+                .toArray();
+        constructor.setAccessible(true);
+        Object controller = constructor.newInstance(dependencies);
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Autowired.class)) {
+                field.setAccessible(true);
+                field.set(controller, dependency(field.getType()));
+            }
+        }
+        return controller;
+    }
+
+    private static Object dependency(Class<?> type) {
+        return ObjectMapper.class.isAssignableFrom(type) ? GUARDED_MAPPER : Mockito.mock(type, SAMPLES);
+    }
+
+    private static Object[] arguments(Method method) {
+        return Arrays.stream(method.getParameters()).map(ControllerEntityExposureTest::argument).toArray();
+    }
+
+    private static Object argument(Parameter parameter) {
+        Class<?> type = parameter.getType();
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == String.class) {
+            return switch (parameter.getName()) {
+                case "dayOfWeek" -> "MONDAY";
+                case "specificDate" -> LocalDate.now().toString();
+                default -> "1";
+            };
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type.isEnum()) {
+            return type.getEnumConstants()[0];
+        }
+        if (type == Principal.class) {
+            return (Principal) () -> "owner";
+        }
+        return newInstance(type);
+    }
+
+    private static Object sample(ResolvableType type) {
+        Class<?> raw = type.resolve(Object.class);
+        if (isSampled(raw)) {
+            return newSample(raw);
+        }
+        Class<?> element = type.getGeneric(0).resolve(Object.class);
+        if (!isSampled(element)) {
+            return null;
+        }
+        if (raw == Optional.class) {
+            return Optional.of(newSample(element));
+        }
+        if (raw.isAssignableFrom(List.class) && Collection.class.isAssignableFrom(raw)) {
+            return List.of(newSample(element));
+        }
+        return null;
+    }
+
+    private static boolean isSampled(Class<?> type) {
+        return isEntity(type) || type.getPackageName().equals(BASE_PACKAGE + ".dto");
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        // Walks up so Hibernate proxies count as the entity they stand in for
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            if (current.isAnnotationPresent(Entity.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A new instance whose to-one associations are set, the way a loaded entity's would be
+     */
+    private static Object newSample(Class<?> type) {
+        Object sample = newInstance(type);
+        if (sample != null && isEntity(type)) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)) {
+                    field.setAccessible(true);
+                    try {
+                        field.set(sample, newSample(field.getType()));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return sample;
+    }
+
+    private static Object newInstance(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.pats.pats_backend.repo;
+
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.AppointmentHistory;
+import com.pats.pats_backend.entity.AppointmentReminder;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.enums.AttendanceStatus;
+import com.pats.pats_backend.enums.ReminderStatus;
+import com.pats.pats_backend.support.QueryAssertions;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every fetch plan loads what it promises in a single select: touching the associations in the plan after
+ * the query must not issue another statement, and the summary plan must leave user accounts unloaded.
+ */
+@DataJpaTest(showSql = false, properties = QueryAssertions.INSPECTOR_PROPERTY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentFetchPlanTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentHistoryRepository appointmentHistoryRepository;
+
+    @Autowired
+    private AppointmentReminderRepository appointmentReminderRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDateTime start = LocalDateTime.now().plusDays(2).withNano(0);
+    private Long psychologistId;
+    private Long patientId;
+    private Long appointmentId;
+    private final List<Long> reminderIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Psychologist psychologist = TestData.psychologist(entityManager, "psych-plan");
+            Patient first = TestData.patient(entityManager, "patient-plan-1");
+            Patient second = TestData.patient(entityManager, "patient-plan-2");
+            for (int i = 0; i < 6; i++) {
+                Patient patient = i % 2 == 0 ? first : second;
+                Appointment appointment = TestData.appointment(entityManager, psychologist, patient,
+                        start.plusHours(i * 2L), 60);
+                history(appointment);
+                reminderIds.add(reminder(appointment, 24));
+                reminderIds.add(reminder(appointment, 1));
+                appointmentId = appointment.getId();
+            }
+            psychologistId = psychologist.getId();
+            patientId = first.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentReminderRepository.deleteAllInBatch();
+        appointmentHistoryRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        psychologistRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testAppointmentPlans_LoadInOneSelect() {
+        for (FetchPlan plan : FetchPlan.values()) {
+            assertPlan(plan, 6, p -> appointmentRepository.findForPsychologist(
+                    psychologistId, start, start.plusDays(1), p), Function.identity());
+            assertPlan(plan, 3, p -> appointmentRepository.findForPatient(
+                    patientId, start, start.plusDays(1), p), Function.identity());
+            assertPlan(plan, 1, p -> appointmentRepository.findById(appointmentId, p).stream().toList(),
+                    Function.identity());
+        }
+    }
+
+    @Test
+    void testHistoryPlans_LoadInOneSelect() {
+        for (FetchPlan plan : FetchPlan.values()) {
+            assertPlan(plan, 6, p -> appointmentHistoryRepository.findByPsychologistId(psychologistId, p),
+                    AppointmentHistory::getAppointment);
+            assertPlan(plan, 3, p -> appointmentHistoryRepository.findByPatientId(patientId, p),
+                    AppointmentHistory::getAppointment);
+        }
+    }
+
+    @Test
+    void testReminderPlans_LoadInOneSelect() {
+        for (FetchPlan plan : FetchPlan.values()) {
+            assertPlan(plan, 2, p -> appointmentReminderRepository.findByAppointmentId(appointmentId, p),
+                    AppointmentReminder::getAppointment);
+            assertPlan(plan, 12, p -> appointmentReminderRepository.findByIdIn(reminderIds, p),
+                    AppointmentReminder::getAppointment);
+        }
+    }
+
+    @Test
+    void testHistoryPlan_OrdersByAppointmentNewestFirst() {
+        List<LocalDateTime> starts = transactionTemplate.execute(status ->
+                appointmentHistoryRepository.findByPsychologistId(psychologistId, FetchPlan.SUMMARY).stream()
+                        .map(history -> history.getAppointment().getAppointmentDateTime())
+                        .toList());
+
+        assertEquals(6, starts.size());
+        for (int i = 1; i < starts.size(); i++) {
+            assertTrue(starts.get(i - 1).isAfter(starts.get(i)));
+        }
+    }
+
+    /**
+     * Runs the query and walks everything the plan covers inside one counted block
+     */
+    private <T> void assertPlan(FetchPlan plan, int expectedRows, Function<FetchPlan, List<T>> query,
+                                Function<T, Appointment> appointmentOf) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<T> rows = QueryAssertions.assertMaxQueries(1, () -> {
+                List<T> result = query.apply(plan);
+                for (T row : result) {
+                    Appointment appointment = appointmentOf.apply(row);
+                    assertNotNull(appointment.getAppointmentDateTime());
+                    assertNotNull(appointment.getPatient().getLastName());
+                    assertNotNull(appointment.getPsychologist().getLastName());
+                    if (plan == FetchPlan.DETAIL) {
+                        assertNotNull(appointment.getPatient().getUser().getEmail());
+                        assertNotNull(appointment.getPsychologist().getUser().getEmail());
+                    }
+                }
+                return result;
+            });
+            assertEquals(expectedRows, rows.size());
+            if (plan == FetchPlan.SUMMARY) {
+                Appointment appointment = appointmentOf.apply(rows.get(0));
+                assertFalse(Hibernate.isInitialized(appointment.getPatient().getUser()));
+                assertFalse(Hibernate.isInitialized(appointment.getPsychologist().getUser()));
+            }
+            entityManager.clear();
+        });
+    }
+
+    private void history(Appointment appointment) {
+        AppointmentHistory history = new AppointmentHistory();
+        history.setAppointment(appointment);
+        history.setAttendanceStatus(AttendanceStatus.ATTENDED);
+        history.setCreatedAt(LocalDateTime.now());
+        entityManager.persist(history);
+    }
+
+    private Long reminder(Appointment appointment, int hoursBefore) {
+        AppointmentReminder reminder = new AppointmentReminder();
+        reminder.setAppointment(appointment);
+        reminder.setReminderTime(appointment.getAppointmentDateTime().minusHours(hoursBefore));
+        reminder.setHoursBefore(hoursBefore);
+        reminder.setStatus(ReminderStatus.PENDING);
+        reminder.setReminderType("APPOINTMENT_REMINDER");
+        reminder.setRecipientEmail(appointment.getPatient().getUser().getEmail());
+        entityManager.persist(reminder);
+        return reminder.getId();
+    }
+}
@@ -0,0 +1,87 @@
+package com.pats.pats_backend.security;
+
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Auth filter throughput with SLF4J logging against the previous System.out.println on every request.
+ * Stdout goes to a temporary file, so both runs pay real I/O.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 20_000;
+
+    @Test
+    void benchmarkFilter_Slf4jAgainstSystemOut() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        JwtUtil jwtUtil = new JwtUtil("0123456789abcdef0123456789abcdef0123456789abcdef", 3_600_000L, "primary", "");
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", new VerifiedTokenCache(1000));
+
+        PrintStream originalOut = System.out;
+        File sink = File.createTempFile("stdout-bench", ".log");
+        sink.deleteOnExit();
+        try (PrintStream fileOut = new PrintStream(new FileOutputStream(sink), true)) {
+            System.setOut(fileOut);
+            Filter printing = (request, response, chain) -> {
+                System.out.println("No Bearer token found");
+                filter.doFilter(request, response, chain);
+            };
+            throughput(printing);
+            throughput(filter);
+
+            double before = throughput(printing);
+            double after = throughput(filter);
+
+            originalOut.printf("anonymous requests, %d threads: System.out %.0f req/s, SLF4J %.0f req/s%n",
+                    THREADS, before, after);
+            assertTrue(after > before, "filter without stdout should out-run the println version");
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
+    private static double throughput(Filter filter) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/auth/login");
+                        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                        SecurityContextHolder.clearContext();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return THREADS * REQUESTS_PER_THREAD / ((System.nanoTime() - started) / 1e9);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
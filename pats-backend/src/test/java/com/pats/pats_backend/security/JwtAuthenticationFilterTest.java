@@ -0,0 +1,124 @@
+package com.pats.pats_backend.security;
+
+import com.pats.pats_backend.entity.User;
+import com.pats.pats_backend.enums.UserRole;
+import com.pats.pats_backend.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtUtil jwtUtil;
+    private CustomUserDetailsService customUserDetailsService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil("0123456789abcdef0123456789abcdef0123456789abcdef", 60_000L, "primary", ""));
+        customUserDetailsService = new CustomUserDetailsService(1000, 600_000L);
+        ReflectionTestUtils.setField(customUserDetailsService, "userRepository", userRepository);
+        verifiedTokenCache = new VerifiedTokenCache(100);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "customUserDetailsService", customUserDetailsService);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", verifiedTokenCache);
+
+        user = new User();
+        user.setUsername("drsmith");
+        user.setPassword("hash");
+        user.setRole(UserRole.PSYCHOLOGIST);
+        user.setActive(true);
+        when(userRepository.findByUsername("drsmith")).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testFilter_VerifiesTokenAndLoadsUserOnce() throws Exception {
+        String token = jwtUtil.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+
+        for (int i = 0; i < 3; i++) {
+            Authentication authentication = authenticate(token);
+            assertNotNull(authentication);
+            assertEquals("drsmith", authentication.getName());
+            assertEquals("ROLE_PSYCHOLOGIST", authentication.getAuthorities().iterator().next().getAuthority());
+        }
+
+        verify(jwtUtil, times(1)).verify(token);
+        verify(userRepository, times(1)).findByUsername("drsmith");
+        assertEquals(1, verifiedTokenCache.size());
+    }
+
+    @Test
+    void testFilter_EvictionAppliesDeactivationAndRoleChange() throws Exception {
+        String token = jwtUtil.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+        assertNotNull(authenticate(token));
+
+        user.setRole(UserRole.PATIENT);
+        customUserDetailsService.evictAfterCommit("drsmith");
+        assertEquals("ROLE_PATIENT", authenticate(token).getAuthorities().iterator().next().getAuthority());
+
+        user.setActive(false);
+        customUserDetailsService.evictAfterCommit("drsmith");
+        assertNull(authenticate(token));
+        verify(jwtUtil, times(1)).verify(token);
+    }
+
+    @Test
+    void testFilter_RejectsForgedTokenNotInCache() throws Exception {
+        String token = jwtUtil.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+        assertNotNull(authenticate(token));
+
+        JwtUtil otherKey = new JwtUtil("fedcba9876543210fedcba9876543210fedcba9876543210", 60_000L, "primary", "");
+        String forged = otherKey.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+        assertThrows(Exception.class, () -> authenticate(forged));
+        assertEquals(1, verifiedTokenCache.size());
+    }
+
+    @Test
+    void testUserDetails_LoginPathUncachedAndErasingCredentialsLeavesCacheIntact() {
+        UserDetails cached = customUserDetailsService.loadCachedUserByUsername("drsmith");
+        ((CredentialsContainer) cached).eraseCredentials();
+        assertEquals("hash", customUserDetailsService.loadCachedUserByUsername("drsmith").getPassword());
+
+        UserDetails login = customUserDetailsService.loadUserByUsername("drsmith");
+        ((CredentialsContainer) login).eraseCredentials();
+        assertEquals("hash", customUserDetailsService.loadUserByUsername("drsmith").getPassword());
+        verify(userRepository, times(3)).findByUsername("drsmith");
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patients");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,84 @@
+package com.pats.pats_backend.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Token generate/verify throughput of JwtUtil against the previous per-call key and parser construction.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class JwtUtilBenchmarkTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final int WARMUP_OPS = 20_000;
+    private static final int MEASURED_OPS = 50_000;
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000L, "primary", "old:" + SECRET.toUpperCase());
+
+    @Test
+    void benchmarkVerify_SharedParserAgainstPerCallParser() {
+        String token = jwtUtil.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+
+        double before = opsPerSecond(token, JwtUtilBenchmarkTest::verifyPerCall);
+        double after = opsPerSecond(token, jwtUtil::verify);
+
+        System.out.printf("verify: per-call key and parser %.0f ops/s, shared parser %.0f ops/s%n", before, after);
+        assertTrue(after > before, "shared parser should out-run per-call construction");
+    }
+
+    @Test
+    void benchmarkGenerate_PrecomputedKeyAgainstPerCallKey() {
+        double before = opsPerSecond("drsmith", JwtUtilBenchmarkTest::generatePerCall);
+        double after = opsPerSecond("drsmith",
+                username -> jwtUtil.generateToken(username, "PSYCHOLOGIST", 1L, "dr@test.com", 2L));
+
+        System.out.printf("generate: per-call key %.0f ops/s, precomputed key %.0f ops/s%n", before, after);
+    }
+
+    private static double opsPerSecond(String input, Function<String, ?> operation) {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_OPS; i++) {
+            sink = operation.apply(input);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_OPS; i++) {
+            sink = operation.apply(input);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        assertTrue(sink != null);
+        return MEASURED_OPS / seconds;
+    }
+
+    private static Claims verifyPerCall(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static String generatePerCall(String username) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("role", "PSYCHOLOGIST")
+                .claim("userId", 1L)
+                .claim("email", "dr@test.com")
+                .claim("profileId", 2L)
+                .setSubject(username)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 3_600_000L))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
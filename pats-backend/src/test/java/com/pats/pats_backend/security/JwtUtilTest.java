@@ -0,0 +1,59 @@
+package com.pats.pats_backend.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String OLD_SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final String NEW_SECRET = "fedcba9876543210fedcba9876543210fedcba9876543210";
+
+    @Test
+    void testVerify_AcceptsTokensFromRotatedOutKey() {
+        JwtUtil before = new JwtUtil(OLD_SECRET, 60_000L, "k1", "");
+        JwtUtil after = new JwtUtil(NEW_SECRET, 60_000L, "k2", "k1:" + OLD_SECRET);
+        String oldToken = before.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+        String newToken = after.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+
+        assertEquals("drsmith", after.verify(oldToken).getSubject());
+        assertEquals("drsmith", after.verify(newToken).getSubject());
+        assertEquals("k2", Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(NEW_SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build().parseClaimsJws(newToken).getHeader().getKeyId());
+        // once the old key is dropped its tokens stop verifying
+        assertThrows(JwtException.class, () -> new JwtUtil(NEW_SECRET, 60_000L, "k2", "").verify(oldToken));
+        assertThrows(JwtException.class, () -> before.verify(newToken));
+    }
+
+    @Test
+    void testVerify_TokensWithoutKidUseCurrentSecret() {
+        long now = System.currentTimeMillis();
+        String legacy = Jwts.builder()
+                .setSubject("patient1")
+                .setExpiration(new Date(now + 60_000))
+                .signWith(Keys.hmacShaKeyFor(OLD_SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals("patient1", new JwtUtil(OLD_SECRET, 60_000L, "k1", "").extractUsername(legacy));
+    }
+
+    @Test
+    void testVerify_RejectsExpiredTokens() {
+        JwtUtil jwtUtil = new JwtUtil(OLD_SECRET, -1_000L, "k1", "");
+        String token = jwtUtil.generateToken("drsmith", "PSYCHOLOGIST", 1L, "dr@test.com", 2L);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(token));
+    }
+
+    @Test
+    void testConstructor_RejectsMalformedVerificationKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtUtil(NEW_SECRET, 60_000L, "k2", OLD_SECRET));
+    }
+}
@@ -0,0 +1,80 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FR9.7 - Conflict checks must stay sub-millisecond with 10k appointments per psychologist.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Import(AppointmentConflictDetector.class)
+class AppointmentConflictDetectorBenchmarkTest {
+
+    private static final int APPOINTMENTS = 10_000;
+    private static final int WARMUP_CHECKS = 2_000;
+    private static final int MEASURED_CHECKS = 10_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AppointmentConflictDetector appointmentConflictDetector;
+
+    @Test
+    void benchmarkHasConflict_TenThousandAppointments() {
+        Psychologist psychologist = TestData.psychologist(entityManager, "psych-bench");
+        Patient patient = TestData.patient(entityManager, "patient-bench");
+        LocalDateTime origin = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+        // Back-to-back 60 minute sessions, 12 per day
+        for (int i = 0; i < APPOINTMENTS; i++) {
+            LocalDateTime start = origin.plusDays(i / 12).plusHours(i % 12);
+            TestData.appointment(entityManager, psychologist, patient, start, 60);
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+                psychologist = entityManager.find(Psychologist.class, psychologist.getId());
+                patient = entityManager.find(Patient.class, patient.getId());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Long psychologistId = psychologist.getId();
+        int days = APPOINTMENTS / 12;
+        for (int i = 0; i < WARMUP_CHECKS; i++) {
+            appointmentConflictDetector.hasConflict(psychologistId, probe(origin, i, days), 60, null);
+        }
+
+        int conflicts = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < MEASURED_CHECKS; i++) {
+            if (appointmentConflictDetector.hasConflict(psychologistId, probe(origin, i, days), 60, null)) {
+                conflicts++;
+            }
+        }
+        double meanMicros = (System.nanoTime() - started) / 1_000.0 / MEASURED_CHECKS;
+
+        System.out.printf("hasConflict: %d checks against %d appointments, mean %.1f us%n",
+                MEASURED_CHECKS, APPOINTMENTS, meanMicros);
+        assertTrue(conflicts == MEASURED_CHECKS, "every probe lands inside a booked session");
+        assertTrue(meanMicros < 1_000, "conflict check should stay below 1 ms, was " + meanMicros + " us");
+    }
+
+    private static LocalDateTime probe(LocalDateTime origin, int i, int days) {
+        return origin.plusDays((i * 7L) % days).plusHours(i % 12).plusMinutes(30);
+    }
+}
@@ -0,0 +1,115 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(AppointmentConflictDetector.class)
+class AppointmentConflictDetectorTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AppointmentConflictDetector appointmentConflictDetector;
+
+    private Psychologist psychologist;
+    private Patient patient;
+    private LocalDateTime tenAm;
+
+    @BeforeEach
+    void setUp() {
+        psychologist = TestData.psychologist(entityManager, "psych1");
+        patient = TestData.patient(entityManager, "patient1");
+        tenAm = LocalDateTime.now().plusDays(3).withHour(10).withMinute(0).withSecond(0).withNano(0);
+        // The lookback is read once per detector; each test starts from its own rows
+        ReflectionTestUtils.setField(appointmentConflictDetector, "lookbackMinutes", null);
+    }
+
+    /**
+     * Test FR9.7 - A session starting inside an existing one is a conflict
+     */
+    @Test
+    void testHasConflict_OverlappingDifferentStartTimes() {
+        TestData.appointment(entityManager, psychologist, patient, tenAm, 60);
+
+        assertTrue(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.plusMinutes(30), 60, null));
+        assertTrue(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.minusMinutes(30), 60, null));
+    }
+
+    /**
+     * Test FR9.7 - Back-to-back sessions do not conflict
+     */
+    @Test
+    void testHasConflict_AdjacentSessionsAllowed() {
+        TestData.appointment(entityManager, psychologist, patient, tenAm, 60);
+
+        assertFalse(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.plusMinutes(60), 60, null));
+        assertFalse(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.minusMinutes(60), 60, null));
+    }
+
+    /**
+     * Test FR9.7 - Long sessions starting well before the requested slot are still detected
+     */
+    @Test
+    void testHasConflict_LongEarlierSession() {
+        TestData.appointment(entityManager, psychologist, patient, tenAm.minusHours(3), 240);
+
+        assertTrue(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.plusMinutes(30), 30, null));
+    }
+
+    /**
+     * Test FR9.4/FR9.7 - Cancelled sessions and the rescheduled appointment itself are ignored
+     */
+    @Test
+    void testHasConflict_IgnoresCancelledAndExcluded() {
+        Appointment cancelled = TestData.appointment(entityManager, psychologist, patient, tenAm, 60);
+        cancelled.setStatus(AppointmentStatus.CANCELLED);
+        Appointment own = TestData.appointment(entityManager, psychologist, patient, tenAm.plusHours(2), 60);
+        entityManager.flush();
+
+        assertFalse(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm, 60, null));
+        assertFalse(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.plusHours(2).plusMinutes(15), 60, own.getId()));
+    }
+
+    /**
+     * Test FR9.7 - A session booked before the length cap was enforced is still found
+     */
+    @Test
+    void testHasConflict_LegacySessionLongerThanCap() {
+        int legacyDuration = AppointmentConflictDetector.MAX_DURATION_MINUTES + 60;
+        TestData.appointment(entityManager, psychologist, patient, tenAm.minusMinutes(legacyDuration - 30), legacyDuration);
+        entityManager.flush();
+
+        assertTrue(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm, 60, null));
+        assertFalse(appointmentConflictDetector.hasConflict(psychologist.getId(), tenAm.plusMinutes(30), 60, null));
+    }
+
+    @Test
+    void testStoredDuration_KeepsLegacyLength() {
+        assertEquals(300, appointmentConflictDetector.storedDuration(300));
+        assertEquals(60, appointmentConflictDetector.storedDuration(null));
+    }
+
+    @Test
+    void testResolveDuration_RejectsOutOfRange() {
+        assertEquals(60, appointmentConflictDetector.resolveDuration(null));
+        assertThrows(IllegalArgumentException.class, () -> appointmentConflictDetector.resolveDuration(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> appointmentConflictDetector.resolveDuration(AppointmentConflictDetector.MAX_DURATION_MINUTES + 1));
+    }
+}
@@ -4,17 +4,21 @@ import com.pats.pats_backend.entity.*;
 import com.pats.pats_backend.enums.AppointmentStatus;
 import com.pats.pats_backend.enums.UserRole;
 import com.pats.pats_backend.repo.AppointmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +33,21 @@ public class AppointmentServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private SlotEngine slotEngine;
+
+    @Mock
+    private CalendarService calendarService;
+
+    @Mock
+    private AppointmentConflictDetector appointmentConflictDetector;
+
+    @Mock
+    private BookingCoordinator bookingCoordinator;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private AppointmentService appointmentService;
 
@@ -76,6 +95,8 @@ public class AppointmentServiceTest {
         testAppointment.setAppointmentDateTime(LocalDateTime.now().plusDays(5));
         testAppointment.setDurationMinutes(60);
         testAppointment.setStatus(AppointmentStatus.SCHEDULED);
+
+        lenient().when(slotEngine.isOpenInDatabase(any(), any(), anyInt())).thenReturn(true);
     }
 
     /**
@@ -87,10 +108,87 @@ public class AppointmentServiceTest {
         testAppointment.setAppointmentDateTime(appointmentTime);
 
         // Simulate a conflicting appointment already booked
-        when(appointmentRepository.countConflictingAppointments(1L, appointmentTime)).thenReturn(1L);
+        when(appointmentConflictDetector.resolveDuration(60)).thenReturn(60);
+        when(appointmentConflictDetector.hasConflict(1L, appointmentTime, 60, null)).thenReturn(true);
 
         // Should throw exception for double-booking
         assertThrows(IllegalStateException.class, () -> appointmentService.bookAppointment(testAppointment));
+        assertEquals(1.0, meterRegistry.counter("pats.booking.conflicts", "operation", "book").count());
+    }
+
+    /**
+     * Test FR9.1 - Reject a time outside the psychologist's availability before locking
+     */
+    @Test
+    void testBookAppointment_OutsideAvailability() {
+        LocalDateTime appointmentTime = LocalDateTime.now().plusDays(5);
+        testAppointment.setAppointmentDateTime(appointmentTime);
+
+        when(appointmentConflictDetector.resolveDuration(60)).thenReturn(60);
+        when(slotEngine.occupancy(1L, appointmentTime, 60, null)).thenReturn(SlotEngine.Occupancy.OUTSIDE_AVAILABILITY);
+
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.bookAppointment(testAppointment));
+        // Rejected only after reloading the node-local calendar
+        verify(slotEngine).invalidate(1L);
+        verify(slotEngine, times(2)).occupancy(1L, appointmentTime, 60, null);
+        verify(bookingCoordinator, never()).lockCalendar(any());
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    /**
+     * Test FR9.1 - Time blocked on another node is rejected under the lock even when this node's calendar shows it free
+     */
+    @Test
+    void testBookAppointment_BlockedElsewhereIsRejectedUnderTheLock() {
+        LocalDateTime appointmentTime = LocalDateTime.now().plusDays(5);
+        testAppointment.setAppointmentDateTime(appointmentTime);
+
+        when(appointmentConflictDetector.resolveDuration(60)).thenReturn(60);
+        when(slotEngine.occupancy(1L, appointmentTime, 60, null)).thenReturn(SlotEngine.Occupancy.FREE);
+        when(slotEngine.isOpenInDatabase(1L, appointmentTime, 60)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.bookAppointment(testAppointment));
+        InOrder inOrder = inOrder(bookingCoordinator, slotEngine);
+        inOrder.verify(bookingCoordinator).lockCalendar(1L);
+        inOrder.verify(slotEngine).isOpenInDatabase(1L, appointmentTime, 60);
+        verify(slotEngine).invalidate(1L);
+        verify(appointmentRepository, never()).save(any(Appointment.class));
+    }
+
+    /**
+     * Test FR9.7 - A slot the occupancy bitsets show as booked is rejected once the database confirms it
+     */
+    @Test
+    void testRescheduleAppointment_BookedInOccupancy() {
+        testAppointment.setAppointmentDateTime(LocalDateTime.now().plusDays(5));
+        LocalDateTime newTime = LocalDateTime.now().plusDays(6);
+
+        when(appointmentRepository.findById(1L)).thenReturn(java.util.Optional.of(testAppointment));
+        when(appointmentConflictDetector.storedDuration(60)).thenReturn(60);
+        when(slotEngine.occupancy(1L, newTime, 60, 1L)).thenReturn(SlotEngine.Occupancy.BOOKED);
+        when(appointmentConflictDetector.hasConflict(1L, newTime, 60, 1L)).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> appointmentService.rescheduleAppointment(1L, newTime));
+        assertEquals(1.0, meterRegistry.counter("pats.booking.conflicts", "operation", "reschedule").count());
+        verify(bookingCoordinator, never()).lockCalendar(any());
+    }
+
+    /**
+     * Test FR9.7 - A booking the node-local calendar still shows, but the database no longer has, does not block
+     */
+    @Test
+    void testBookAppointment_StaleOccupancyIsNotTrusted() {
+        LocalDateTime appointmentTime = LocalDateTime.now().plusDays(5);
+        testAppointment.setAppointmentDateTime(appointmentTime);
+
+        when(appointmentConflictDetector.resolveDuration(60)).thenReturn(60);
+        when(slotEngine.occupancy(1L, appointmentTime, 60, null)).thenReturn(SlotEngine.Occupancy.BOOKED);
+        when(appointmentConflictDetector.hasConflict(1L, appointmentTime, 60, null)).thenReturn(false);
+        when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
+
+        assertNotNull(appointmentService.bookAppointment(testAppointment));
+        verify(slotEngine).invalidate(1L);
+        assertEquals(0.0, meterRegistry.counter("pats.booking.conflicts", "operation", "book").count());
     }
 
     /**
@@ -102,7 +200,8 @@ public class AppointmentServiceTest {
         testAppointment.setAppointmentDateTime(appointmentTime);
 
         // Mock no conflicts
-        when(appointmentRepository.countConflictingAppointments(1L, appointmentTime)).thenReturn(0L);
+        when(appointmentConflictDetector.resolveDuration(60)).thenReturn(60);
+        when(appointmentConflictDetector.hasConflict(1L, appointmentTime, 60, null)).thenReturn(false);
         when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
 
         // Book appointment
@@ -143,7 +242,8 @@ public class AppointmentServiceTest {
         LocalDateTime newDateTime = LocalDateTime.now().plusDays(5);
 
         when(appointmentRepository.findById(1L)).thenReturn(java.util.Optional.of(testAppointment));
-        when(appointmentRepository.countConflictingAppointments(1L, newDateTime)).thenReturn(0L);
+        when(appointmentConflictDetector.storedDuration(60)).thenReturn(60);
+        when(appointmentConflictDetector.hasConflict(1L, newDateTime, 60, 1L)).thenReturn(false);
         when(appointmentRepository.save(any(Appointment.class))).thenReturn(testAppointment);
 
         // Reschedule appointment
@@ -0,0 +1,210 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.AuditLogDTO;
+import com.pats.pats_backend.dto.AuditLogPageDTO;
+import com.pats.pats_backend.entity.AuditLog;
+import com.pats.pats_backend.entity.PatientRecord;
+import com.pats.pats_backend.entity.User;
+import com.pats.pats_backend.enums.UserRole;
+import com.pats.pats_backend.repo.AuditLogRepository;
+import com.pats.pats_backend.repo.PatientRecordRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FR17.9 - Keyset range scans over the audit trail and archival of cold months
+ */
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuditLogService.class, AuditPartitionManager.class, NamedLocks.class, AuditTrailWriter.class, SimpleMeterRegistry.class})
+class AuditLogStorageTest {
+
+    @Autowired
+    private AuditLogService auditLogService;
+
+    @Autowired
+    private AuditPartitionManager auditPartitionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PatientRecordRepository patientRecordRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    private Path archiveDir;
+
+    private User auditor;
+    private User other;
+    private PatientRecord record;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            auditor = TestData.user(entityManager, "auditor", UserRole.PSYCHOLOGIST);
+            other = TestData.user(entityManager, "other", UserRole.PSYCHOLOGIST);
+            record = new PatientRecord();
+            record.setPatient(TestData.patient(entityManager, "audited"));
+            entityManager.persist(record);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogRepository.deleteAllInBatch();
+        patientRecordRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Test FR17.9 - Pages follow (timestamp, id) newest first without gaps or repeats, including equal timestamps
+     */
+    @Test
+    void testSearch_KeysetPagesWalkWholeTrail() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 10, 9, 0);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 7; i++) {
+                // pairs of entries share a timestamp
+                audit(auditor, "VIEWED", base.plusMinutes(i / 2));
+            }
+        });
+
+        List<AuditLogDTO> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            AuditLogPageDTO page = auditLogService.search(null, record.getId(), null, null, null, cursor, 3);
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(7, walked.size());
+        assertEquals(7, walked.stream().map(AuditLogDTO::getId).distinct().count());
+        for (int i = 1; i < walked.size(); i++) {
+            AuditLogDTO newer = walked.get(i - 1);
+            AuditLogDTO older = walked.get(i);
+            assertTrue(newer.getActionTimestamp().isAfter(older.getActionTimestamp())
+                    || newer.getActionTimestamp().equals(older.getActionTimestamp()) && newer.getId() > older.getId());
+        }
+        assertEquals("auditor", walked.get(0).getUsername());
+        assertEquals(record.getId(), walked.get(0).getPatientRecordId());
+    }
+
+    /**
+     * Test FR17.9 - User, action and [from, to) filters combine
+     */
+    @Test
+    void testSearch_FiltersByUserActionAndWindow() {
+        LocalDateTime base = LocalDateTime.of(2026, 3, 10, 9, 0);
+        transactionTemplate.executeWithoutResult(status -> {
+            audit(auditor, "VIEWED", base);
+            audit(auditor, "UPDATED", base.plusHours(1));
+            audit(auditor, "VIEWED", base.plusHours(2));
+            audit(other, "VIEWED", base.plusHours(1));
+        });
+
+        AuditLogPageDTO page = auditLogService.search("auditor", null, "VIEWED", base, base.plusHours(2), null, 10);
+
+        assertEquals(1, page.getItems().size());
+        assertEquals(base, page.getItems().get(0).getActionTimestamp());
+        assertFalse(page.getHasMore());
+        assertThrows(IllegalArgumentException.class,
+                () -> auditLogService.search(null, null, null, base, base, null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> auditLogService.search(null, null, null, null, null, "not-a-cursor", 10));
+    }
+
+    /**
+     * Test FR17.9 - Months past retention are exported to gzipped JSON lines and removed; recent months stay
+     */
+    @Test
+    void testArchiveColdMonths_ExportsAndRemovesOldMonths() throws Exception {
+        YearMonth now = YearMonth.now();
+        YearMonth cold = now.minusMonths(14);
+        transactionTemplate.executeWithoutResult(status -> {
+            audit(auditor, "VIEWED", cold.atDay(3).atTime(10, 0));
+            audit(auditor, "UPDATED", cold.atEndOfMonth().atTime(23, 59));
+            audit(other, "VIEWED", cold.plusMonths(1).atDay(1).atStartOfDay());
+            audit(auditor, "VIEWED", now.atDay(1).atTime(8, 0));
+        });
+        ReflectionTestUtils.setField(auditPartitionManager, "archiveDir", archiveDir.toString());
+
+        assertEquals(3, auditPartitionManager.archiveColdMonths());
+
+        assertEquals(2, readLines(archiveDir.resolve("audit_logs-" + cold + ".jsonl.gz")).size());
+        List<String> next = readLines(archiveDir.resolve("audit_logs-" + cold.plusMonths(1) + ".jsonl.gz"));
+        assertEquals(1, next.size());
+        assertTrue(next.get(0).contains("\"username\":\"other\""));
+        assertEquals(1, auditLogRepository.count());
+        assertEquals(0, auditPartitionManager.archiveColdMonths());
+    }
+
+    @Test
+    void testPartitionDefinitions_OnePartitionPerMonthPlusCatchAll() {
+        assertEquals("PARTITION p202611 VALUES LESS THAN ('2026-12-01 00:00:00'), "
+                        + "PARTITION p202612 VALUES LESS THAN ('2027-01-01 00:00:00'), "
+                        + "PARTITION pmax VALUES LESS THAN (MAXVALUE)",
+                AuditPartitionManager.partitionDefinitions(YearMonth.of(2026, 11), YearMonth.of(2026, 12)));
+    }
+
+    private void audit(User user, String action, LocalDateTime timestamp) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(UUID.randomUUID().toString());
+        auditLog.setUser(entityManager.getReference(User.class, user.getId()));
+        auditLog.setUserEmail(user.getEmail());
+        auditLog.setPatientRecord(entityManager.getReference(PatientRecord.class, record.getId()));
+        auditLog.setAction(action);
+        auditLog.setActionTimestamp(timestamp);
+        entityManager.persist(auditLog);
+    }
+
+    private static List<String> readLines(Path file) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
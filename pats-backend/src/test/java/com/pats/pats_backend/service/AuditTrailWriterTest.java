@@ -0,0 +1,337 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.AuditLog;
+import com.pats.pats_backend.entity.PatientRecord;
+import com.pats.pats_backend.enums.UserRole;
+import com.pats.pats_backend.repo.AuditLogRepository;
+import com.pats.pats_backend.repo.PatientRecordRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.QueryAssertions;
+import com.pats.pats_backend.support.TestData;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * FR17.9 - Audit events are written in batches after commit and survive a restart through the write-ahead log
+ */
+@DataJpaTest(showSql = false, properties = QueryAssertions.INSPECTOR_PROPERTY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AuditTrailWriter.class, SimpleMeterRegistry.class})
+class AuditTrailWriterTest {
+
+    @Autowired
+    private AuditTrailWriter auditTrailWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PatientRecordRepository patientRecordRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    private Path walDir;
+
+    private Long recordId;
+
+    @BeforeEach
+    void setUp() {
+        recordId = transactionTemplate.execute(status -> {
+            TestData.user(entityManager, "auditor", UserRole.PSYCHOLOGIST);
+            PatientRecord record = new PatientRecord();
+            record.setPatient(TestData.patient(entityManager, "audited"));
+            entityManager.persist(record);
+            return record.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLogRepository.deleteAllInBatch();
+        patientRecordRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Test FR17.9 - A batch resolves its users once and inserts through a single JDBC batch
+     */
+    @Test
+    void testFlush_WritesQueuedEventsInOneBatch() {
+        for (int i = 0; i < 20; i++) {
+            auditTrailWriter.record("auditor", recordId, "VIEW", "view " + i);
+        }
+        assertEquals(20, auditTrailWriter.getPendingCount());
+
+        int written = QueryAssertions.assertMaxQueries(5, () -> auditTrailWriter.flush());
+
+        assertEquals(20, written);
+        assertEquals(0, auditTrailWriter.getPendingCount());
+        List<AuditLog> trail = auditLogRepository.findByPatientRecordIdOrderByActionTimestampDesc(recordId);
+        assertEquals(20, trail.size());
+        assertTrue(trail.stream().allMatch(log -> "auditor@test.com".equals(log.getUserEmail())));
+    }
+
+    /**
+     * Test FR17.9 - Only committed actions are audited
+     */
+    @Test
+    void testRecord_EnqueuesOnlyAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            auditTrailWriter.record("auditor", recordId, "UPDATE", "rolled back");
+            status.setRollbackOnly();
+        });
+        assertEquals(0, auditTrailWriter.getPendingCount());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            auditTrailWriter.record("auditor", recordId, "UPDATE", "committed");
+            assertEquals(0, auditTrailWriter.getPendingCount());
+        });
+        assertEquals(1, auditTrailWriter.getPendingCount());
+
+        auditTrailWriter.flush();
+        assertEquals("committed", auditLogRepository.findAll().get(0).getActionDetails());
+    }
+
+    /**
+     * Test FR17.9 - Events left in the write-ahead log are replayed once, skipping any already committed
+     */
+    @Test
+    void testInit_ReplaysWriteAheadLogWithoutDuplicates() throws Exception {
+        AuditEvent committed = new AuditEvent("event-1", "auditor", recordId, "VIEW", "before crash",
+                LocalDateTime.now(), false);
+        AuditEvent lost = new AuditEvent("event-2", "auditor", recordId, "UPDATE", "lost in crash",
+                LocalDateTime.now(), false);
+        try (AuditWriteAheadLog wal = new AuditWriteAheadLog(walDir, "audit.wal", false, 1 << 20)) {
+            wal.append(committed, false);
+            wal.append(lost, false);
+        }
+        auditTrailWriter.record("auditor", recordId, "VIEW", "before crash");
+        auditTrailWriter.flush();
+        transactionTemplate.executeWithoutResult(status -> entityManager.createQuery(
+                        "UPDATE AuditLog a SET a.eventId = 'event-1'")
+                .executeUpdate());
+
+        AuditTrailWriter restarted = walWriter();
+        restarted.init();
+        assertEquals(2, restarted.getPendingCount());
+        restarted.flush();
+        restarted.stop();
+
+        List<AuditLog> trail = auditLogRepository.findByPatientRecordIdOrderByActionTimestampDesc(recordId);
+        assertEquals(2, trail.size());
+        assertEquals(1, trail.stream().filter(log -> "event-2".equals(log.getEventId())).count());
+        assertEquals(0, walBytes());
+    }
+
+    /**
+     * Test FR17.9 - While the database is unavailable events are kept, backed off and left in the write-ahead log
+     */
+    @Test
+    void testFlush_TransientFailureBacksOffWithoutDroppingEvents() throws Exception {
+        AuditTrailWriter writer = walWriter();
+        writer.init();
+        UserRepository unavailable = mock(UserRepository.class);
+        when(unavailable.findByUsernameIn(anyCollection())).thenThrow(new DataAccessResourceFailureException("down"));
+        ReflectionTestUtils.setField(writer, "userRepository", unavailable);
+        writer.record("auditor", recordId, "VIEW", "during outage");
+        writer.record("auditor", recordId, "VIEW", "during outage");
+
+        assertEquals(0, writer.flush());
+        // Backing off: the next flush does not touch the database
+        assertEquals(0, writer.flush());
+        verify(unavailable, times(1)).findByUsernameIn(anyCollection());
+        assertEquals(2, writer.getPendingCount());
+        assertTrue(walBytes() > 0);
+
+        ReflectionTestUtils.setField(writer, "userRepository", userRepository);
+        ReflectionTestUtils.setField(writer, "retryAtNanos", System.nanoTime());
+        assertEquals(2, writer.flush());
+        writer.stop();
+
+        assertEquals(2, auditLogRepository.count());
+        assertEquals(0, walBytes());
+    }
+
+    /**
+     * Test FR17.9 - An event the database rejects is dead-lettered without holding up the rest of its batch
+     */
+    @Test
+    void testFlush_RejectedEventIsDeadLetteredAndRestWritten() throws Exception {
+        AuditTrailWriter writer = walWriter();
+        writer.init();
+        writer.record("auditor", recordId, "VIEW", "first");
+        writer.record("auditor", recordId, "X".repeat(300), "too long for the action column");
+        writer.record("auditor", recordId, "VIEW", "third");
+
+        assertEquals(3, writer.flush());
+        writer.stop();
+
+        assertEquals(2, auditLogRepository.count());
+        assertEquals(0, walBytes());
+        try (AuditWriteAheadLog deadLetters = new AuditWriteAheadLog(walDir, "audit.dead", false, Long.MAX_VALUE)) {
+            List<AuditEvent> rejected = deadLetters.read(10);
+            assertEquals(1, rejected.size());
+            assertEquals("too long for the action column", rejected.get(0).details());
+        }
+        assertEquals(1.0, meterRegistry.counter("pats.audit.dead-letters").count());
+    }
+
+    /**
+     * Test FR17.9 - Beyond capacity events wait in the write-ahead log only and are read back once the database is up
+     */
+    @Test
+    void testEnqueue_SpillsToWriteAheadLogBeyondCapacity() throws Exception {
+        AuditTrailWriter writer = walWriter();
+        ReflectionTestUtils.setField(writer, "capacity", 2);
+        writer.init();
+        UserRepository unavailable = mock(UserRepository.class);
+        when(unavailable.findByUsernameIn(anyCollection())).thenThrow(new DataAccessResourceFailureException("down"));
+        ReflectionTestUtils.setField(writer, "userRepository", unavailable);
+        for (int i = 0; i < 5; i++) {
+            writer.record("auditor", recordId, "VIEW", "during outage " + i);
+        }
+
+        assertEquals(0, writer.flush());
+        assertEquals(5, writer.getPendingCount());
+        assertTrue(queued(writer) + retried(writer) <= 2);
+
+        ReflectionTestUtils.setField(writer, "userRepository", userRepository);
+        ReflectionTestUtils.setField(writer, "retryAtNanos", System.nanoTime());
+        assertEquals(5, writer.flush());
+        writer.stop();
+
+        List<AuditLog> trail = auditLogRepository.findByPatientRecordIdOrderByActionTimestampDesc(recordId);
+        assertEquals(5, trail.size());
+        assertEquals(0, walBytes());
+    }
+
+    /**
+     * Test FR17.9 - Without a write-ahead log, events beyond capacity are dropped and counted, never written inline
+     */
+    @Test
+    void testEnqueue_WithoutWriteAheadLogDropsBeyondCapacity() {
+        AuditTrailWriter writer = walWriter();
+        ReflectionTestUtils.setField(writer, "walEnabled", false);
+        ReflectionTestUtils.setField(writer, "capacity", 2);
+
+        QueryAssertions.assertMaxQueries(0, () -> {
+            for (int i = 0; i < 3; i++) {
+                writer.record("auditor", recordId, "VIEW", "view " + i);
+            }
+        });
+
+        assertEquals(2, writer.getPendingCount());
+        assertEquals(1.0, meterRegistry.counter("pats.audit.dropped").count());
+    }
+
+    /**
+     * Test FR17.9 - Persisted segments are deleted, so a restart replays only what was still outstanding
+     */
+    @Test
+    void testFlush_DeletesPersistedSegments() throws Exception {
+        AuditTrailWriter writer = walWriter();
+        ReflectionTestUtils.setField(writer, "walSegmentBytes", 1L);
+        writer.init();
+        for (int i = 0; i < 4; i++) {
+            writer.record("auditor", recordId, "VIEW", "view " + i);
+        }
+        assertEquals(4, walSegments().size());
+
+        assertEquals(4, writer.flush());
+        assertEquals(1, walSegments().size());
+        assertEquals(0, walBytes());
+
+        writer.record("auditor", recordId, "VIEW", "outstanding");
+        writer.record("auditor", recordId, "VIEW", "outstanding");
+        // Crash: the outstanding events are never flushed
+        ((AuditWriteAheadLog) ReflectionTestUtils.getField(writer, "wal")).close();
+        AuditTrailWriter restarted = walWriter();
+        restarted.init();
+        assertEquals(2, restarted.getPendingCount());
+        assertEquals(2, restarted.flush());
+        restarted.stop();
+        assertEquals(6, auditLogRepository.count());
+    }
+
+    private List<Path> walSegments() throws IOException {
+        try (Stream<Path> files = Files.list(walDir)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("audit.wal.")).toList();
+        }
+    }
+
+    private long walBytes() throws IOException {
+        long bytes = 0;
+        for (Path segment : walSegments()) {
+            bytes += Files.size(segment);
+        }
+        return bytes;
+    }
+
+    private static int queued(AuditTrailWriter writer) {
+        return ((Collection<?>) ReflectionTestUtils.getField(writer, "queue")).size();
+    }
+
+    private static int retried(AuditTrailWriter writer) {
+        return ((Collection<?>) ReflectionTestUtils.getField(writer, "retry")).size();
+    }
+
+    private AuditTrailWriter walWriter() {
+        AuditTrailWriter writer = new AuditTrailWriter(transactionManager);
+        ReflectionTestUtils.setField(writer, "entityManager", entityManager);
+        ReflectionTestUtils.setField(writer, "userRepository", userRepository);
+        ReflectionTestUtils.setField(writer, "auditLogRepository", auditLogRepository);
+        ReflectionTestUtils.setField(writer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(writer, "capacity", 100);
+        ReflectionTestUtils.setField(writer, "batchSize", 50);
+        ReflectionTestUtils.setField(writer, "flushIntervalMs", 200L);
+        ReflectionTestUtils.setField(writer, "walEnabled", true);
+        ReflectionTestUtils.setField(writer, "walDir", walDir.toString());
+        ReflectionTestUtils.setField(writer, "deadLetterDir", walDir.toString());
+        return writer;
+    }
+}
@@ -29,6 +29,15 @@ public class AvailabilityServiceTest {
     @Mock
     private AvailabilityRepository availabilityRepository;
 
+    @Mock
+    private SlotEngine slotEngine;
+
+    @Mock
+    private CalendarService calendarService;
+
+    @Mock
+    private BookingCoordinator bookingCoordinator;
+
     @InjectMocks
     private AvailabilityService availabilityService;
 
@@ -73,9 +82,21 @@ public class AvailabilityServiceTest {
         assertEquals(DayOfWeek.MONDAY, createdAvailability.getDayOfWeek());
         assertEquals(LocalTime.of(9, 0), createdAvailability.getStartTime());
         assertEquals(LocalTime.of(17, 0), createdAvailability.getEndTime());
+        verify(bookingCoordinator).lockCalendar(1L);
         verify(availabilityRepository, times(1)).save(any(Availability.class));
     }
 
+    /**
+     * Test FR9.1 - Malformed recurrence rules are rejected before saving
+     */
+    @Test
+    void testCreateAvailability_InvalidRecurrenceRule() {
+        testAvailability.setRecurrenceRule("FREQ=HOURLY");
+
+        assertThrows(IllegalArgumentException.class, () -> availabilityService.createAvailability(testAvailability));
+        verify(availabilityRepository, never()).save(any(Availability.class));
+    }
+
     /**
      * Test FR9.1 - Update availability schedule
      */
@@ -0,0 +1,157 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.repo.AppointmentReminderRepository;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.PsychologistRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FR9.7 - Many threads racing for overlapping slots must never produce a double-booking
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:booking-stress;LOCK_TIMEOUT=30000")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({AppointmentService.class, AppointmentConflictDetector.class, BookingCoordinator.class, SlotEngine.class,
+        CalendarService.class, AppointmentReminderService.class, NotificationService.class, NotificationChannel.class,
+        ReminderSweeper.class, ReminderScheduler.class, SimpleMeterRegistry.class})
+class BookingConcurrencyStressTest {
+
+    private static final int THREADS_PER_PSYCHOLOGIST = 16;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentReminderRepository appointmentReminderRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        appointmentReminderRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        psychologistRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testConcurrentBookings_NoDoubleBooking() throws Exception {
+        List<Psychologist> psychologists = transactionTemplate.execute(status -> List.of(
+                TestData.psychologist(entityManager, "psych-a"),
+                TestData.psychologist(entityManager, "psych-b")));
+        Patient patient = transactionTemplate.execute(status -> TestData.patient(entityManager, "patient-stress"));
+        LocalDateTime day = LocalDateTime.now().plusDays(7).withHour(8).withMinute(0).withSecond(0).withNano(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_PER_PSYCHOLOGIST * psychologists.size());
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                // Every attempt in a round overlaps every other attempt for the same psychologist
+                LocalDateTime roundStart = day.plusHours(round * 2L);
+                CountDownLatch startGate = new CountDownLatch(1);
+                List<Future<?>> attempts = new ArrayList<>();
+                for (Psychologist psychologist : psychologists) {
+                    for (int i = 0; i < THREADS_PER_PSYCHOLOGIST; i++) {
+                        LocalDateTime start = roundStart.plusMinutes((i % 4) * 15L);
+                        attempts.add(executor.submit(() -> {
+                            startGate.await();
+                            try {
+                                appointmentService.bookAppointment(newAppointment(psychologist, patient, start));
+                                booked.incrementAndGet();
+                            } catch (IllegalStateException e) {
+                                rejected.incrementAndGet();
+                            }
+                            return null;
+                        }));
+                    }
+                }
+                startGate.countDown();
+                for (Future<?> attempt : attempts) {
+                    attempt.get(60, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(ROUNDS * psychologists.size(), booked.get());
+        assertEquals(ROUNDS * psychologists.size() * (THREADS_PER_PSYCHOLOGIST - 1), rejected.get());
+        for (Psychologist psychologist : psychologists) {
+            assertNoOverlaps(appointmentRepository.findByPsychologistId(psychologist.getId()));
+        }
+    }
+
+    private static Appointment newAppointment(Psychologist psychologist, Patient patient, LocalDateTime start) {
+        Appointment appointment = new Appointment();
+        appointment.setPsychologist(psychologist);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(start);
+        appointment.setDurationMinutes(60);
+        return appointment;
+    }
+
+    private static void assertNoOverlaps(List<Appointment> appointments) {
+        List<Appointment> active = appointments.stream()
+                .filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
+                .toList();
+        for (int i = 0; i < active.size(); i++) {
+            for (int j = i + 1; j < active.size(); j++) {
+                Appointment a = active.get(i);
+                Appointment b = active.get(j);
+                boolean overlap = a.getAppointmentDateTime().isBefore(b.getAppointmentDateTime().plusMinutes(b.getDurationMinutes()))
+                        && b.getAppointmentDateTime().isBefore(a.getAppointmentDateTime().plusMinutes(a.getDurationMinutes()));
+                assertFalse(overlap, "double-booked: " + a.getId() + " and " + b.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.CalendarDayDTO;
+import com.pats.pats_backend.dto.CalendarWeekDTO;
+import com.pats.pats_backend.dto.TimeSlotDTO;
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.Availability;
+import com.pats.pats_backend.entity.CalendarWeek;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.AvailabilityRepository;
+import com.pats.pats_backend.repo.CalendarWeekRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.PsychologistRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.QueryAssertions;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false, properties = QueryAssertions.INSPECTOR_PROPERTY)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CalendarService.class)
+class CalendarServiceTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CalendarWeekRepository calendarWeekRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AvailabilityRepository availabilityRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long psychologistId;
+    private Long patientId;
+    private Long weeklyWindowId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Psychologist psychologist = TestData.psychologist(entityManager, "psych-calendar");
+            Patient patient = TestData.patient(entityManager, "patient-calendar");
+            weeklyWindowId = availability(psychologist, DayOfWeek.MONDAY, null, 9, 17, true).getId();
+            availability(psychologist, DayOfWeek.MONDAY, null, 12, 13, false);
+            TestData.appointment(entityManager, psychologist, patient, MONDAY.atTime(10, 0), 60);
+            Appointment cancelled = TestData.appointment(entityManager, psychologist, patient, MONDAY.atTime(14, 0), 60);
+            cancelled.setStatus(AppointmentStatus.CANCELLED);
+            psychologistId = psychologist.getId();
+            patientId = patient.getId();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        calendarWeekRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        availabilityRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        psychologistRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testGetWeek_BuildsAvailabilitySessionsAndFreeGaps() {
+        CalendarWeekDTO week = document(calendarService.getWeek(psychologistId, MONDAY.plusDays(3)));
+
+        assertEquals(MONDAY, week.getWeekStart());
+        assertEquals(7, week.getDays().size());
+        CalendarDayDTO monday = week.getDays().get(0);
+        assertEquals(List.of("09:00-12:00", "13:00-17:00"), times(monday.getAvailability()));
+        assertEquals(1, monday.getSessions().size());
+        assertEquals("Patient patient-calendar", monday.getSessions().get(0).getPatientName());
+        assertEquals(MONDAY.atTime(11, 0), monday.getSessions().get(0).getEndTime());
+        assertEquals(List.of("09:00-10:00", "11:00-12:00", "13:00-17:00"), times(monday.getFreeGaps()));
+        assertTrue(week.getDays().get(1).getAvailability().isEmpty());
+    }
+
+    @Test
+    void testGetWeek_ServesStoredWeekInOneQueryWithStableEtag() {
+        String etag = calendarService.getWeek(psychologistId, MONDAY).getEtag();
+
+        CalendarWeek stored = QueryAssertions.assertMaxQueries(1, () -> calendarService.getWeek(psychologistId, MONDAY.plusDays(6)));
+
+        assertEquals(etag, stored.getEtag());
+        assertEquals(1, calendarWeekRepository.count());
+    }
+
+    @Test
+    void testAppointmentChange_RebuildsStoredWeekAfterCommit() {
+        String before = calendarService.getWeek(psychologistId, MONDAY).getEtag();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Appointment booked = TestData.appointment(entityManager,
+                    entityManager.find(Psychologist.class, psychologistId),
+                    entityManager.find(Patient.class, patientId), MONDAY.atTime(15, 0), 60);
+            calendarService.onAppointmentChanged(booked);
+            // Nothing is rebuilt before the commit
+            assertEquals(before, calendarWeekRepository.findAll().get(0).getEtag());
+        });
+
+        CalendarWeek after = QueryAssertions.assertMaxQueries(1, () -> calendarService.getWeek(psychologistId, MONDAY));
+        assertNotEquals(before, after.getEtag());
+        assertEquals(List.of("09:00-10:00", "11:00-12:00", "13:00-15:00", "16:00-17:00"),
+                times(document(after).getDays().get(0).getFreeGaps()));
+    }
+
+    @Test
+    void testAppointmentChange_LeavesWeeksNobodyReadUnbuilt() {
+        transactionTemplate.executeWithoutResult(status -> calendarService.onAppointmentChanged(
+                appointmentRepository.findByPsychologistId(psychologistId).get(0)));
+
+        assertEquals(0, calendarWeekRepository.count());
+    }
+
+    @Test
+    void testRecurringAvailabilityChange_DropsStoredWeeks() {
+        calendarService.getMonth(psychologistId, YearMonth.of(2030, 1));
+        assertEquals(5, calendarWeekRepository.count());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Availability window = entityManager.find(Availability.class, weeklyWindowId);
+            window.setEndTime(LocalTime.of(18, 0));
+            calendarService.onAvailabilityChanged(psychologistId, null);
+        });
+
+        assertEquals(0, calendarWeekRepository.count());
+        CalendarDayDTO monday = document(calendarService.getWeek(psychologistId, MONDAY)).getDays().get(0);
+        assertEquals(List.of("09:00-12:00", "13:00-18:00"), times(monday.getAvailability()));
+    }
+
+    @Test
+    void testDatedOverride_ReplacesWeeklyScheduleForThatDayOnly() {
+        calendarService.getWeek(psychologistId, MONDAY);
+        calendarService.getWeek(psychologistId, MONDAY.plusWeeks(1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            availability(entityManager.find(Psychologist.class, psychologistId), null, MONDAY.plusWeeks(1), 18, 20, true);
+            calendarService.onAvailabilityChanged(psychologistId, MONDAY.plusWeeks(1));
+        });
+
+        assertEquals(2, calendarWeekRepository.count());
+        CalendarDayDTO overridden = document(calendarService.getWeek(psychologistId, MONDAY.plusWeeks(1))).getDays().get(0);
+        assertEquals(List.of("18:00-20:00"), times(overridden.getAvailability()));
+        CalendarDayDTO regular = document(calendarService.getWeek(psychologistId, MONDAY)).getDays().get(0);
+        assertEquals(List.of("09:00-12:00", "13:00-17:00"), times(regular.getAvailability()));
+    }
+
+    @Test
+    void testGetMonth_CoversEveryOverlappingWeekAndEtagFollowsWeeks() {
+        List<CalendarWeek> weeks = calendarService.getMonth(psychologistId, YearMonth.of(2030, 1));
+
+        assertEquals(LocalDate.of(2029, 12, 31), weeks.get(0).getWeekStart());
+        assertEquals(LocalDate.of(2030, 1, 28), weeks.get(weeks.size() - 1).getWeekStart());
+        assertEquals(CalendarService.combinedEtag(weeks),
+                CalendarService.combinedEtag(calendarService.getMonth(psychologistId, YearMonth.of(2030, 1))));
+        assertNotEquals(CalendarService.combinedEtag(weeks), CalendarService.combinedEtag(weeks.subList(1, weeks.size())));
+    }
+
+    @Test
+    void testStaleBuild_NeverOverwritesWeekBuiltFromLaterSnapshot() {
+        CalendarWeek stored = calendarService.getWeek(psychologistId, MONDAY);
+
+        Integer updated = transactionTemplate.execute(status -> calendarWeekRepository.updateIfNewer(
+                psychologistId, MONDAY, "stale", "{}", stored.getBuiltAt().minusSeconds(1)));
+
+        assertEquals(0, updated);
+        assertEquals(stored.getEtag(), calendarWeekRepository.findAll().get(0).getEtag());
+    }
+
+    @Test
+    void testIsOwnedBy_OnlyThePsychologistsOwnAccount() {
+        assertTrue(calendarService.isOwnedBy(psychologistId, "psych-calendar"));
+        assertFalse(calendarService.isOwnedBy(psychologistId, "patient-calendar"));
+        assertFalse(calendarService.isOwnedBy(psychologistId, null));
+    }
+
+    private Availability availability(Psychologist psychologist, DayOfWeek dayOfWeek, LocalDate specificDate,
+                                      int fromHour, int toHour, boolean available) {
+        Availability availability = new Availability();
+        availability.setPsychologist(psychologist);
+        availability.setDayOfWeek(dayOfWeek);
+        availability.setSpecificDate(specificDate);
+        availability.setStartTime(LocalTime.of(fromHour, 0));
+        availability.setEndTime(LocalTime.of(toHour, 0));
+        availability.setIsAvailable(available);
+        entityManager.persist(availability);
+        return availability;
+    }
+
+    private static CalendarWeekDTO document(CalendarWeek week) {
+        return JSON.readValue(week.getDocument(), CalendarWeekDTO.class);
+    }
+
+    private static List<String> times(List<TimeSlotDTO> slots) {
+        return slots.stream()
+                .map(slot -> slot.getStartTime().toLocalTime() + "-" + slot.getEndTime().toLocalTime())
+                .toList();
+    }
+}
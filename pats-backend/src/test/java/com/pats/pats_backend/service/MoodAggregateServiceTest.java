@@ -0,0 +1,200 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.MoodSummaryDTO;
+import com.pats.pats_backend.entity.MoodAggregate;
+import com.pats.pats_backend.entity.MoodEntry;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.MoodAggregateRepository;
+import com.pats.pats_backend.repo.MoodEntryRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MoodAggregateServiceTest {
+
+    @Mock
+    private MoodAggregateRepository moodAggregateRepository;
+
+    @Mock
+    private MoodEntryRepository moodEntryRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @InjectMocks
+    private MoodAggregateService moodAggregateService;
+
+    private Patient testPatient;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        testPatient = new Patient();
+        testPatient.setId(1L);
+        today = LocalDate.of(2026, 3, 31);
+    }
+
+    @Test
+    void testApply_RollingWindowsAndStreak() {
+        MoodAggregate aggregate = aggregate();
+        // 40 days ago, then a 5-day run ending today
+        MoodAggregateService.apply(aggregate, today.minusDays(40), 2);
+        int[] ratings = {4, 6, 8, 6, 6};
+        for (int i = 0; i < ratings.length; i++) {
+            MoodAggregateService.apply(aggregate, today.minusDays(4 - i), ratings[i]);
+        }
+
+        MoodSummaryDTO summary = MoodAggregateService.toSummary(aggregate, today);
+
+        assertEquals(6, summary.getLastRating());
+        assertEquals(5, summary.getCurrentStreak());
+        assertEquals(5, summary.getLongestStreak());
+        assertEquals(6L, summary.getTotalEntries());
+        assertEquals(5, summary.getLast7Days().getCheckins());
+        assertEquals(6.0, summary.getLast7Days().getMean(), 1e-9);
+        assertEquals(1.6, summary.getLast7Days().getVariance(), 1e-9);
+        assertEquals(4, summary.getLast7Days().getMin());
+        assertEquals(8, summary.getLast7Days().getMax());
+        assertEquals(5, summary.getLast30Days().getCheckins());
+        assertEquals(6, summary.getLast90Days().getCheckins());
+        assertEquals(2, summary.getLast90Days().getMin());
+    }
+
+    @Test
+    void testApply_GapLongerThanWindowClearsRing() {
+        MoodAggregate aggregate = aggregate();
+        for (int i = 0; i < 10; i++) {
+            MoodAggregateService.apply(aggregate, today.minusDays(200 + i), 9);
+        }
+        MoodAggregateService.apply(aggregate, today.minusDays(2), 3);
+
+        MoodSummaryDTO summary = MoodAggregateService.toSummary(aggregate, today);
+
+        assertEquals(1, summary.getLast90Days().getCheckins());
+        assertEquals(3, summary.getLast90Days().getMax());
+        assertEquals(0, summary.getCurrentStreak(), "streak lapses after a missed day");
+        assertEquals(1, summary.getLongestStreak());
+    }
+
+    @Test
+    void testToSummary_NoCheckinsInWindow() {
+        MoodAggregate aggregate = aggregate();
+        MoodAggregateService.apply(aggregate, today.minusDays(20), 5);
+
+        MoodSummaryDTO summary = MoodAggregateService.toSummary(aggregate, today);
+
+        assertEquals(0, summary.getLast7Days().getCheckins());
+        assertNull(summary.getLast7Days().getMean());
+        assertEquals(5.0, summary.getLast30Days().getMean(), 1e-9);
+    }
+
+    @Test
+    void testRecord_UpdatesExistingAggregateWithoutReadingHistory() {
+        MoodAggregate aggregate = aggregate();
+        MoodAggregateService.apply(aggregate, LocalDate.now().minusDays(1), 5);
+        when(moodAggregateRepository.existsById(1L)).thenReturn(true);
+        when(moodAggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(aggregate));
+
+        moodAggregateService.record(entry(LocalDate.now(), 7));
+
+        assertEquals(7, aggregate.getLastRating());
+        assertEquals(2, aggregate.getCurrentStreak());
+        verify(moodEntryRepository, never()).findEntryDatesByPatient(any(Patient.class));
+        verify(patientRepository, never()).findByIdForUpdate(anyLong());
+    }
+
+    @Test
+    void testRecord_RebuildsMissingAggregateFromHistory() {
+        when(patientRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPatient));
+        when(moodAggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(moodEntryRepository.findEntryDatesByPatient(testPatient)).thenReturn(List.of(
+                today.minusDays(120), today.minusDays(2), today.minusDays(1), today));
+        when(moodEntryRepository.findByPatientInRange(testPatient, today.minusDays(89).atStartOfDay(),
+                today.plusDays(1).atStartOfDay())).thenReturn(List.of(
+                entry(today.minusDays(2), 4), entry(today.minusDays(1), 6), entry(today, 8)));
+
+        moodAggregateService.record(entry(today, 8));
+
+        ArgumentCaptor<MoodAggregate> saved = ArgumentCaptor.forClass(MoodAggregate.class);
+        verify(moodAggregateRepository).save(saved.capture());
+        assertEquals(4L, saved.getValue().getTotalEntries());
+        assertEquals(3, saved.getValue().getCurrentStreak());
+        assertEquals(8, saved.getValue().getLastRating());
+        MoodSummaryDTO summary = MoodAggregateService.toSummary(saved.getValue(), today);
+        assertEquals(3, summary.getLast90Days().getCheckins());
+        assertEquals(6.0, summary.getLast90Days().getMean(), 1e-9);
+        verify(moodEntryRepository, never()).findByPatient(any(Patient.class));
+    }
+
+    @Test
+    void testRecord_AggregateCreatedMeanwhileIsUpdated() {
+        MoodAggregate aggregate = aggregate();
+        MoodAggregateService.apply(aggregate, today.minusDays(1), 5);
+        when(patientRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPatient));
+        when(moodAggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(aggregate));
+
+        moodAggregateService.record(entry(today, 7));
+
+        assertEquals(7, aggregate.getLastRating());
+        verify(moodAggregateRepository, never()).save(any(MoodAggregate.class));
+        verify(moodEntryRepository, never()).findEntryDatesByPatient(any(Patient.class));
+    }
+
+    @Test
+    void testGetSummary_StoresMissingAggregateOnce() {
+        List<MoodAggregate> stored = new ArrayList<>();
+        when(moodAggregateRepository.findById(1L)).thenAnswer(invocation -> stored.stream().findFirst());
+        when(moodAggregateRepository.save(any(MoodAggregate.class))).thenAnswer(invocation -> {
+            stored.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(patientRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testPatient));
+        when(moodAggregateRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(moodEntryRepository.findEntryDatesByPatient(testPatient)).thenReturn(List.of(today));
+        when(moodEntryRepository.findByPatientInRange(eq(testPatient), any(), any())).thenReturn(List.of(entry(today, 6)));
+
+        assertEquals(6, moodAggregateService.getSummary(1L).getLastRating());
+        assertEquals(6, moodAggregateService.getSummary(1L).getLastRating());
+
+        verify(moodAggregateRepository, times(1)).save(any(MoodAggregate.class));
+        verify(moodEntryRepository, times(1)).findEntryDatesByPatient(testPatient);
+    }
+
+    @Test
+    void testGetSummary_PatientNotFound() {
+        when(moodAggregateRepository.findById(99L)).thenReturn(Optional.empty());
+        when(patientRepository.findByIdForUpdate(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class, () -> moodAggregateService.getSummary(99L));
+    }
+
+    private MoodAggregate aggregate() {
+        MoodAggregate aggregate = new MoodAggregate();
+        aggregate.setPatientId(1L);
+        return aggregate;
+    }
+
+    private MoodEntry entry(LocalDate date, int rating) {
+        MoodEntry entry = new MoodEntry();
+        entry.setPatient(testPatient);
+        entry.setEmotionalRating(rating);
+        entry.setEntryTimestamp(date.atTime(10, 0));
+        return entry;
+    }
+}
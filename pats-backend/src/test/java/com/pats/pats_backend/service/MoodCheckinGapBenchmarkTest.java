@@ -0,0 +1,101 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.MoodEntryRepository;
+import com.pats.pats_backend.repo.PatientContact;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FR1.4 - Daily check-in gap report: per-patient lookups (N+1) against the streaming anti-join.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Import({MoodEntryService.class, MoodAggregateService.class})
+class MoodCheckinGapBenchmarkTest {
+
+    private static final int PATIENTS = 2_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+
+    @Autowired
+    private MoodEntryService moodEntryService;
+
+    @Test
+    void benchmarkGetPatientsMissingCheckin_TwoThousandPatients() {
+        LocalDate today = LocalDate.of(2030, 1, 15);
+        for (int i = 0; i < PATIENTS; i++) {
+            Patient patient = TestData.patient(entityManager, "patient-gap-" + i);
+            TestData.moodEntry(entityManager, patient, today.minusDays(1).atTime(21, 0), 5);
+            // Three in five patients checked in today
+            if (i % 5 < 3) {
+                TestData.moodEntry(entityManager, patient, today.atTime(9, 30), 6);
+            }
+            if (i % 500 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> expected = perPatientLookups(today);
+        List<Long> actual = antiJoin(today);
+        assertEquals(PATIENTS * 2 / 5, actual.size());
+        assertEquals(expected, actual);
+
+        long perPatientNanos = Long.MAX_VALUE;
+        long antiJoinNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            perPatientLookups(today);
+            perPatientNanos = Math.min(perPatientNanos, System.nanoTime() - started);
+
+            started = System.nanoTime();
+            antiJoin(today);
+            antiJoinNanos = Math.min(antiJoinNanos, System.nanoTime() - started);
+        }
+
+        System.out.printf("getPatientsMissingCheckin over %d patients: per-patient %.1f ms (%d queries), anti-join %.1f ms (1 query)%n",
+                PATIENTS, perPatientNanos / 1e6, PATIENTS + 1, antiJoinNanos / 1e6);
+        assertTrue(antiJoinNanos * 5 < perPatientNanos, "anti-join should be at least 5x faster than per-patient lookups");
+    }
+
+    /** The previous implementation: load every patient, then one query per patient */
+    private List<Long> perPatientLookups(LocalDate date) {
+        List<Long> ids = patientRepository.findAll().stream()
+                .filter(p -> moodEntryRepository.findByPatientAndDate(p, date).isEmpty())
+                .map(Patient::getId)
+                .sorted()
+                .toList();
+        entityManager.clear();
+        return ids;
+    }
+
+    private List<Long> antiJoin(LocalDate date) {
+        try (Stream<PatientContact> missing = moodEntryService.getPatientsMissingCheckin(date)) {
+            return missing.map(PatientContact::getPatientId).toList();
+        }
+    }
+}
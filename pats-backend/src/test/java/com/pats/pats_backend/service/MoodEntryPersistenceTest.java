@@ -0,0 +1,156 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.MoodHistoryItemDTO;
+import com.pats.pats_backend.dto.MoodHistoryPageDTO;
+import com.pats.pats_backend.dto.MoodSummaryDTO;
+import com.pats.pats_backend.entity.MoodEntry;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.MoodAggregateRepository;
+import com.pats.pats_backend.repo.MoodEntryRepository;
+import com.pats.pats_backend.repo.PatientContact;
+import com.pats.pats_backend.support.QueryAssertions;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pats.pats_backend.support.QueryAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false, properties = QueryAssertions.INSPECTOR_PROPERTY)
+@Import({MoodEntryService.class, MoodAggregateService.class})
+class MoodEntryPersistenceTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MoodEntryRepository moodEntryRepository;
+
+    @Autowired
+    private MoodAggregateRepository moodAggregateRepository;
+
+    @Autowired
+    private MoodEntryService moodEntryService;
+
+    @Autowired
+    private MoodAggregateService moodAggregateService;
+
+    @Test
+    void testCreateMoodEntry_SecondCheckinSameDayRejectedByConstraint() {
+        Patient patient = TestData.patient(entityManager, "patient-unique");
+        entityManager.flush();
+
+        MoodEntry first = moodEntryService.createMoodEntry(patient.getId(), 7, "first");
+
+        assertEquals(LocalDate.now(), first.getEntryDate());
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> moodEntryService.createMoodEntry(patient.getId(), 4, "second"));
+        assertEquals("Check-in already submitted for today.", exception.getMessage());
+    }
+
+    @Test
+    void testCreateMoodEntry_MaintainsAggregate() {
+        Patient patient = TestData.patient(entityManager, "patient-aggregate");
+        // One check-in older than the ring, which only counts towards the total
+        TestData.moodEntry(entityManager, patient, LocalDate.now().minusDays(200).atTime(9, 0), 9);
+        TestData.moodEntry(entityManager, patient, LocalDate.now().minusDays(1).atTime(20, 0), 4);
+        entityManager.flush();
+        // The first summary rebuilds the missing aggregate and stores it; the check-in below updates the row
+        assertEquals(4, moodAggregateService.getSummary(patient.getId()).getLastRating());
+        entityManager.flush();
+        entityManager.clear();
+        assertTrue(moodAggregateRepository.existsById(patient.getId()));
+
+        moodEntryService.createMoodEntry(patient.getId(), 8, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        MoodSummaryDTO summary = assertMaxQueries(1, () -> moodAggregateService.getSummary(patient.getId()));
+        assertEquals(3L, summary.getTotalEntries());
+        assertEquals(8, summary.getLastRating());
+        assertEquals(2, summary.getCurrentStreak());
+        assertEquals(6.0, summary.getLast7Days().getMean(), 1e-9);
+    }
+
+    @Test
+    void testDateQueries_UseHalfOpenDayRange() {
+        LocalDate day = LocalDate.of(2030, 6, 1);
+        Patient patient = TestData.patient(entityManager, "patient-range");
+        Patient other = TestData.patient(entityManager, "patient-range-other");
+        TestData.moodEntry(entityManager, patient, day.minusDays(1).atTime(23, 59, 59, 999_000_000), 3);
+        MoodEntry midnight = TestData.moodEntry(entityManager, patient, day.atStartOfDay(), 5);
+        MoodEntry lastInstant = TestData.moodEntry(entityManager, other, day.atTime(23, 59, 59, 999_000_000), 6);
+        TestData.moodEntry(entityManager, other, day.plusDays(1).atStartOfDay(), 8);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<MoodEntry> entries = moodEntryRepository.findAllByDate(day);
+
+        assertEquals(List.of(midnight.getId(), lastInstant.getId()),
+                entries.stream().map(MoodEntry::getId).sorted().toList());
+        assertEquals(midnight.getId(), moodEntryRepository.findByPatientAndDate(patient, day).orElseThrow().getId());
+        assertTrue(moodEntryRepository.findByPatientAndDate(patient, day.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void testGetPatientHistoryPage_WalksKeysetPagesWithinBounds() {
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        Patient patient = TestData.patient(entityManager, "patient-pages");
+        for (int day = 0; day < 25; day++) {
+            TestData.moodEntry(entityManager, patient, start.plusDays(day).atTime(8, 0), 1 + day % 10)
+                    .setNotes(day % 2 == 0 ? "note" : null);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // [Jan 3, Jan 23) holds 20 entries: two full pages of 8 and one of 4
+        List<MoodHistoryItemDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String pageCursor = cursor;
+            MoodHistoryPageDTO page = assertMaxQueries(1, () -> moodEntryService.getPatientHistoryPage(patient.getId(),
+                    pageCursor, start.plusDays(2).atStartOfDay(), start.plusDays(22).atStartOfDay(), 8));
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            assertEquals(cursor != null, page.getHasMore());
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(20, seen.size());
+        assertEquals(start.plusDays(21).atTime(8, 0), seen.get(0).getEntryTimestamp());
+        assertEquals(start.plusDays(2).atTime(8, 0), seen.get(19).getEntryTimestamp());
+        assertTrue(seen.get(19).getHasNotes());
+        assertFalse(seen.get(18).getHasNotes());
+    }
+
+    @Test
+    void testGetPatientsMissingCheckin_OneStatementForAllPatients() {
+        LocalDate day = LocalDate.of(2030, 3, 1);
+        for (int i = 0; i < 10; i++) {
+            Patient patient = TestData.patient(entityManager, "patient-gap-" + i);
+            if (i % 3 == 0) {
+                TestData.moodEntry(entityManager, patient, day.atTime(9, 0), 5);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PatientContact> missing = assertMaxQueries(1, () -> {
+            try (var contacts = moodEntryService.getPatientsMissingCheckin(day)) {
+                return contacts.toList();
+            }
+        });
+
+        assertEquals(6, missing.size());
+        assertTrue(missing.stream().allMatch(contact -> contact.getEmail().endsWith("@test.com")));
+    }
+}
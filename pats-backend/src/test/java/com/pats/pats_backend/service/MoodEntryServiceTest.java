@@ -1,23 +1,32 @@
 package com.pats.pats_backend.service;
 
+import com.pats.pats_backend.dto.MoodHistoryItemDTO;
+import com.pats.pats_backend.dto.MoodHistoryPageDTO;
 import com.pats.pats_backend.entity.MoodEntry;
 import com.pats.pats_backend.entity.Patient;
 import com.pats.pats_backend.entity.User;
 import com.pats.pats_backend.repo.MoodEntryRepository;
+import com.pats.pats_backend.repo.PatientContact;
 import com.pats.pats_backend.repo.PatientRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,6 +41,9 @@ class MoodEntryServiceTest {
     @Mock
     private PatientRepository patientRepository;
 
+    @Mock
+    private MoodAggregateService moodAggregateService;
+
     @InjectMocks
     private MoodEntryService moodEntryService;
 
@@ -68,9 +80,7 @@ class MoodEntryServiceTest {
         String notes = "Feeling good today";
 
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(testPatient));
-        when(moodEntryRepository.findByPatientAndDate(eq(testPatient), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
-        when(moodEntryRepository.save(any(MoodEntry.class))).thenReturn(testMoodEntry);
+        when(moodEntryRepository.saveAndFlush(any(MoodEntry.class))).thenReturn(testMoodEntry);
 
         // Act
         MoodEntry result = moodEntryService.createMoodEntry(patientId, rating, notes);
@@ -81,8 +91,9 @@ class MoodEntryServiceTest {
         assertEquals(rating, result.getEmotionalRating());
         assertEquals(notes, result.getNotes());
         verify(patientRepository, times(1)).findById(patientId);
-        verify(moodEntryRepository, times(1)).findByPatientAndDate(eq(testPatient), any(LocalDate.class));
-        verify(moodEntryRepository, times(1)).save(any(MoodEntry.class));
+        verify(moodEntryRepository, never()).findByPatientAndDate(any(Patient.class), any(LocalDate.class));
+        verify(moodEntryRepository, times(1)).saveAndFlush(any(MoodEntry.class));
+        verify(moodAggregateService, times(1)).record(testMoodEntry);
     }
 
     @Test
@@ -99,7 +110,7 @@ class MoodEntryServiceTest {
             moodEntryService.createMoodEntry(patientId, rating, notes);
         });
         verify(patientRepository, times(1)).findById(patientId);
-        verify(moodEntryRepository, never()).save(any(MoodEntry.class));
+        verify(moodEntryRepository, never()).saveAndFlush(any(MoodEntry.class));
     }
 
     @Test
@@ -110,15 +121,31 @@ class MoodEntryServiceTest {
         String notes = "Test notes";
 
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(testPatient));
-        when(moodEntryRepository.findByPatientAndDate(eq(testPatient), any(LocalDate.class)))
-                .thenReturn(Optional.of(testMoodEntry));
+        when(moodEntryRepository.saveAndFlush(any(MoodEntry.class)))
+                .thenThrow(violation("PUBLIC.UK_MOOD_ENTRIES_PATIENT_DATE"));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
             moodEntryService.createMoodEntry(patientId, rating, notes);
         });
         assertEquals("Check-in already submitted for today.", exception.getMessage());
-        verify(moodEntryRepository, never()).save(any(MoodEntry.class));
+        verify(moodAggregateService, never()).record(any(MoodEntry.class));
+    }
+
+    @Test
+    void testCreateMoodEntry_OtherConstraintViolationIsRethrown() {
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+        DataIntegrityViolationException foreignKey = violation("fk_mood_entries_patient");
+        when(moodEntryRepository.saveAndFlush(any(MoodEntry.class))).thenThrow(foreignKey);
+
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> moodEntryService.createMoodEntry(1L, 7, null));
+        assertSame(foreignKey, thrown);
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("constraint violated", new SQLException(), constraintName));
     }
 
     @Test
@@ -129,8 +156,6 @@ class MoodEntryServiceTest {
         String notes = null;
 
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(testPatient));
-        when(moodEntryRepository.findByPatientAndDate(eq(testPatient), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
         
         MoodEntry moodEntryWithoutNotes = new MoodEntry();
         moodEntryWithoutNotes.setId(2L);
@@ -139,7 +164,7 @@ class MoodEntryServiceTest {
         moodEntryWithoutNotes.setNotes(null);
         moodEntryWithoutNotes.setEntryTimestamp(LocalDateTime.now());
         
-        when(moodEntryRepository.save(any(MoodEntry.class))).thenReturn(moodEntryWithoutNotes);
+        when(moodEntryRepository.saveAndFlush(any(MoodEntry.class))).thenReturn(moodEntryWithoutNotes);
 
         // Act
         MoodEntry result = moodEntryService.createMoodEntry(patientId, rating, notes);
@@ -148,7 +173,7 @@ class MoodEntryServiceTest {
         assertNotNull(result);
         assertNull(result.getNotes());
         assertEquals(rating, result.getEmotionalRating());
-        verify(moodEntryRepository, times(1)).save(any(MoodEntry.class));
+        verify(moodEntryRepository, times(1)).saveAndFlush(any(MoodEntry.class));
     }
 
     @Test
@@ -214,6 +239,38 @@ class MoodEntryServiceTest {
         verify(moodEntryRepository, times(1)).findByPatient(testPatient);
     }
 
+    @Test
+    void testGetPatientHistoryPage_CursorContinuesAfterLastItem() {
+        // Arrange
+        LocalDateTime newest = LocalDateTime.of(2026, 1, 15, 9, 0);
+        List<MoodHistoryItemDTO> rows = Arrays.asList(
+                new MoodHistoryItemDTO(12L, 6, newest, true),
+                new MoodHistoryItemDTO(11L, 5, newest.minusDays(1), false),
+                new MoodHistoryItemDTO(10L, 4, newest.minusDays(2), false));
+        when(moodEntryRepository.findHistoryPage(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(rows);
+
+        // Act
+        MoodHistoryPageDTO page = moodEntryService.getPatientHistoryPage(1L, null, null, null, 2);
+        moodEntryService.getPatientHistoryPage(1L, page.getNextCursor(), null, null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.getHasMore());
+        verify(moodEntryRepository).findHistoryPage(eq(1L), any(LocalDateTime.class), eq(newest.minusDays(1)),
+                eq(11L), eq(PageRequest.of(0, 3)));
+    }
+
+    @Test
+    void testGetPatientHistoryPage_RejectsBadCursorAndLimit() {
+        assertThrows(IllegalArgumentException.class,
+                () -> moodEntryService.getPatientHistoryPage(1L, "not-a-cursor", null, null, 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> moodEntryService.getPatientHistoryPage(1L, null, null, null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> moodEntryService.getPatientHistoryPage(1L, null, null, null, MoodEntryService.MAX_HISTORY_PAGE_SIZE + 1));
+    }
+
     @Test
     void testGetAllEntriesForDate_Success() {
         // Arrange
@@ -261,78 +318,40 @@ class MoodEntryServiceTest {
     void testGetPatientsMissingCheckin_Success() {
         // Arrange
         LocalDate testDate = LocalDate.now();
-        
-        Patient patient1 = new Patient();
-        patient1.setId(1L);
-        patient1.setFirstName("John");
-        
-        Patient patient2 = new Patient();
-        patient2.setId(2L);
-        patient2.setFirstName("Jane");
-        
-        Patient patient3 = new Patient();
-        patient3.setId(3L);
-        patient3.setFirstName("Bob");
-
-        List<Patient> allPatients = Arrays.asList(patient1, patient2, patient3);
+        PatientContact patient2 = contact(2L, "Jane");
+        PatientContact patient3 = contact(3L, "Bob");
 
-        when(patientRepository.findAll()).thenReturn(allPatients);
-        // patient1 has checked in, patient2 and patient3 haven't
-        when(moodEntryRepository.findByPatientAndDate(patient1, testDate))
-                .thenReturn(Optional.of(testMoodEntry));
-        when(moodEntryRepository.findByPatientAndDate(patient2, testDate))
-                .thenReturn(Optional.empty());
-        when(moodEntryRepository.findByPatientAndDate(patient3, testDate))
-                .thenReturn(Optional.empty());
+        when(patientRepository.streamMissingCheckin(testDate.atStartOfDay(), testDate.plusDays(1).atStartOfDay()))
+                .thenReturn(Stream.of(patient2, patient3));
 
         // Act
-        List<Patient> result = moodEntryService.getPatientsMissingCheckin(testDate);
+        List<PatientContact> result;
+        try (Stream<PatientContact> missing = moodEntryService.getPatientsMissingCheckin(testDate)) {
+            result = missing.toList();
+        }
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertTrue(result.contains(patient2));
-        assertTrue(result.contains(patient3));
-        assertFalse(result.contains(patient1));
-        verify(patientRepository, times(1)).findAll();
+        assertEquals(List.of(patient2, patient3), result);
+        verify(patientRepository, never()).findAll();
+        verify(moodEntryRepository, never()).findByPatientAndDate(any(Patient.class), any(LocalDate.class));
     }
 
     @Test
-    void testGetPatientsMissingCheckin_AllCheckedIn() {
+    void testGetPatientsMissingCheckin_QueriesWholeDayAsHalfOpenRange() {
         // Arrange
-        LocalDate testDate = LocalDate.now();
-        
-        Patient patient1 = new Patient();
-        patient1.setId(1L);
-
-        List<Patient> allPatients = Arrays.asList(patient1);
+        LocalDate testDate = LocalDate.of(2025, 3, 30);
 
-        when(patientRepository.findAll()).thenReturn(allPatients);
-        when(moodEntryRepository.findByPatientAndDate(patient1, testDate))
-                .thenReturn(Optional.of(testMoodEntry));
+        when(patientRepository.streamMissingCheckin(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Stream.empty());
 
         // Act
-        List<Patient> result = moodEntryService.getPatientsMissingCheckin(testDate);
+        try (Stream<PatientContact> missing = moodEntryService.getPatientsMissingCheckin(testDate)) {
+            assertEquals(0, missing.count());
+        }
 
         // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-    }
-
-    @Test
-    void testGetPatientsMissingCheckin_NoPatients() {
-        // Arrange
-        LocalDate testDate = LocalDate.now();
-
-        when(patientRepository.findAll()).thenReturn(Arrays.asList());
-
-        // Act
-        List<Patient> result = moodEntryService.getPatientsMissingCheckin(testDate);
-
-        // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(patientRepository, times(1)).findAll();
+        verify(patientRepository, times(1)).streamMissingCheckin(
+                LocalDateTime.of(2025, 3, 30, 0, 0), LocalDateTime.of(2025, 3, 31, 0, 0));
     }
 
     @Test
@@ -344,9 +363,7 @@ class MoodEntryServiceTest {
         LocalDateTime beforeCall = LocalDateTime.now().minusSeconds(1);
 
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(testPatient));
-        when(moodEntryRepository.findByPatientAndDate(eq(testPatient), any(LocalDate.class)))
-                .thenReturn(Optional.empty());
-        when(moodEntryRepository.save(any(MoodEntry.class))).thenAnswer(invocation -> {
+        when(moodEntryRepository.saveAndFlush(any(MoodEntry.class))).thenAnswer(invocation -> {
             MoodEntry entry = invocation.getArgument(0);
             return entry;
         });
@@ -359,4 +376,11 @@ class MoodEntryServiceTest {
         assertTrue(result.getEntryTimestamp().isAfter(beforeCall));
         assertTrue(result.getEntryTimestamp().isBefore(LocalDateTime.now().plusSeconds(1)));
     }
+
+    private PatientContact contact(Long patientId, String firstName) {
+        PatientContact contact = mock(PatientContact.class);
+        lenient().when(contact.getPatientId()).thenReturn(patientId);
+        lenient().when(contact.getFirstName()).thenReturn(firstName);
+        return contact;
+    }
 }
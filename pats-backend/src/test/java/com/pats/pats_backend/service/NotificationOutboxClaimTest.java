@@ -0,0 +1,79 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.NotificationOutbox;
+import com.pats.pats_backend.enums.OutboxStatus;
+import com.pats.pats_backend.repo.NotificationOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false)
+@TestPropertySource(properties = {"notification.outbox.batch-size=2", "notification.outbox.poll-interval-ms=3600000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({NotificationOutboxDispatcher.class, NotificationChannel.class})
+class NotificationOutboxClaimTest {
+
+    @Autowired
+    private NotificationOutboxDispatcher dispatcher;
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            NotificationOutbox entry = new NotificationOutbox();
+            entry.setIdempotencyKey("APPOINTMENT_CONFIRMATION:" + i + ":patient@test.com");
+            entry.setNotificationType("APPOINTMENT_CONFIRMATION");
+            entry.setAppointmentId((long) i);
+            entry.setRecipientEmail("patient@test.com");
+            entry.setSubject("Appointment Scheduled - Confirmation");
+            entry.setMessage("Body");
+            entry.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+            notificationOutboxRepository.save(entry);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        notificationOutboxRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testDispatchPending_SendsEveryDueEntryAcrossBatches() {
+        dispatcher.dispatchPending();
+
+        assertTrue(notificationOutboxRepository.findAll().stream()
+                .allMatch(entry -> entry.getStatus() == OutboxStatus.SENT && entry.getAttempts() == 1));
+    }
+
+    @Test
+    void testDispatchPending_SkipsEntriesClaimedByAnotherNode() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> claimedElsewhere = notificationOutboxRepository.claimDueIds(LocalDateTime.now(), 2);
+            assertEquals(2, claimedElsewhere.size());
+            notificationOutboxRepository.lease(claimedElsewhere, LocalDateTime.now().plusMinutes(5));
+        });
+
+        dispatcher.dispatchPending();
+
+        // the other node's lease hides its two entries until it records their outcome
+        assertEquals(2, notificationOutboxRepository.findAll().stream()
+                .filter(entry -> entry.getStatus() == OutboxStatus.PENDING).count());
+    }
+}
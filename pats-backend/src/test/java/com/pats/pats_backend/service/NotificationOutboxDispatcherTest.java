@@ -0,0 +1,128 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.NotificationOutbox;
+import com.pats.pats_backend.enums.OutboxStatus;
+import com.pats.pats_backend.repo.NotificationOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Mock
+    private NotificationChannel notificationChannel;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationOutboxDispatcher(transactionManager, 2);
+        ReflectionTestUtils.setField(dispatcher, "notificationOutboxRepository", notificationOutboxRepository);
+        ReflectionTestUtils.setField(dispatcher, "notificationChannel", notificationChannel);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffBaseSeconds", 5L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxSeconds", 60L);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testDispatchPending_MarksDeliveredEntriesSent() {
+        NotificationOutbox entry = entry(1L, 0);
+        claimReturns(entry);
+
+        dispatcher.dispatchPending();
+
+        verify(notificationOutboxRepository).lease(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(notificationChannel).deliver("patient@test.com", "Subject", "Body", "KEY-1");
+        verify(notificationOutboxRepository).markSent(eq(1L), any(LocalDateTime.class));
+        verify(notificationOutboxRepository, never()).markAttemptFailed(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testDispatchPending_FailedDeliveryIsRetriedWithBackoff() {
+        NotificationOutbox entry = entry(2L, 0);
+        claimReturns(entry);
+        doThrow(new RuntimeException("SMTP timeout")).when(notificationChannel).deliver(any(), any(), any(), any());
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatchPending();
+
+        verify(notificationOutboxRepository).markAttemptFailed(eq(2L), eq(OutboxStatus.PENDING),
+                argThat(next -> !next.isBefore(before.plusSeconds(5))), eq("SMTP timeout"));
+        verify(notificationOutboxRepository, never()).markSent(anyLong(), any());
+    }
+
+    @Test
+    void testDispatchPending_GivesUpAfterMaxAttempts() {
+        NotificationOutbox entry = entry(3L, 2);
+        claimReturns(entry);
+        doThrow(new RuntimeException("mailbox unavailable")).when(notificationChannel).deliver(any(), any(), any(), any());
+
+        dispatcher.dispatchPending();
+
+        verify(notificationOutboxRepository).markAttemptFailed(eq(3L), eq(OutboxStatus.FAILED), any(), any());
+    }
+
+    @Test
+    void testDispatchPending_StopsWhenNoOutcomeCanBeRecorded() {
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 1);
+        claimReturns(entry(4L, 0));
+        doThrow(new RuntimeException("connection refused")).when(notificationOutboxRepository).markSent(anyLong(), any());
+
+        dispatcher.dispatchPending();
+
+        // A full batch would normally fetch the next one; with nothing recorded the poll ends instead
+        verify(notificationOutboxRepository, times(1)).claimDueIds(any(LocalDateTime.class), eq(1));
+        verify(notificationOutboxRepository, never()).markAttemptFailed(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void testBackoffSeconds_GrowsExponentiallyAndIsCapped() {
+        assertEquals(5, dispatcher.backoffSeconds(1));
+        assertEquals(10, dispatcher.backoffSeconds(2));
+        assertEquals(40, dispatcher.backoffSeconds(4));
+        assertEquals(60, dispatcher.backoffSeconds(10));
+    }
+
+    private void claimReturns(NotificationOutbox entry) {
+        when(notificationOutboxRepository.claimDueIds(any(LocalDateTime.class), anyInt())).thenReturn(List.of(entry.getId()));
+        when(notificationOutboxRepository.findByIdIn(List.of(entry.getId()))).thenReturn(List.of(entry));
+    }
+
+    private static NotificationOutbox entry(Long id, int attempts) {
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setId(id);
+        entry.setIdempotencyKey("KEY-" + id);
+        entry.setRecipientEmail("patient@test.com");
+        entry.setSubject("Subject");
+        entry.setMessage("Body");
+        entry.setStatus(OutboxStatus.PENDING);
+        entry.setAttempts(attempts);
+        return entry;
+    }
+}
@@ -0,0 +1,109 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.PatientSummary;
+import com.pats.pats_backend.dto.PatientSummaryPageDTO;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false)
+class PatientListingTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private PatientService patientService;
+    private final List<Patient> patients = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        patientService = new PatientService(patientRepository, userRepository, null, null, entityManager);
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        String[] lastNames = {"Smith", "Doe", "Smith", "Adams", "Young", "Doe", "Baker"};
+        for (int i = 0; i < lastNames.length; i++) {
+            Patient patient = TestData.patient(entityManager, "patient" + i);
+            patient.setLastName(lastNames[i]);
+            patient.setFirstName(i % 2 == 0 ? "Ann" : "Bob");
+            // duplicates exercise the id tiebreaker
+            patient.setRegisteredAt(base.plusDays(i / 2));
+            patients.add(patient);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testGetPatientPage_WalksEveryPatientOnceByLastName() {
+        List<Long> expected = patients.stream()
+                .sorted(Comparator.comparing(Patient::getLastName).thenComparing(Patient::getId))
+                .map(Patient::getId).toList();
+
+        assertEquals(expected, walk("lastName", "asc", 3));
+        List<Long> reversed = new ArrayList<>(expected);
+        Collections.reverse(reversed);
+        assertEquals(reversed, walk("lastName", "desc", 2));
+    }
+
+    @Test
+    void testGetPatientPage_KeysetOnTimestampAndId() {
+        List<Long> expected = patients.stream()
+                .sorted(Comparator.comparing(Patient::getRegisteredAt).thenComparing(Patient::getId))
+                .map(Patient::getId).toList();
+
+        assertEquals(expected, walk("registeredAt", "asc", 2));
+        assertEquals(patients.stream().map(Patient::getId).sorted().toList(), walk("id", "asc", 4));
+    }
+
+    @Test
+    void testGetPatientPage_RejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.getPatientPage("password", "asc", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> patientService.getPatientPage("lastName", "up", null, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> patientService.getPatientPage("lastName", "asc", null, PatientService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> patientService.getPatientPage("lastName", "asc", "!!", 10));
+    }
+
+    @Test
+    void testForEachPatientSummary_StreamsProjectionsOrderedByName() {
+        List<PatientSummary> summaries = new ArrayList<>();
+        patientService.forEachPatientSummary(summaries::add);
+
+        assertEquals(patients.size(), summaries.size());
+        assertEquals("Adams", summaries.get(0).getLastName());
+        assertEquals("patient3@test.com", summaries.get(0).getEmail());
+        assertEquals("Young", summaries.get(summaries.size() - 1).getLastName());
+    }
+
+    private List<Long> walk(String sort, String direction, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            PatientSummaryPageDTO page = patientService.getPatientPage(sort, direction, cursor, size);
+            assertTrue(page.getItems().size() <= size);
+            page.getItems().forEach(summary -> ids.add(summary.getId()));
+            cursor = page.getNextCursor();
+            assertEquals(page.getHasMore(), cursor != null);
+        } while (cursor != null);
+        return ids;
+    }
+}
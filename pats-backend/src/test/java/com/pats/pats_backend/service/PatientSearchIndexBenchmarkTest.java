@@ -0,0 +1,145 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.User;
+import com.pats.pats_backend.enums.UserRole;
+import com.pats.pats_backend.repo.PatientContact;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Patient search: grouping the postings of every query trigram against driving from the rarest trigram.
+ * Every patient shares the last-name trigrams and one in four shares the first name, as common surnames and
+ * email providers do at scale.
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PatientSearchIndex.class, NamedLocks.class})
+class PatientSearchIndexBenchmarkTest {
+
+    private static final int PATIENTS = 20_000;
+    private static final int ROUNDS = 5;
+    private static final String[] FIRST_NAMES = {"Anna", "Maria", "Peter", "Lukas"};
+    private static final String QUERY = "anna smith12344";
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("DELETE FROM patient_search_grams").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM patient_search_documents").executeUpdate();
+        });
+        patientRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void benchmarkSearch_TwentyThousandPatientsSharingCommonTrigrams() {
+        for (int from = 0; from < PATIENTS; from += 1000) {
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < first + 1000; i++) {
+                    User user = TestData.user(entityManager, "patient-search-" + i, UserRole.PATIENT);
+                    user.setEmail("patient" + i + "@gmail.com");
+                    Patient patient = new Patient();
+                    patient.setUser(user);
+                    patient.setFirstName(FIRST_NAMES[i % FIRST_NAMES.length]);
+                    patient.setLastName("Smith" + i);
+                    entityManager.persist(patient);
+                }
+            });
+        }
+        entityManager.clear();
+
+        List<Long> expected = allGrams(QUERY);
+        List<Long> actual = rarestGram(QUERY);
+        assertEquals(1, actual.size());
+        assertEquals(expected, actual);
+
+        long allGramsNanos = Long.MAX_VALUE;
+        long rarestGramNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long started = System.nanoTime();
+            allGrams(QUERY);
+            allGramsNanos = Math.min(allGramsNanos, System.nanoTime() - started);
+
+            started = System.nanoTime();
+            rarestGram(QUERY);
+            rarestGramNanos = Math.min(rarestGramNanos, System.nanoTime() - started);
+        }
+
+        System.out.printf("search \"%s\" over %d patients: all trigrams grouped %.1f ms, rarest trigram %.1f ms%n",
+                QUERY, PATIENTS, allGramsNanos / 1e6, rarestGramNanos / 1e6);
+        assertTrue(rarestGramNanos * 5 < allGramsNanos, "rarest-trigram search should be at least 5x faster");
+    }
+
+    private List<Long> rarestGram(String query) {
+        return patientSearchIndex.search(query, 0, 10).getItems().stream().map(PatientContact::getPatientId).toList();
+    }
+
+    /** The previous implementation: every patient holding all query trigrams, grouped, then verified and ranked */
+    @SuppressWarnings("unchecked")
+    private List<Long> allGrams(String query) {
+        List<String> terms = PatientSearchIndex.tokens(query);
+        Set<String> grams = new LinkedHashSet<>();
+        terms.forEach(term -> grams.addAll(PatientSearchIndex.queryGrams(term)));
+        StringBuilder sql = new StringBuilder("SELECT d.patient_id, (0");
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(" + CASE WHEN d.search_text LIKE :prefix").append(i).append(" THEN 1 ELSE 0 END");
+        }
+        sql.append(") AS prefix_hits FROM patient_search_documents d WHERE d.patient_id IN (")
+                .append("SELECT g.patient_id FROM patient_search_grams g WHERE g.gram IN (:grams) ")
+                .append("GROUP BY g.patient_id HAVING COUNT(*) = :gramCount)");
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(" AND d.search_text LIKE :match").append(i);
+        }
+        sql.append(" ORDER BY prefix_hits DESC, d.patient_id LIMIT 11");
+        Query nativeQuery = entityManager.createNativeQuery(sql.toString())
+                .setParameter("grams", grams)
+                .setParameter("gramCount", grams.size());
+        for (int i = 0; i < terms.size(); i++) {
+            nativeQuery.setParameter("prefix" + i, "% " + terms.get(i) + "%");
+            nativeQuery.setParameter("match" + i, "%" + terms.get(i) + "%");
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Object row : (List<Object>) nativeQuery.getResultList()) {
+            ids.add(((Number) ((Object[]) row)[0]).longValue());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,214 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.PatientSearchPageDTO;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.repo.PatientContact;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.QueryAssertions;
+import com.pats.pats_backend.support.TestData;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.pats.pats_backend.support.QueryAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false, properties = {QueryAssertions.INSPECTOR_PROPERTY, "patients.search.max-candidates=3"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PatientSearchIndex.class, NamedLocks.class})
+class PatientSearchIndexTest {
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long annId;
+    private Long joanneId;
+    private Long zoeId;
+
+    @BeforeEach
+    void setUp() {
+        annId = create("ann", "Ann", "Smith", "+1 (555) 123-4567");
+        joanneId = create("joanne", "Joanne", "Bjornsson", null);
+        zoeId = create("zoe", "Zoë", "Müller", "0711 98 76");
+        create("john", "John", "Doe", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("DELETE FROM patient_search_grams").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM patient_search_documents").executeUpdate();
+        });
+        patientRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testSearch_PrefixMatchesRankAboveInfixMatches() {
+        assertEquals(List.of(annId, joanneId), ids(patientSearchIndex.search("ann", 0, 10)));
+    }
+
+    @Test
+    void testSearch_ShortTermsOnlyMatchTokenPrefixes() {
+        // "jo" is a prefix of Joanne and John but only an infix of Bjornsson
+        assertEquals(2, ids(patientSearchIndex.search("jo", 0, 10)).size());
+        assertEquals(List.of(joanneId), ids(patientSearchIndex.search("bj", 0, 10)));
+        assertTrue(patientSearchIndex.search("rn", 0, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testSearch_AccentInsensitiveAcrossNameEmailAndPhone() {
+        assertEquals(List.of(zoeId), ids(patientSearchIndex.search("MULLER zoe", 0, 10)));
+        assertEquals(List.of(zoeId), ids(patientSearchIndex.search("Zoë Mül", 0, 10)));
+        assertEquals(List.of(annId), ids(patientSearchIndex.search("5551234", 0, 10)));
+        assertEquals(List.of(joanneId), ids(patientSearchIndex.search("Joanne", 0, 10)));
+    }
+
+    @Test
+    void testSearch_IndexesEmailLocalPartOnly() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.find(Patient.class, zoeId).getUser().setEmail("zm.1987@clinic.org"));
+
+        assertEquals(List.of(zoeId), ids(patientSearchIndex.search("zm 1987", 0, 10)));
+        assertTrue(patientSearchIndex.search("clinic", 0, 10).getItems().isEmpty());
+        assertTrue(patientSearchIndex.search("test.com", 0, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testSearch_PaginatesResults() {
+        PatientSearchPageDTO first = patientSearchIndex.search("jo", 0, 1);
+        PatientSearchPageDTO second = patientSearchIndex.search("jo", 1, 1);
+
+        assertEquals(1, first.getItems().size());
+        assertTrue(first.getHasMore());
+        assertEquals(1, second.getItems().size());
+        assertFalse(second.getHasMore());
+    }
+
+    @Test
+    void testSearch_VerifiesCandidatesOfTheRarestGramAgainstEveryTerm() {
+        // "smi" has one posting, so only Ann is a candidate; "ann" must still match her document
+        assertEquals(List.of(annId), ids(patientSearchIndex.search("ann smith", 0, 10)));
+        assertTrue(patientSearchIndex.search("joanne smith", 0, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testSearch_FindsMatchesBeyondTheCandidateCap() {
+        create("anna1", "Anna", "Lee", null);
+        create("anna2", "Anna", "Roe", null);
+        create("anna3", "Anna", "Moe", null);
+        Long annaRayId = create("anna4", "Anna", "Ray", null);
+
+        // six patients hold "ann", more than the three candidates allowed; "ray" has one and drives the search
+        assertEquals(List.of(annaRayId), ids(patientSearchIndex.search("ann ray", 0, 10)));
+
+        // every gram of "anna" has four holders, so the grams are intersected and the last Anna is still found
+        List<Long> annas = ids(patientSearchIndex.search("anna", 0, 10));
+        assertEquals(4, annas.size());
+        assertTrue(annas.contains(annaRayId));
+
+        PatientSearchPageDTO first = patientSearchIndex.search("ann", 0, 5);
+        PatientSearchPageDTO second = patientSearchIndex.search("ann", 1, 5);
+        List<Long> all = new ArrayList<>(ids(first));
+        all.addAll(ids(second));
+        assertTrue(first.getHasMore());
+        assertFalse(second.getHasMore());
+        assertEquals(6, all.size());
+        assertTrue(all.contains(annaRayId));
+    }
+
+    @Test
+    void testListener_ReindexesPatientAfterCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Patient ann = entityManager.find(Patient.class, annId);
+            ann.setLastName("Ångström");
+        });
+
+        assertEquals(List.of(annId), ids(patientSearchIndex.search("angstr", 0, 10)));
+        assertTrue(patientSearchIndex.search("smith", 0, 10).getItems().isEmpty());
+    }
+
+    @Test
+    void testListener_WritesAllGramsOfAPatientInOneInsert() {
+        // load + update, then lock, two deletes, the user, the document and a single gram insert
+        assertMaxQueries(8, () -> transactionTemplate.executeWithoutResult(status -> {
+            Patient zoe = entityManager.find(Patient.class, zoeId);
+            zoe.setFirstName("Zoë Anneliese");
+        }));
+
+        assertEquals(List.of(zoeId), ids(patientSearchIndex.search("liese", 0, 10)));
+    }
+
+    @Test
+    void testRebuild_RestoresIndexFromPatients() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createNativeQuery("DELETE FROM patient_search_grams").executeUpdate());
+        assertTrue(patientSearchIndex.search("john", 0, 10).getItems().isEmpty());
+
+        assertEquals(4, patientSearchIndex.rebuild());
+
+        assertEquals(1, patientSearchIndex.search("john", 0, 10).getItems().size());
+    }
+
+    @Test
+    void testRebuild_ReplacesEntriesInPlaceAndDropsOrphans() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("INSERT INTO patient_search_documents (patient_id, search_text) "
+                    + "VALUES (-1, ' ghost ')").executeUpdate();
+            entityManager.createNativeQuery("INSERT INTO patient_search_grams (gram, patient_id) "
+                    + "VALUES ('gho', -1)").executeUpdate();
+        });
+
+        assertEquals(4, patientSearchIndex.rebuild());
+
+        assertEquals(4, ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM patient_search_documents")
+                .getSingleResult()).intValue());
+        assertEquals(0, ((Number) entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM patient_search_grams WHERE patient_id = -1").getSingleResult()).intValue());
+        assertEquals(List.of(annId, joanneId), ids(patientSearchIndex.search("ann", 0, 10)));
+    }
+
+    @Test
+    void testSearch_RejectsInvalidPaging() {
+        assertThrows(IllegalArgumentException.class, () -> patientSearchIndex.search("ann", -1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> patientSearchIndex.search("ann", 0, PatientSearchIndex.MAX_PAGE_SIZE + 1));
+    }
+
+    private Long create(String username, String firstName, String lastName, String phone) {
+        return transactionTemplate.execute(status -> {
+            Patient patient = TestData.patient(entityManager, username);
+            patient.setFirstName(firstName);
+            patient.setLastName(lastName);
+            patient.setPhoneNumber(phone);
+            return patient.getId();
+        });
+    }
+
+    private static List<Long> ids(PatientSearchPageDTO page) {
+        return page.getItems().stream().map(PatientContact::getPatientId).toList();
+    }
+}
@@ -0,0 +1,90 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Availability;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+
+    // A Monday
+    private static final LocalDate START = LocalDate.of(2030, 1, 7);
+
+    @Test
+    void testWeeklyRow_WithoutRuleRepeatsEveryWeekOnItsDay() {
+        Availability row = new Availability();
+        row.setDayOfWeek(DayOfWeek.WEDNESDAY);
+
+        Recurrence recurrence = Recurrence.of(row);
+
+        assertEquals(List.of(START.plusDays(2), START.plusDays(9)), recurrence.occurrences(START, START.plusDays(13)));
+    }
+
+    @Test
+    void testBiweekly_CountsWeeksFromStartOnEveryListedDay() {
+        Recurrence recurrence = Recurrence.parse("RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH", null, START.plusDays(3), Set.of());
+
+        assertEquals(List.of(START.plusDays(3), START.plusDays(14), START.plusDays(17), START.plusDays(28)),
+                recurrence.occurrences(START, START.plusDays(30)));
+    }
+
+    @Test
+    void testCount_EndsAfterThatManyOccurrencesIncludingExceptions() {
+        Recurrence recurrence = Recurrence.parse("FREQ=WEEKLY;BYDAY=MO,FR;COUNT=4", null, START,
+                Set.of(START.plusDays(4)));
+
+        // Occurrences 1-4 are Jan 7, (11), 14, 18; the 11th is an exception but still counts
+        assertEquals(List.of(START, START.plusDays(7), START.plusDays(11)), recurrence.occurrences(START, START.plusYears(1)));
+    }
+
+    @Test
+    void testUntilAndDaily_Interval() {
+        Recurrence recurrence = Recurrence.parse("FREQ=DAILY;INTERVAL=3;UNTIL=20300116T235959Z", null, START, Set.of());
+
+        assertEquals(List.of(START, START.plusDays(3), START.plusDays(6), START.plusDays(9)),
+                recurrence.occurrences(START.minusDays(5), START.plusDays(30)));
+        assertFalse(recurrence.occursOn(START.plusDays(12)));
+    }
+
+    @Test
+    void testWeeklyRule_WithoutByDayFallsBackToStartThenDayOfWeek() {
+        assertEquals(Set.of(DayOfWeek.MONDAY), Recurrence.parse("FREQ=WEEKLY", DayOfWeek.FRIDAY, START, Set.of()).days());
+        assertEquals(Set.of(DayOfWeek.FRIDAY), Recurrence.parse("FREQ=WEEKLY", DayOfWeek.FRIDAY, null, Set.of()).days());
+    }
+
+    @Test
+    void testRowExceptionDates_AreSkipped() {
+        Availability row = new Availability();
+        row.setRecurrenceRule("FREQ=WEEKLY;BYDAY=MO");
+        row.setRecurrenceStart(START);
+        row.setExceptionDates(START.plusWeeks(1) + ", " + START.plusWeeks(3));
+
+        assertEquals(List.of(START, START.plusWeeks(2)), Recurrence.of(row).occurrences(START, START.plusWeeks(3)));
+    }
+
+    @Test
+    void testDatedOverride_HasNoRecurrence() {
+        Availability row = new Availability();
+        row.setDayOfWeek(DayOfWeek.MONDAY);
+        row.setSpecificDate(START);
+
+        assertNull(Recurrence.of(row));
+    }
+
+    @Test
+    void testInvalidRules_AreRejected() {
+        for (String rule : List.of("INTERVAL=2", "FREQ=MONTHLY", "FREQ=WEEKLY;BYDAY=XX", "FREQ=WEEKLY;COUNT=0",
+                "FREQ=WEEKLY;COUNT=2;UNTIL=20301231", "FREQ=DAILY;BYDAY=MO", "FREQ=WEEKLY;BYMONTH=1",
+                "FREQ=WEEKLY;COUNT=" + (Recurrence.MAX_COUNT + 1), "FREQ=WEEKLY;UNTIL=soon")) {
+            assertThrows(IllegalArgumentException.class, () -> Recurrence.parse(rule, DayOfWeek.MONDAY, START, Set.of()), rule);
+        }
+        // INTERVAL and COUNT are counted from the start date
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("FREQ=WEEKLY;INTERVAL=2", DayOfWeek.MONDAY, null, Set.of()));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parseDates("2030-01-07,next week"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.AppointmentReminder;
+import com.pats.pats_backend.enums.ReminderStatus;
+import com.pats.pats_backend.repo.AppointmentReminderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    @Mock
+    private AppointmentReminderRepository appointmentReminderRepository;
+
+    @Mock
+    private ReminderSweeper reminderSweeper;
+
+    private ReminderScheduler reminderScheduler;
+
+    @BeforeEach
+    void setUp() {
+        reminderScheduler = new ReminderScheduler(1, 8);
+        ReflectionTestUtils.setField(reminderScheduler, "appointmentReminderRepository", appointmentReminderRepository);
+        ReflectionTestUtils.setField(reminderScheduler, "reminderSweeper", reminderSweeper);
+        ReflectionTestUtils.setField(reminderScheduler, "horizonHours", 48L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reminderScheduler.stop();
+    }
+
+    /**
+     * Test FR9.3 - Pending reminders inside the horizon are loaded at startup and fired when due
+     */
+    @Test
+    void testStart_LoadsHorizonAndFiresDueReminders() {
+        when(appointmentReminderRepository.findByStatusAndReminderTimeBefore(eq(ReminderStatus.PENDING), any(LocalDateTime.class)))
+                .thenReturn(List.of(reminder(1L, LocalDateTime.now().plusNanos(100_000_000)),
+                        reminder(2L, LocalDateTime.now().plusHours(20))));
+
+        reminderScheduler.start();
+
+        verify(reminderSweeper, timeout(2000)).sendDue(List.of(1L));
+        assertFalse(reminderScheduler.isScheduled(1L));
+        assertTrue(reminderScheduler.isScheduled(2L));
+    }
+
+    /**
+     * Test FR9.4 - Moved reminders fire at their new time and deleted ones never fire
+     */
+    @Test
+    void testTrackAndUntrack_MoveAndRemoveEntries() throws InterruptedException {
+        reminderScheduler.start();
+        AppointmentReminder moved = reminder(3L, LocalDateTime.now().plusHours(1));
+        AppointmentReminder deleted = reminder(4L, LocalDateTime.now().plusNanos(150_000_000));
+        reminderScheduler.track(moved);
+        reminderScheduler.track(deleted);
+        assertEquals(2, reminderScheduler.getScheduledCount());
+
+        moved.setReminderTime(LocalDateTime.now().plusNanos(50_000_000));
+        reminderScheduler.track(moved);
+        reminderScheduler.untrack(List.of(4L));
+
+        verify(reminderSweeper, timeout(2000)).sendDue(List.of(3L));
+        Thread.sleep(300);
+        verify(reminderSweeper, never()).sendDue(List.of(4L));
+        assertEquals(0, reminderScheduler.getScheduledCount());
+    }
+
+    /**
+     * Test FR9.3 - Reminders beyond the horizon wait for the next reload
+     */
+    @Test
+    void testTrack_IgnoresRemindersBeyondHorizon() {
+        reminderScheduler.start();
+
+        reminderScheduler.track(reminder(5L, LocalDateTime.now().plusDays(5)));
+
+        assertFalse(reminderScheduler.isScheduled(5L));
+    }
+
+    @Test
+    void testTimingWheel_CascadesAcrossLevelsWithoutFiringEarly() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(1, 4);
+        long base = System.currentTimeMillis();
+        for (long key = 0; key < 200; key++) {
+            // 4ms, 16ms and 64ms levels plus overflow
+            wheel.schedule(key, base + 5 + key * 3);
+        }
+        wheel.schedule(999L, base + 50);
+        assertTrue(wheel.cancel(999L));
+
+        List<Long> fired = new ArrayList<>();
+        while (fired.size() < 200) {
+            List<Long> due = wheel.poll(2000);
+            long now = System.currentTimeMillis();
+            for (Long key : due) {
+                assertTrue(now >= base + 5 + key * 3, "key " + key + " fired early");
+            }
+            // coarse buckets expire without anything falling due while their entries cascade down
+            assertTrue(now < base + 5000, "wheel stalled");
+            fired.addAll(due);
+        }
+
+        assertEquals(200, fired.stream().distinct().count());
+        assertFalse(fired.contains(999L));
+        assertEquals(0, wheel.size());
+    }
+
+    private AppointmentReminder reminder(Long id, LocalDateTime reminderTime) {
+        AppointmentReminder reminder = new AppointmentReminder();
+        reminder.setId(id);
+        reminder.setReminderTime(reminderTime);
+        reminder.setStatus(ReminderStatus.PENDING);
+        return reminder;
+    }
+}
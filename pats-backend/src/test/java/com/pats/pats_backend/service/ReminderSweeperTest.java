@@ -0,0 +1,131 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.AppointmentReminder;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.enums.ReminderStatus;
+import com.pats.pats_backend.repo.AppointmentReminderRepository;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.PatientRepository;
+import com.pats.pats_backend.repo.PsychologistRepository;
+import com.pats.pats_backend.repo.UserRepository;
+import com.pats.pats_backend.support.TestData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(showSql = false)
+@TestPropertySource(properties = {"reminders.sweep.chunk-size=3", "reminders.sweep.initial-delay-ms=3600000"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReminderSweeper.class, NotificationService.class, NotificationChannel.class})
+class ReminderSweeperTest {
+
+    @Autowired
+    private ReminderSweeper reminderSweeper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AppointmentReminderRepository appointmentReminderRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PsychologistRepository psychologistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            Psychologist psychologist = TestData.psychologist(entityManager, "psych-sweep");
+            Patient patient = TestData.patient(entityManager, "patient-sweep");
+            for (int i = 0; i < 8; i++) {
+                Appointment appointment = TestData.appointment(entityManager, psychologist, patient,
+                        now.plusHours(i + 1), 60);
+                // 7 reminders are due, the last one is still in the future
+                reminder(appointment, i < 7 ? now.minusMinutes(i + 1) : now.plusHours(1));
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentReminderRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        psychologistRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Test FR9.3 - Due reminders are sent across several chunks and marked SENT
+     */
+    @Test
+    void testSweep_SendsAllDueRemindersInChunks() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reminderSweeper.bindTo(registry);
+
+        int sent = reminderSweeper.sweep();
+
+        assertEquals(7, sent);
+        assertEquals(7, appointmentReminderRepository.findByStatus(ReminderStatus.SENT).size());
+        assertEquals(1, appointmentReminderRepository.findByStatus(ReminderStatus.PENDING).size());
+        assertEquals(7.0, registry.get("pats.reminders.sent").functionCounter().count());
+        assertEquals(0, reminderSweeper.sweep());
+    }
+
+    /**
+     * Test FR9.3 - Reminders claimed by another node are skipped, not waited on or sent twice
+     */
+    @Test
+    void testSweep_SkipsRemindersLockedByAnotherSweep() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> lockedElsewhere = appointmentReminderRepository.claimDueReminderIds(now, 0, 2);
+            assertEquals(2, lockedElsewhere.size());
+
+            assertEquals(5, reminderSweeper.sweep());
+        });
+
+        // the two reminders held by the other transaction plus the one that is not due yet
+        assertEquals(3, appointmentReminderRepository.findByStatus(ReminderStatus.PENDING).size());
+    }
+
+    private void reminder(Appointment appointment, LocalDateTime reminderTime) {
+        AppointmentReminder reminder = new AppointmentReminder();
+        reminder.setAppointment(appointment);
+        reminder.setReminderTime(reminderTime);
+        reminder.setHoursBefore(1);
+        reminder.setStatus(ReminderStatus.PENDING);
+        reminder.setReminderType("APPOINTMENT_REMINDER");
+        reminder.setRecipientEmail(appointment.getPatient().getUser().getEmail());
+        entityManager.persist(reminder);
+    }
+}
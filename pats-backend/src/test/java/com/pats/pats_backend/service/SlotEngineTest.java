@@ -0,0 +1,323 @@
+package com.pats.pats_backend.service;
+
+import com.pats.pats_backend.dto.TimeSlotDTO;
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.Availability;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.repo.AppointmentRepository;
+import com.pats.pats_backend.repo.AvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotEngineTest {
+
+    @Mock
+    private AvailabilityRepository availabilityRepository;
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @InjectMocks
+    private SlotEngine slotEngine;
+
+    private Psychologist psychologist;
+    private LocalDate monday;
+    private List<Availability> availabilities;
+    private List<Appointment> appointments;
+
+    @BeforeEach
+    void setUp() {
+        psychologist = new Psychologist();
+        psychologist.setId(1L);
+
+        monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        availabilities = new ArrayList<>();
+        appointments = new ArrayList<>();
+        availabilities.add(weekly(1L, DayOfWeek.MONDAY, 9, 12));
+
+        lenient().when(availabilityRepository.findByPsychologistId(1L)).thenReturn(availabilities);
+        lenient().when(appointmentRepository.findByPsychologistIdAndAppointmentDateTimeGreaterThanEqual(eq(1L), any()))
+                .thenReturn(appointments);
+    }
+
+    @Test
+    void testFindFreeSlots_SubtractsBookedAppointments() {
+        appointments.add(appointment(10L, monday.atTime(10, 0), 60));
+
+        List<TimeSlotDTO> slots = slotEngine.findFreeSlots(1L, monday.atStartOfDay(), monday.plusDays(1).atStartOfDay(), 60);
+
+        assertEquals(List.of(monday.atTime(9, 0), monday.atTime(11, 0)), startsOf(slots));
+    }
+
+    @Test
+    void testFindFreeSlots_DateOverrideReplacesWeeklyHoursAndBlocksApply() {
+        Availability specialHours = weekly(2L, null, 14, 16);
+        specialHours.setSpecificDate(monday);
+        Availability blocked = weekly(3L, null, 15, 16);
+        blocked.setSpecificDate(monday);
+        blocked.setIsAvailable(false);
+        availabilities.add(specialHours);
+        availabilities.add(blocked);
+
+        List<TimeSlotDTO> slots = slotEngine.findFreeSlots(1L, monday.atStartOfDay(), monday.plusDays(1).atStartOfDay(), 60);
+
+        assertEquals(List.of(monday.atTime(14, 0)), startsOf(slots));
+    }
+
+    @Test
+    void testIncrementalUpdates_NoReloadAfterFirstQuery() {
+        LocalDateTime from = monday.atStartOfDay();
+        LocalDateTime to = monday.plusDays(1).atStartOfDay();
+        assertEquals(3, slotEngine.findFreeSlots(1L, from, to, 60).size());
+
+        Appointment booked = appointment(20L, monday.atTime(9, 0), 120);
+        slotEngine.onAppointmentChanged(booked);
+        assertEquals(List.of(monday.atTime(11, 0)), startsOf(slotEngine.findFreeSlots(1L, from, to, 60)));
+
+        booked.setStatus(AppointmentStatus.CANCELLED);
+        slotEngine.onAppointmentChanged(booked);
+        Availability afternoon = weekly(4L, DayOfWeek.MONDAY, 13, 14);
+        slotEngine.onAvailabilityChanged(afternoon);
+        assertEquals(4, slotEngine.findFreeSlots(1L, from, to, 60).size());
+
+        slotEngine.onAvailabilityDeleted(1L, 4L);
+        assertEquals(3, slotEngine.findFreeSlots(1L, from, to, 60).size());
+
+        verify(availabilityRepository, times(1)).findByPsychologistId(1L);
+        verify(appointmentRepository, times(1)).findByPsychologistIdAndAppointmentDateTimeGreaterThanEqual(eq(1L), any());
+    }
+
+    @Test
+    void testFindFreeSlots_FollowsRecurrenceRuleAndExceptionDates() {
+        availabilities.clear();
+        Availability biweekly = weekly(5L, null, 9, 11);
+        biweekly.setRecurrenceRule("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE");
+        biweekly.setRecurrenceStart(monday);
+        biweekly.setExceptionDates(monday.plusDays(2).toString());
+        availabilities.add(biweekly);
+
+        List<TimeSlotDTO> slots = slotEngine.findFreeSlots(1L, monday.atStartOfDay(), monday.plusWeeks(3).atStartOfDay(), 60);
+
+        assertEquals(List.of(monday.atTime(9, 0), monday.atTime(10, 0),
+                monday.plusWeeks(2).atTime(9, 0), monday.plusWeeks(2).atTime(10, 0),
+                monday.plusWeeks(2).plusDays(2).atTime(9, 0), monday.plusWeeks(2).plusDays(2).atTime(10, 0)), startsOf(slots));
+    }
+
+    @Test
+    void testIsOpen_AppliesOverridesAndBlocksInsideAndBeyondTheWindow() {
+        Availability blocked = weekly(2L, DayOfWeek.MONDAY, 10, 11);
+        blocked.setIsAvailable(false);
+        availabilities.add(blocked);
+        LocalDate later = monday.plusWeeks(52);
+        Availability dayOff = weekly(3L, null, 0, 23);
+        dayOff.setSpecificDate(later);
+        dayOff.setIsAvailable(false);
+        availabilities.add(dayOff);
+
+        assertTrue(slotEngine.isOpen(1L, monday.atTime(9, 0), monday.atTime(10, 0)));
+        assertFalse(slotEngine.isOpen(1L, monday.atTime(9, 30), monday.atTime(10, 30)));
+        assertTrue(slotEngine.isOpen(1L, monday.atTime(11, 0), monday.atTime(12, 0)));
+        assertFalse(slotEngine.isOpen(1L, monday.atTime(11, 30), monday.atTime(12, 30)));
+        assertFalse(slotEngine.isOpen(1L, monday.plusDays(1).atTime(9, 0), monday.plusDays(1).atTime(10, 0)));
+        // A year out is past the rolling window and expanded on demand
+        assertTrue(slotEngine.isOpen(1L, later.minusWeeks(1).atTime(9, 0), later.minusWeeks(1).atTime(10, 0)));
+        assertFalse(slotEngine.isOpen(1L, later.atTime(9, 0), later.atTime(10, 0)));
+        verify(availabilityRepository, times(1)).findByPsychologistId(1L);
+    }
+
+    @Test
+    void testOccurrenceArrays_MatchOnDemandExpansionAfterChanges() {
+        LocalDateTime from = monday.atStartOfDay();
+        LocalDateTime to = monday.plusWeeks(4).atStartOfDay();
+        assertEquals(12, slotEngine.findFreeSlots(1L, from, to, 60).size());
+
+        Availability thursdays = weekly(6L, null, 14, 16);
+        thursdays.setRecurrenceRule("FREQ=WEEKLY;BYDAY=TH;COUNT=2");
+        thursdays.setRecurrenceStart(monday);
+        slotEngine.onAvailabilityChanged(thursdays);
+
+        assertEquals(16, slotEngine.findFreeSlots(1L, from, to, 60).size());
+        assertTrue(slotEngine.isOpen(1L, monday.plusDays(10).atTime(14, 0), monday.plusDays(10).atTime(16, 0)));
+        assertFalse(slotEngine.isOpen(1L, monday.plusDays(17).atTime(14, 0), monday.plusDays(17).atTime(15, 0)));
+    }
+
+    @Test
+    void testOccupancy_ChecksAvailabilityAndBookingsFromDayBitsets() {
+        appointments.add(appointment(10L, monday.atTime(10, 0), 47));
+
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(9, 0), 60, null));
+        assertEquals(SlotEngine.Occupancy.BOOKED, slotEngine.occupancy(1L, monday.atTime(10, 45), 15, null));
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(10, 50), 70, null));
+        assertEquals(SlotEngine.Occupancy.OUTSIDE_AVAILABILITY, slotEngine.occupancy(1L, monday.atTime(11, 30), 60, null));
+        assertEquals(SlotEngine.Occupancy.OUTSIDE_AVAILABILITY, slotEngine.occupancy(1L, monday.plusDays(1).atTime(9, 0), 60, null));
+        // Off the 5-minute grid the bitsets are confirmed against the exact intervals
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(10, 48), 30, null));
+        assertEquals(SlotEngine.Occupancy.BOOKED, slotEngine.occupancy(1L, monday.atTime(10, 46), 30, null));
+        assertTrue(slotEngine.isOpen(1L, monday.atTime(9, 1), monday.atTime(11, 59)));
+    }
+
+    @Test
+    void testOccupancy_ReschedulingIgnoresItsOwnSlotAndFollowsChanges() {
+        Appointment booked = appointment(10L, monday.atTime(10, 0), 60);
+        appointments.add(booked);
+
+        assertEquals(SlotEngine.Occupancy.BOOKED, slotEngine.occupancy(1L, monday.atTime(10, 30), 60, null));
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(10, 30), 60, 10L));
+
+        booked.setAppointmentDateTime(monday.atTime(9, 0));
+        slotEngine.onAppointmentChanged(booked);
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(10, 0), 60, null));
+        assertEquals(SlotEngine.Occupancy.BOOKED, slotEngine.occupancy(1L, monday.atTime(9, 30), 60, null));
+
+        Availability blocked = weekly(2L, DayOfWeek.MONDAY, 11, 12);
+        blocked.setIsAvailable(false);
+        slotEngine.onAvailabilityChanged(blocked);
+        assertEquals(SlotEngine.Occupancy.OUTSIDE_AVAILABILITY, slotEngine.occupancy(1L, monday.atTime(11, 0), 30, null));
+        verify(appointmentRepository, times(1)).findByPsychologistIdAndAppointmentDateTimeGreaterThanEqual(eq(1L), any());
+    }
+
+    @Test
+    void testOnAvailabilityDeleted_UnknownOwnerEvictsCalendarsHoldingTheWindow() {
+        LocalDateTime from = monday.atStartOfDay();
+        LocalDateTime to = monday.plusDays(1).atStartOfDay();
+        assertEquals(3, slotEngine.findFreeSlots(1L, from, to, 60).size());
+
+        availabilities.clear();
+        slotEngine.onAvailabilityDeleted(null, 1L);
+
+        assertTrue(slotEngine.findFreeSlots(1L, from, to, 60).isEmpty());
+        verify(availabilityRepository, times(2)).findByPsychologistId(1L);
+    }
+
+    @Test
+    void testFindFreeSlots_LoadsEarlierAppointmentsOnlyWhenAQueryReachesThem() {
+        LocalDate past = monday.minusWeeks(3);
+        when(appointmentRepository.findByPsychologistIdAndAppointmentDateTimeBetween(eq(1L), any(), any()))
+                .thenReturn(List.of(appointment(30L, past.atTime(10, 0), 60)));
+
+        assertEquals(3, slotEngine.findFreeSlots(1L, monday.atStartOfDay(), monday.plusDays(1).atStartOfDay(), 60).size());
+        verify(appointmentRepository, never()).findByPsychologistIdAndAppointmentDateTimeBetween(anyLong(), any(), any());
+
+        List<TimeSlotDTO> slots = slotEngine.findFreeSlots(1L, past.atStartOfDay(), past.plusDays(1).atStartOfDay(), 60);
+        assertEquals(List.of(past.atTime(9, 0), past.atTime(11, 0)), startsOf(slots));
+        slotEngine.findFreeSlots(1L, past.atStartOfDay(), past.plusDays(1).atStartOfDay(), 60);
+        verify(appointmentRepository, times(1)).findByPsychologistIdAndAppointmentDateTimeBetween(
+                eq(1L), eq(past.minusDays(1).atStartOfDay()), any());
+    }
+
+    @Test
+    void testOccupancy_WithoutScheduleOnlyBookingsCount() {
+        availabilities.clear();
+        appointments.add(appointment(10L, monday.atTime(23, 30), 60));
+
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(3, 0), 60, null));
+        // A session across midnight occupies both days
+        assertEquals(SlotEngine.Occupancy.BOOKED, slotEngine.occupancy(1L, monday.plusDays(1).atStartOfDay(), 15, null));
+    }
+
+    @Test
+    void testIsOpenInDatabase_SeesBlocksTheCachedCalendarMissed() {
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(10, 0), 60, null));
+
+        // Blocked through another node: this node's calendar is not told
+        Availability blocked = weekly(2L, null, 10, 11);
+        blocked.setSpecificDate(monday);
+        blocked.setIsAvailable(false);
+        availabilities.add(blocked);
+
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(10, 0), 60, null));
+        assertFalse(slotEngine.isOpenInDatabase(1L, monday.atTime(10, 0), 60));
+        assertTrue(slotEngine.isOpenInDatabase(1L, monday.atTime(9, 0), 60));
+    }
+
+    @Test
+    void testOccupancy_RemovingTheLastOpenWindowLiftsTheSchedule() {
+        Availability blocked = weekly(2L, DayOfWeek.MONDAY, 11, 12);
+        blocked.setIsAvailable(false);
+        availabilities.add(blocked);
+        assertEquals(SlotEngine.Occupancy.OUTSIDE_AVAILABILITY, slotEngine.occupancy(1L, monday.atTime(14, 0), 60, null));
+
+        slotEngine.onAvailabilityDeleted(1L, 1L);
+
+        // Only a block is left, which restricts nothing without open hours
+        assertEquals(SlotEngine.Occupancy.FREE, slotEngine.occupancy(1L, monday.atTime(14, 0), 60, null));
+    }
+
+    @Test
+    void testDayOccupancy_MasksSpanWordBoundaries() {
+        long[] bits = new long[5];
+        SlotEngine.DayOccupancy.set(bits, 60, 130);
+
+        assertTrue(SlotEngine.DayOccupancy.covers(bits, 60, 130));
+        assertFalse(SlotEngine.DayOccupancy.covers(bits, 59, 130));
+        assertFalse(SlotEngine.DayOccupancy.covers(bits, 60, 131));
+        assertTrue(SlotEngine.DayOccupancy.intersects(bits, 129, 288));
+        assertFalse(SlotEngine.DayOccupancy.intersects(bits, 130, 288));
+        assertFalse(SlotEngine.DayOccupancy.intersects(bits, 0, 60));
+    }
+
+    @Test
+    void testFindFreeSlots_RejectsNonPositiveDuration() {
+        assertThrows(IllegalArgumentException.class, () ->
+                slotEngine.findFreeSlots(1L, monday.atStartOfDay(), monday.plusDays(1).atStartOfDay(), 0));
+    }
+
+    @Test
+    void testIntervalTree_OverlapQueryAfterRemovals() {
+        IntervalTree<Long> tree = new IntervalTree<>();
+        for (long i = 0; i < 1000; i++) {
+            tree.insert(i * 10, i * 10 + 15, i, i);
+        }
+        for (long i = 0; i < 1000; i += 2) {
+            assertTrue(tree.remove(i * 10, i));
+        }
+
+        List<IntervalTree.Node<Long>> hits = tree.overlapping(100, 130);
+
+        assertEquals(500, tree.size());
+        assertEquals(List.of(9L, 11L), hits.stream().map(node -> node.value).toList());
+    }
+
+    private Availability weekly(Long id, DayOfWeek dayOfWeek, int startHour, int endHour) {
+        Availability availability = new Availability();
+        availability.setId(id);
+        availability.setPsychologist(psychologist);
+        availability.setDayOfWeek(dayOfWeek);
+        availability.setStartTime(LocalTime.of(startHour, 0));
+        availability.setEndTime(LocalTime.of(endHour, 0));
+        availability.setIsAvailable(true);
+        return availability;
+    }
+
+    private Appointment appointment(Long id, LocalDateTime start, int durationMinutes) {
+        Appointment appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setPsychologist(psychologist);
+        appointment.setAppointmentDateTime(start);
+        appointment.setDurationMinutes(durationMinutes);
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        return appointment;
+    }
+
+    private static List<LocalDateTime> startsOf(List<TimeSlotDTO> slots) {
+        return slots.stream().map(TimeSlotDTO::getStartTime).toList();
+    }
+}
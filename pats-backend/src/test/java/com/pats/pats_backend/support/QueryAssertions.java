@@ -0,0 +1,44 @@
+package com.pats.pats_backend.support;
+
+import com.pats.pats_backend.config.QueryCountInspector;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fails a test when a block issues more SQL statements than expected. Repository-level tests need the
+ * inspector registered, e.g. {@code @DataJpaTest(properties = QueryAssertions.INSPECTOR_PROPERTY)};
+ * full application contexts register it through MetricsConfig.
+ */
+public final class QueryAssertions {
+
+    public static final String INSPECTOR_PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + "com.pats.pats_backend.config.QueryCountInspector";
+
+    private QueryAssertions() {
+    }
+
+    public static <T> T assertMaxQueries(int max, Supplier<T> action) {
+        QueryCountInspector.start();
+        T result;
+        QueryCountInspector.Scope scope;
+        try {
+            result = action.get();
+        } finally {
+            scope = QueryCountInspector.stop();
+        }
+        assertTrue(scope.getStatements() <= max,
+                "expected at most " + max + " statements but ran " + scope.getStatements()
+                        + "; repeated selects: " + scope.getRepeatedSelects(2));
+        return result;
+    }
+
+    public static void assertMaxQueries(int max, Runnable action) {
+        assertMaxQueries(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
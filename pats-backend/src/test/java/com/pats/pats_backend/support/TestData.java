@@ -0,0 +1,71 @@
+package com.pats.pats_backend.support;
+
+import com.pats.pats_backend.entity.Appointment;
+import com.pats.pats_backend.entity.MoodEntry;
+import com.pats.pats_backend.entity.Patient;
+import com.pats.pats_backend.entity.Psychologist;
+import com.pats.pats_backend.entity.User;
+import com.pats.pats_backend.enums.AppointmentStatus;
+import com.pats.pats_backend.enums.UserRole;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persists minimal entity graphs for repository-level tests
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static User user(EntityManager entityManager, String username, UserRole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        user.setEmail(username + "@test.com");
+        user.setRole(role);
+        user.setActive(true);
+        entityManager.persist(user);
+        return user;
+    }
+
+    public static Psychologist psychologist(EntityManager entityManager, String username) {
+        Psychologist psychologist = new Psychologist();
+        psychologist.setUser(user(entityManager, username, UserRole.PSYCHOLOGIST));
+        psychologist.setFirstName("Dr.");
+        psychologist.setLastName(username);
+        entityManager.persist(psychologist);
+        return psychologist;
+    }
+
+    public static Patient patient(EntityManager entityManager, String username) {
+        Patient patient = new Patient();
+        patient.setUser(user(entityManager, username, UserRole.PATIENT));
+        patient.setFirstName("Patient");
+        patient.setLastName(username);
+        entityManager.persist(patient);
+        return patient;
+    }
+
+    public static Appointment appointment(EntityManager entityManager, Psychologist psychologist, Patient patient,
+                                          LocalDateTime start, int durationMinutes) {
+        Appointment appointment = new Appointment();
+        appointment.setPsychologist(psychologist);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(start);
+        appointment.setDurationMinutes(durationMinutes);
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
+        entityManager.persist(appointment);
+        return appointment;
+    }
+
+    public static MoodEntry moodEntry(EntityManager entityManager, Patient patient, LocalDateTime timestamp, int rating) {
+        MoodEntry entry = new MoodEntry();
+        entry.setPatient(patient);
+        entry.setEmotionalRating(rating);
+        entry.setEntryTimestamp(timestamp);
+        entityManager.persist(entry);
+        return entry;
+    }
+}
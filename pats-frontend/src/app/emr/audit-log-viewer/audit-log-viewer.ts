@@ -14,7 +14,9 @@ export class AuditLogViewerComponent implements OnInit {
   @Input() patientRecordId?: number;
 
   logs: AuditLog[] = [];
+  nextCursor?: string;
   loading = false;
+  loadingMore = false;
   errorMessage = '';
 
   constructor(private patientRecordService: PatientRecordService) {}
@@ -32,8 +34,9 @@ export class AuditLogViewerComponent implements OnInit {
     this.errorMessage = '';
 
     this.patientRecordService.getAuditTrail(this.patientRecordId).subscribe({
-      next: (logs) => {
-        this.logs = logs;
+      next: (page) => {
+        this.logs = page.items;
+        this.nextCursor = page.hasMore ? page.nextCursor : undefined;
         this.loading = false;
       },
       error: (error) => {
@@ -44,6 +47,26 @@ export class AuditLogViewerComponent implements OnInit {
     });
   }
 
+  loadMore(): void {
+    if (!this.patientRecordId || !this.nextCursor) return;
+
+    this.loadingMore = true;
+    this.errorMessage = '';
+
+    this.patientRecordService.getAuditTrail(this.patientRecordId, this.nextCursor).subscribe({
+      next: (page) => {
+        this.logs = [...this.logs, ...page.items];
+        this.nextCursor = page.hasMore ? page.nextCursor : undefined;
+        this.loadingMore = false;
+      },
+      error: (error) => {
+        this.errorMessage = 'Failed to load audit logs';
+        this.loadingMore = false;
+        console.error('Audit log error:', error);
+      }
+    });
+  }
+
   formatDate(date: Date): string {
     return new Date(date).toLocaleString('ro-RO', {
       year: 'numeric',
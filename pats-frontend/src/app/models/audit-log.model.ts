@@ -7,4 +7,10 @@ export interface AuditLog {
   actionDetails?: string;
   actionTimestamp: Date;
   ipAddress?: string;
-}
\ No newline at end of file
+}
+
+export interface AuditLogPage {
+  items: AuditLog[];
+  nextCursor?: string; // pass back as cursor for the next (older) page
+  hasMore: boolean;
+}
@@ -1,9 +1,9 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpHeaders } from '@angular/common/http';
+import { HttpClient, HttpHeaders, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { PatientRecord } from '../models/patient-record.model';
 import { EmergencyContact } from '../models/emergency-contact.model';
-import { AuditLog } from '../models/audit-log.model';
+import { AuditLogPage } from '../models/audit-log.model';
 
 @Injectable({
   providedIn: 'root',
@@ -70,10 +70,15 @@ export class PatientRecordService {
     });
   }
 
-  // FR17.9: Audit Trail
-  getAuditTrail(patientRecordId: number): Observable<AuditLog[]> {
-    return this.http.get<AuditLog[]>(`${this.apiUrl}/records/${patientRecordId}/audit-trail`, {
+  // FR17.9: Audit Trail, newest first, one page at a time
+  getAuditTrail(patientRecordId: number, cursor?: string): Observable<AuditLogPage> {
+    let params = new HttpParams();
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<AuditLogPage>(`${this.apiUrl}/records/${patientRecordId}/audit-trail`, {
       headers: this.getHeaders(),
+      params,
     });
   }
 }